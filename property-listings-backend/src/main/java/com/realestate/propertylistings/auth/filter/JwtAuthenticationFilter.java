@@ -1,7 +1,8 @@
 package com.realestate.propertylistings.auth.filter;
 
 import com.realestate.propertylistings.auth.service.JwtService;
-import com.realestate.propertylistings.auth.service.UserDetailsServiceImpl;
+import com.realestate.propertylistings.auth.service.PrincipalResolver;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,7 +25,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsServiceImpl userDetailsService;
+    private final PrincipalResolver principalResolver;
 
     @Override
     protected void doFilterInternal(
@@ -45,13 +46,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            // jedno parsowanie: podpis i wygaśnięcie są sprawdzane tutaj
+            Claims claims = jwtService.parseClaims(jwt);
+            userEmail = claims.getSubject();
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+                UserDetails userDetails = principalResolver.resolve(claims);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (userEmail.equals(userDetails.getUsername()) && userDetails.isEnabled()) {
 
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
@@ -3,6 +3,7 @@ package com.realestate.propertylistings.auth.service;
 import com.realestate.propertylistings.auth.dto.AuthResponse;
 import com.realestate.propertylistings.auth.dto.LoginRequest;
 import com.realestate.propertylistings.auth.dto.RegisterRequest;
+import com.realestate.propertylistings.exception.TooManyRequestsException;
 import com.realestate.propertylistings.user.User;
 import com.realestate.propertylistings.user.UserRepository;
 import com.realestate.propertylistings.user.UserRole;
@@ -11,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -25,6 +27,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final PasswordHashingExecutor hashingExecutor;
 
     public AuthResponse register(RegisterRequest request) {
         log.info("Próba rejestracji użytkownika: {}", request.getEmail());
@@ -37,7 +40,7 @@ public class AuthService {
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(hashingExecutor.execute("register", () -> passwordEncoder.encode(request.getPassword())))
                 .phoneNumber(request.getPhoneNumber())
                 .role(UserRole.PENDING_AGENT)
                 .enabled(true)
@@ -58,15 +61,18 @@ public class AuthService {
         log.info("Próba logowania użytkownika: {}", request.getEmail());
 
         try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getEmail(),
-                            request.getPassword()
-                    )
-            );
-
-            User user = userRepository.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new BadCredentialsException("Nieprawidłowy email lub hasło"));
+            Authentication authentication = hashingExecutor.execute("login", () ->
+                    authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(
+                                    request.getEmail(),
+                                    request.getPassword()
+                            )
+                    ));
+
+            // principal to użytkownik załadowany przez DaoAuthenticationProvider - bez drugiego zapytania
+            if (!(authentication.getPrincipal() instanceof User user)) {
+                throw new BadCredentialsException("Nieprawidłowy email lub hasło");
+            }
 
             if (!user.isEnabled()) {
                 throw new RuntimeException("Konto nieaktywne. Skontaktuj się z administratorem.");
@@ -76,7 +82,7 @@ public class AuthService {
 
             return buildAuthResponse(user);
 
-        } catch (BadCredentialsException e) {
+        } catch (BadCredentialsException | TooManyRequestsException e) {
             log.error("Błąd logowania dla użytkownika {}: {}", request.getEmail(), e.getMessage());
             throw e;
         } catch (Exception e) {
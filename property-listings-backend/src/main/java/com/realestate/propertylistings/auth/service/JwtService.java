@@ -3,14 +3,21 @@ package com.realestate.propertylistings.auth.service;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import lombok.extern.slf4j.Slf4j;
+import com.realestate.propertylistings.user.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -26,17 +33,48 @@ public class JwtService {
     @Value("${jwt.refresh-token.expiration:604800000}")
     private long refreshExpiration;
 
+    // 0 wyłącza cache zweryfikowanych tokenów
+    @Value("${jwt.verified-cache.max-entries:0}")
+    private int verifiedCacheMaxEntries;
+
+    private SecretKey signInKey;
+    private JwtParser parser;
+    private Map<String, Claims> verifiedTokens;
+
+    // klucz i parser są niezmienne i bezpieczne wątkowo - budujemy je raz, nie przy każdym żądaniu
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser().verifyWith(signInKey).build();
+        if (verifiedCacheMaxEntries > 0) {
+            int maxEntries = verifiedCacheMaxEntries;
+            verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        // podpisane claimy pozwalają zbudować principala bez zapytania do bazy (tryb "claims")
+        if (userDetails instanceof User user) {
+            claims.put(PrincipalResolver.CLAIM_USER_ID, user.getId());
+            claims.put(PrincipalResolver.CLAIM_ROLE, user.getRole().name());
+            claims.put(PrincipalResolver.CLAIM_ENABLED, user.isEnabled());
+        }
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
@@ -63,24 +101,56 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        final Claims claims = parseClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
+    }
+
+    // weryfikuje podpis i termin ważności; wygasły token kończy się ExpiredJwtException
+    public Claims parseClaims(String token) {
+        if (verifiedTokens == null) {
+            return extractAllClaims(token);
+        }
+
+        String digest = digest(token);
+        Claims cached;
+        synchronized (verifiedTokens) {
+            cached = verifiedTokens.get(digest);
+        }
+        if (cached != null) {
+            if (!isTokenExpired(cached)) {
+                return cached;
+            }
+            synchronized (verifiedTokens) {
+                verifiedTokens.remove(digest);
+            }
+        }
+
+        Claims claims = extractAllClaims(token);
+        if (claims.getExpiration() != null) {
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(digest, claims);
+            }
+        }
+        return claims;
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // skrót zamiast samego tokenu - cache nie trzyma w pamięci działających poświadczeń
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Brak algorytmu SHA-256", e);
+        }
     }
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts
-                    .parser()
-                    .verifyWith(getSignInKey())
-                    .build()
+            return parser
                     .parseSignedClaims(token)
                     .getPayload();
         } catch (ExpiredJwtException e) {
@@ -102,8 +172,7 @@ public class JwtService {
     }
 
     private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
     }
 
     public long getExpirationTime() {
@@ -0,0 +1,105 @@
+package com.realestate.propertylistings.auth.service;
+
+import com.realestate.propertylistings.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Osobna, ograniczona pula dla BCrypt (logowanie, rejestracja). Przy pełnej kolejce
+ * żądanie od razu dostaje 429 zamiast zajmować wątki Tomcata potrzebne do przeglądania ofert.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final MeterRegistry meterRegistry;
+
+    public PasswordHashingExecutor(
+            @Value("${app.auth.hashing.threads:0}") int threads,
+            @Value("${app.auth.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${app.auth.hashing.retry-after-seconds:1}") long retryAfterSeconds,
+            MeterRegistry meterRegistry
+    ) {
+        // domyślnie połowa rdzeni - reszta zostaje dla ruchu przeglądania
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("auth.password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Zadania BCrypt czekające w kolejce")
+                .register(meterRegistry);
+        log.info("Pula haszowania haseł: {} wątków, kolejka {}", poolSize, queueCapacity);
+    }
+
+    public <T> T execute(String operation, Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                timer("auth.password.hashing.queue.time", operation).record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.get();
+                } finally {
+                    timer("auth.password.hashing.time", operation).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("auth.password.hashing.rejected", "operation", operation).increment();
+            log.warn("Odrzucono {} - kolejka haszowania pełna", operation);
+            throw new TooManyRequestsException("Zbyt wiele prób logowania. Spróbuj ponownie za chwilę.", retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Przerwano oczekiwanie na haszowanie hasła", e);
+        }
+    }
+
+    private Timer timer(String name, String operation) {
+        return Timer.builder(name).tag("operation", operation).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
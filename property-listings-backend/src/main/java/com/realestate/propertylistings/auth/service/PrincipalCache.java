@@ -0,0 +1,63 @@
+package com.realestate.propertylistings.auth.service;
+
+import com.realestate.propertylistings.user.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    static final String CACHE_NAME = "principalCache";
+
+    private final Cache cache;
+
+    public PrincipalCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    // iat w kluczu: nowy token (np. po zmianie roli i ponownym logowaniu) nigdy nie trafi w stary wpis
+    public User get(String subject, Date issuedAt) {
+        if (cache == null) {
+            return null;
+        }
+        return cache.get(key(subject, issuedAt), User.class);
+    }
+
+    public void put(String subject, Date issuedAt, User user) {
+        if (cache != null) {
+            cache.put(key(subject, issuedAt), user);
+        }
+    }
+
+    // po id, nie po emailu - zmiana emaila też musi usunąć wpisy ze starym subject
+    @SuppressWarnings("unchecked")
+    public void evictUser(Long userId) {
+        if (cache == null || userId == null) {
+            return;
+        }
+        if (!(cache.getNativeCache() instanceof javax.cache.Cache<?, ?> nativeCache)) {
+            cache.clear();
+            return;
+        }
+
+        List<Object> keys = new ArrayList<>();
+        for (javax.cache.Cache.Entry<?, ?> entry : (javax.cache.Cache<Object, Object>) nativeCache) {
+            if (entry.getValue() instanceof User user && userId.equals(user.getId())) {
+                keys.add(entry.getKey());
+            }
+        }
+        keys.forEach(cache::evict);
+        log.debug("Usunięto z cache {} principali użytkownika id={}", keys.size(), userId);
+    }
+
+    private static String key(String subject, Date issuedAt) {
+        return subject + ":" + (issuedAt == null ? 0 : issuedAt.getTime());
+    }
+}
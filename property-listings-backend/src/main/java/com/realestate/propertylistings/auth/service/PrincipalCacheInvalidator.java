@@ -0,0 +1,37 @@
+package com.realestate.propertylistings.auth.service;
+
+import com.realestate.propertylistings.user.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// każda zmiana użytkownika (rola przy zatwierdzeniu agenta, enabled, usunięcie) usuwa jego principale
+@Component
+@RequiredArgsConstructor
+public class PrincipalCacheInvalidator {
+
+    private final ObjectProvider<PrincipalCache> principalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        PrincipalCache cache = principalCache.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+        Long userId = user.getId();
+        cache.evictUser(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evictUser(userId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.realestate.propertylistings.auth.service;
+
+public enum PrincipalMode {
+    // każde żądanie czyta użytkownika z bazy
+    DATABASE,
+    // użytkownik z krótkotrwałego cache po (subject, iat), baza tylko przy chybieniu
+    CACHE,
+    // principal budowany wyłącznie z podpisanych claimów tokenu (poza rolą ADMIN - jak CACHE);
+    // zmiana roli lub blokada konta działa dopiero po wygaśnięciu tokenu (jwt.expiration),
+    // a principal ma tylko id, e-mail, rolę i enabled - serwisy ładują encję po id
+    CLAIMS
+}
@@ -0,0 +1,82 @@
+package com.realestate.propertylistings.auth.service;
+
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRole;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class PrincipalResolver {
+
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_ENABLED = "enabled";
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final PrincipalCache principalCache;
+    private final PrincipalMode mode;
+
+    public PrincipalResolver(
+            UserDetailsServiceImpl userDetailsService,
+            PrincipalCache principalCache,
+            @Value("${app.security.principal-mode:cache}") String mode
+    ) {
+        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.mode = PrincipalMode.valueOf(mode.trim().toUpperCase());
+        log.info("Tryb ładowania principala: {}", this.mode);
+    }
+
+    // claims pochodzą z tokenu o już zweryfikowanym podpisie i terminie ważności
+    public UserDetails resolve(Claims claims) {
+        String subject = claims.getSubject();
+        return switch (mode) {
+            case DATABASE -> userDetailsService.loadUserByUsername(subject);
+            case CACHE -> fromCache(claims);
+            case CLAIMS -> {
+                User fromClaims = fromClaims(claims);
+                // tokeny wydane przed dodaniem claimów - jak w trybie cache; rola ADMIN zawsze
+                // sprawdzana w bazie, bo odebrane uprawnienia administratora żyłyby do wygaśnięcia tokenu
+                yield fromClaims != null && fromClaims.getRole() != UserRole.ADMIN
+                        ? fromClaims
+                        : fromCache(claims);
+            }
+        };
+    }
+
+    private UserDetails fromCache(Claims claims) {
+        User cached = principalCache.get(claims.getSubject(), claims.getIssuedAt());
+        if (cached != null) {
+            return cached;
+        }
+
+        UserDetails loaded = userDetailsService.loadUserByUsername(claims.getSubject());
+        if (loaded instanceof User user) {
+            principalCache.put(claims.getSubject(), claims.getIssuedAt(), user);
+        }
+        return loaded;
+    }
+
+    private static User fromClaims(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Boolean enabled = claims.get(CLAIM_ENABLED, Boolean.class);
+        if (userId == null || role == null || enabled == null) {
+            return null;
+        }
+
+        return User.builder()
+                .id(userId)
+                .email(claims.getSubject())
+                .role(UserRole.valueOf(role))
+                .enabled(enabled)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build();
+    }
+}
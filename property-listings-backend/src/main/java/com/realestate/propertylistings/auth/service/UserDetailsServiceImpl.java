@@ -1,15 +1,19 @@
 package com.realestate.propertylistings.auth.service;
 
+import com.realestate.propertylistings.user.User;
 import com.realestate.propertylistings.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+@Slf4j
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -18,4 +22,15 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Użytkownik nie znaleziony: " + email));
     }
+
+    // wywoływane przez DaoAuthenticationProvider po udanym logowaniu, gdy hash ma niższy koszt niż skonfigurowany
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        if (!(user instanceof User entity)) {
+            return user;
+        }
+        entity.setPassword(newPassword);
+        log.info("Przehaszowano hasło użytkownika {} z nowym kosztem BCrypt", entity.getEmail());
+        return userRepository.save(entity);
+    }
 }
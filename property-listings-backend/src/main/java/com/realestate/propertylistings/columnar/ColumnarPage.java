@@ -0,0 +1,6 @@
+package com.realestate.propertylistings.columnar;
+
+import java.util.List;
+
+public record ColumnarPage(List<Long> ids, int total) {
+}
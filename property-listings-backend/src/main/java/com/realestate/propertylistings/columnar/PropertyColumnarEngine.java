@@ -0,0 +1,385 @@
+package com.realestate.propertylistings.columnar;
+
+import com.realestate.propertylistings.property.Property;
+import com.realestate.propertylistings.property.PropertyFilterRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Aktywne ogłoszenia trzymane kolumnowo w tablicach prymitywów. Filtrowanie
+ * i sortowanie odbywa się bez obiektów pośrednich, wynikiem są id jednej strony.
+ */
+@Component
+@Slf4j
+public class PropertyColumnarEngine {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_INT = Integer.MIN_VALUE;
+    private static final int NO_CODE = -1;
+    // null w sortowaniu jest "największy" - jak w PostgreSQL (NULLS LAST dla ASC, NULLS FIRST dla DESC)
+    private static final long NULL_SORT_KEY = Long.MAX_VALUE;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private boolean[] live = new boolean[INITIAL_CAPACITY];
+    private long[] priceCents = new long[INITIAL_CAPACITY];
+    private double[] areaSqm = new double[INITIAL_CAPACITY];
+    private int[] roomCount = new int[INITIAL_CAPACITY];
+    private int[] floorNumber = new int[INITIAL_CAPACITY];
+    private int[] bathroomCount = new int[INITIAL_CAPACITY];
+    private int[] transactionType = new int[INITIAL_CAPACITY];
+    private int[] cityCode = new int[INITIAL_CAPACITY];
+    private int[] postalCode = new int[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+    private long[] updatedAt = new long[INITIAL_CAPACITY];
+
+    private final Map<String, Integer> cityDictionary = new HashMap<>();
+    private final Map<String, Integer> postalCodeDictionary = new HashMap<>();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int highWater;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+        log.info("Silnik kolumnowy gotowy: {} aktywnych ogłoszeń", size());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            Arrays.fill(live, false);
+            cityDictionary.clear();
+            postalCodeDictionary.clear();
+            slotsById.clear();
+            freeCount = 0;
+            highWater = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Property property) {
+        if (!Boolean.TRUE.equals(property.getIsActive())) {
+            remove(property.getId());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = slotsById.get(property.getId());
+            int slot = existing != null ? existing : allocateSlot();
+
+            ids[slot] = property.getId();
+            priceCents[slot] = property.getPrice() == null
+                    ? NULL_SORT_KEY
+                    : property.getPrice().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            areaSqm[slot] = property.getAreaSqm() == null ? Double.NaN : property.getAreaSqm();
+            roomCount[slot] = orNone(property.getRoomCount());
+            floorNumber[slot] = orNone(property.getFloorNumber());
+            bathroomCount[slot] = orNone(property.getBathroomCount());
+            transactionType[slot] = property.getTransactionType() == null
+                    ? NO_CODE
+                    : property.getTransactionType().ordinal();
+            cityCode[slot] = encode(cityDictionary, property.getCity() == null ? null : property.getCity().toLowerCase(Locale.ROOT));
+            postalCode[slot] = encode(postalCodeDictionary, property.getPostalCode());
+            createdAt[slot] = epochMicros(property.getCreatedAt());
+            updatedAt[slot] = epochMicros(property.getUpdatedAt());
+            live[slot] = true;
+            slotsById.put(property.getId(), slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsById.remove(propertyId);
+            if (slot == null) {
+                return;
+            }
+            live[slot] = false;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static boolean supportsSort(String sortBy) {
+        return switch (sortBy) {
+            case "price", "createdAt", "updatedAt", "areaSqm", "roomCount" -> true;
+            default -> false;
+        };
+    }
+
+    // pusty wynik, gdy filtrów nie da się wykonać na kolumnach (ulica, fraza bez indeksu, nieaktywne)
+    public Optional<ColumnarPage> query(
+            PropertyFilterRequest filters,
+            Collection<Long> searchIds,
+            String sortBy,
+            Sort.Direction direction,
+            long offset,
+            int limit
+    ) {
+        boolean hasSearch = filters.getSearch() != null && !filters.getSearch().isEmpty();
+        if (!Boolean.TRUE.equals(filters.getActiveOnly())
+                || (filters.getStreet() != null && !filters.getStreet().isEmpty())
+                || (hasSearch && searchIds == null)
+                || !supportsSort(sortBy)) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] matches = matchingSlots(filters, hasSearch ? searchIds : null);
+            int total = matches.length;
+            if (offset >= total) {
+                return Optional.of(new ColumnarPage(List.of(), total));
+            }
+
+            long[] keys = sortKeys(matches, sortBy);
+            sort(keys, matches, 0, total - 1, direction == Sort.Direction.DESC);
+
+            int from = (int) offset;
+            int to = (int) Math.min(offset + limit, total);
+            List<Long> pageIds = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                pageIds.add(ids[matches[i]]);
+            }
+            return Optional.of(new ColumnarPage(pageIds, total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] matchingSlots(PropertyFilterRequest filters, Collection<Long> searchIds) {
+        int city = NO_CODE;
+        if (filters.getCity() != null && !filters.getCity().isEmpty()) {
+            Integer code = cityDictionary.get(filters.getCity().toLowerCase(Locale.ROOT));
+            if (code == null) {
+                return new int[0];
+            }
+            city = code;
+        }
+
+        int postal = NO_CODE;
+        if (filters.getPostalCode() != null && !filters.getPostalCode().isEmpty()) {
+            Integer code = postalCodeDictionary.get(filters.getPostalCode());
+            if (code == null) {
+                return new int[0];
+            }
+            postal = code;
+        }
+
+        boolean[] allowed = null;
+        if (searchIds != null) {
+            allowed = new boolean[highWater];
+            for (Long id : searchIds) {
+                Integer slot = slotsById.get(id);
+                if (slot != null) {
+                    allowed[slot] = true;
+                }
+            }
+        }
+
+        int type = filters.getType() == null ? NO_CODE : filters.getType().ordinal();
+        boolean priceFilter = filters.getMinPrice() != null || filters.getMaxPrice() != null;
+        long minPrice = filters.getMinPrice() == null ? Long.MIN_VALUE : cents(filters.getMinPrice(), RoundingMode.CEILING);
+        long maxPrice = filters.getMaxPrice() == null ? Long.MAX_VALUE : cents(filters.getMaxPrice(), RoundingMode.FLOOR);
+        boolean areaFilter = filters.getMinArea() != null || filters.getMaxArea() != null;
+        double minArea = filters.getMinArea() == null ? Double.NEGATIVE_INFINITY : filters.getMinArea();
+        double maxArea = filters.getMaxArea() == null ? Double.POSITIVE_INFINITY : filters.getMaxArea();
+
+        int[] result = new int[slotsById.size()];
+        int count = 0;
+        for (int slot = 0; slot < highWater; slot++) {
+            if (!live[slot]
+                    || (allowed != null && !allowed[slot])
+                    || (city != NO_CODE && cityCode[slot] != city)
+                    || (postal != NO_CODE && postalCode[slot] != postal)
+                    || (type != NO_CODE && transactionType[slot] != type)
+                    || (priceFilter && (priceCents[slot] == NULL_SORT_KEY
+                            || priceCents[slot] < minPrice || priceCents[slot] > maxPrice))
+                    || (areaFilter && !(areaSqm[slot] >= minArea && areaSqm[slot] <= maxArea))
+                    || !inRange(roomCount[slot], filters.getMinRooms(), filters.getMaxRooms())
+                    || !inRange(floorNumber[slot], filters.getMinFloor(), filters.getMaxFloor())
+                    || !inRange(bathroomCount[slot], filters.getMinBathroom(), filters.getMaxBathroom())) {
+                continue;
+            }
+            result[count++] = slot;
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private long[] sortKeys(int[] slots, String sortBy) {
+        long[] keys = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            int slot = slots[i];
+            keys[i] = switch (sortBy) {
+                case "price" -> priceCents[slot];
+                case "updatedAt" -> updatedAt[slot];
+                case "areaSqm" -> sortableDouble(areaSqm[slot]);
+                case "roomCount" -> roomCount[slot] == NO_INT ? NULL_SORT_KEY : roomCount[slot];
+                default -> createdAt[slot];
+            };
+        }
+        return keys;
+    }
+
+    // quicksort par (klucz, slot); remisy rozstrzyga id w tym samym kierunku, co klucz
+    private void sort(long[] keys, int[] slots, int low, int high, boolean descending) {
+        while (low < high) {
+            if (high - low < 16) {
+                insertionSort(keys, slots, low, high, descending);
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            long pivotKey = keys[mid];
+            long pivotId = ids[slots[mid]];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(keys[i], ids[slots[i]], pivotKey, pivotId, descending) < 0) {
+                    i++;
+                }
+                while (compare(keys[j], ids[slots[j]], pivotKey, pivotId, descending) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(keys, slots, i++, j--);
+                }
+            }
+            // rekurencja na mniejszej części, pętla na większej - stos O(log n)
+            if (j - low < high - i) {
+                sort(keys, slots, low, j, descending);
+                low = i;
+            } else {
+                sort(keys, slots, i, high, descending);
+                high = j;
+            }
+        }
+    }
+
+    private void insertionSort(long[] keys, int[] slots, int low, int high, boolean descending) {
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low
+                    && compare(keys[j], ids[slots[j]], keys[j - 1], ids[slots[j - 1]], descending) < 0; j--) {
+                swap(keys, slots, j, j - 1);
+            }
+        }
+    }
+
+    private static int compare(long keyA, long idA, long keyB, long idB, boolean descending) {
+        int result = keyA != keyB ? Long.compare(keyA, keyB) : Long.compare(idA, idB);
+        return descending ? -result : result;
+    }
+
+    private static void swap(long[] keys, int[] slots, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int slot = slots[i];
+        slots[i] = slots[j];
+        slots[j] = slot;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == ids.length) {
+            grow(ids.length + (ids.length >> 1));
+        }
+        return highWater++;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        live = Arrays.copyOf(live, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        areaSqm = Arrays.copyOf(areaSqm, capacity);
+        roomCount = Arrays.copyOf(roomCount, capacity);
+        floorNumber = Arrays.copyOf(floorNumber, capacity);
+        bathroomCount = Arrays.copyOf(bathroomCount, capacity);
+        transactionType = Arrays.copyOf(transactionType, capacity);
+        cityCode = Arrays.copyOf(cityCode, capacity);
+        postalCode = Arrays.copyOf(postalCode, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+    }
+
+    private static int encode(Map<String, Integer> dictionary, String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        return dictionary.computeIfAbsent(value, v -> dictionary.size());
+    }
+
+    private static boolean inRange(int value, Integer min, Integer max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return value != NO_INT
+                && (min == null || value >= min)
+                && (max == null || value <= max);
+    }
+
+    private static int orNone(Integer value) {
+        return value == null ? NO_INT : value;
+    }
+
+    private static long cents(BigDecimal amount, RoundingMode roundingMode) {
+        return amount.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    private static long epochMicros(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return NULL_SORT_KEY;
+        }
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    // porządek longów zgodny z porządkiem double; NaN (brak wartości) na końcu
+    private static long sortableDouble(double value) {
+        if (Double.isNaN(value)) {
+            return NULL_SORT_KEY;
+        }
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,54 @@
+package com.realestate.propertylistings.columnar;
+
+import com.realestate.propertylistings.property.PropertyChangedEvent;
+import com.realestate.propertylistings.property.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PropertyColumnarIndexer {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final PropertyColumnarEngine columnarEngine;
+    private final PropertyRepository propertyRepository;
+
+    @Value("${app.filter.columnar.enabled:false}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Silnik kolumnowy wyłączony - filtrowanie przez JPA");
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        columnarEngine.clear();
+
+        propertyRepository.forEachActiveBatch(REBUILD_BATCH_SIZE, batch -> batch.forEach(columnarEngine::index));
+
+        columnarEngine.markReady();
+        log.info("Przebudowa silnika kolumnowego zajęła {} ms", System.currentTimeMillis() - startTime);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        if (event.changeType() == PropertyChangedEvent.ChangeType.DELETED) {
+            columnarEngine.remove(event.propertyId());
+        } else {
+            columnarEngine.index(event.property());
+        }
+    }
+}
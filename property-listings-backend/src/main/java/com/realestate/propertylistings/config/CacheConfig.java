@@ -0,0 +1,28 @@
+package com.realestate.propertylistings.config;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.io.IOException;
+
+/**
+ * CacheManager Spring Cache tylko dla tego kontekstu - ten zbudowany przez Spring Boot jest
+ * współdzielony po URI z każdym innym kontekstem, który go zamyka przy wyłączaniu.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public CacheManager contextJCacheManager(@Value("${spring.cache.jcache.config}") Resource config)
+            throws IOException {
+        CachingProvider provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        return provider.getCacheManager(
+                ContextScopedJCacheRegionFactory.contextScoped(config.getURI()), provider.getDefaultClassLoader());
+    }
+}
@@ -0,0 +1,31 @@
+package com.realestate.propertylistings.config;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JCacheRegionFactory z własnym CacheManagerem dla każdej SessionFactory. CachingProvider
+ * współdzieli managery po URI, a zamknięcie SessionFactory zamyka manager - przy wspólnym URI
+ * zamknięcie jednego kontekstu (np. w testach) zamykało regiony L2 pozostałych.
+ */
+public class ContextScopedJCacheRegionFactory extends JCacheRegionFactory {
+
+    @Override
+    protected URI getUri(SessionFactoryOptions settings, Map<String, Object> properties) {
+        return contextScoped(super.getUri(settings, properties));
+    }
+
+    // fragment rozróżnia managery, nie zmienia wczytywanego pliku konfiguracji
+    static URI contextScoped(URI configUri) {
+        try {
+            return new URI(configUri.getScheme(), configUri.getSchemeSpecificPart(), UUID.randomUUID().toString());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Nieprawidłowy URI konfiguracji cache: " + configUri, e);
+        }
+    }
+}
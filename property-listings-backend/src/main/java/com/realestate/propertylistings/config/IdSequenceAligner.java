@@ -0,0 +1,67 @@
+package com.realestate.propertylistings.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Tabele przeniesione z IDENTITY na sekwencje mają już wiersze - ddl-auto tworzy sekwencję
+ * od 1, więc przed pierwszym insertem przesuwamy ją za MAX(id).
+ */
+@Component
+// po entityManagerFactory - schemat (w tym sekwencje) jest już zaktualizowany
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceAligner {
+
+    // sekwencja -> tabela
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "property_images_seq", "property_images",
+            "properties_seq", "properties",
+            "users_seq", "users",
+            "contacts_seq", "contacts"
+    );
+
+    // większe niż allocationSize - bezpieczne niezależnie od tego, jak optymalizator pooled czyta wartość
+    private static final long HEADROOM = 100;
+
+    private final DataSource dataSource;
+
+    @PostConstruct
+    void align() {
+        if (!isPostgres()) {
+            return;
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                Long maxId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+                Long current = jdbc.queryForObject("SELECT last_value FROM " + sequence, Long.class);
+                if (maxId != null && current != null && current <= maxId + HEADROOM) {
+                    jdbc.queryForObject("SELECT setval(?, ?, false)", Long.class, sequence, maxId + HEADROOM + 1);
+                    log.info("Sekwencja {} przesunięta za MAX(id)={} tabeli {}", sequence, maxId, table);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Nie udało się wyrównać sekwencji {}: {}", sequence, e.getMessage());
+            }
+        });
+    }
+
+    private boolean isPostgres() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            log.warn("Nie udało się ustalić typu bazy: {}", e.getMessage());
+            return false;
+        }
+    }
+}
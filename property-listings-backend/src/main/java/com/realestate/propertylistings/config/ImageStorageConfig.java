@@ -0,0 +1,72 @@
+package com.realestate.propertylistings.config;
+
+import com.realestate.propertylistings.image.ImageStorage;
+import com.realestate.propertylistings.image.LocalShardedImageStorage;
+import com.realestate.propertylistings.image.S3ImageStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+/**
+ * Wybór magazynu plików zdjęć: app.images.storage.type=local (domyślnie) albo s3.
+ */
+@Configuration
+public class ImageStorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.images.storage.type", havingValue = "local", matchIfMissing = true)
+    public ImageStorage localImageStorage(@Value("${app.upload.dir:uploads/properties}") String uploadDir) {
+        return new LocalShardedImageStorage(Paths.get(uploadDir));
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.images.storage.type", havingValue = "s3")
+    public S3Client imageS3Client(
+            @Value("${app.images.storage.s3.endpoint:}") String endpoint,
+            @Value("${app.images.storage.s3.region:us-east-1}") String region,
+            @Value("${app.images.storage.s3.access-key:}") String accessKey,
+            @Value("${app.images.storage.s3.secret-key:}") String secretKey
+    ) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials(accessKey, secretKey))
+                // MinIO/Ceph nie obsługują sum kontrolnych wymuszanych domyślnie przez nowsze SDK
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .responseChecksumValidation(ResponseChecksumValidation.WHEN_REQUIRED);
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.images.storage.type", havingValue = "s3")
+    public ImageStorage s3ImageStorage(
+            S3Client imageS3Client,
+            @Value("${app.images.storage.s3.bucket}") String bucket,
+            @Value("${app.upload.dir:uploads/properties}") String uploadDir
+    ) {
+        return new S3ImageStorage(imageS3Client, bucket, Paths.get(uploadDir));
+    }
+
+    // jawne klucze tylko dla MinIO w dev - w AWS łańcuch domyślny (zmienne AWS_*, profil, rola instancji/IRSA)
+    private static AwsCredentialsProvider credentials(String accessKey, String secretKey) {
+        if (accessKey.isBlank() || secretKey.isBlank()) {
+            return DefaultCredentialsProvider.create();
+        }
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+    }
+}
@@ -0,0 +1,76 @@
+package com.realestate.propertylistings.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Aplikacja działa w jednej instancji na bazę: cache list (PropertyQueryCache), cache szczegółów
+ * oraz indeksy facetów, kolumnowy i wyszukiwania żyją w pamięci JVM i są unieważniane zdarzeniami
+ * lokalnymi. Druga instancja serwowałaby nieaktualne strony aż do wygaśnięcia TTL, więc start
+ * zakłada blokadę doradczą PostgreSQL i trzyma ją na własnym połączeniu do zamknięcia kontekstu.
+ */
+@Component
+@ConditionalOnProperty(name = "app.deployment.single-instance-lock", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SingleInstanceLock {
+
+    // stały klucz blokady w przestrzeni pg_advisory_lock - "PLB" + 1
+    static final long LOCK_KEY = 0x504C4201L;
+
+    private final DataSource dataSource;
+    private Connection connection;
+
+    @PostConstruct
+    void acquire() throws SQLException {
+        Connection candidate = dataSource.getConnection();
+        if (!"PostgreSQL".equalsIgnoreCase(candidate.getMetaData().getDatabaseProductName())) {
+            candidate.close();
+            return;
+        }
+
+        boolean locked;
+        try (PreparedStatement statement = candidate.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                locked = result.next() && result.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            candidate.close();
+            throw e;
+        }
+
+        if (!locked) {
+            candidate.close();
+            throw new IllegalStateException("Inna instancja aplikacji działa już na tej bazie - cache i indeksy "
+                    + "w pamięci nie są współdzielone między instancjami (app.deployment.single-instance-lock)");
+        }
+        // połączenie z puli zostaje zajęte do końca działania - zamknięcie sesji zwalnia blokadę
+        connection = candidate;
+        log.info("Założono blokadę pojedynczej instancji (pg_advisory_lock {})", LOCK_KEY);
+    }
+
+    @PreDestroy
+    void release() throws SQLException {
+        if (connection == null) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            statement.execute();
+        } finally {
+            connection.close();
+            connection = null;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.realestate.propertylistings.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -10,9 +13,25 @@ import java.io.File;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // upload strumieniowy: krótkie transakcje przed i po zapisie body - bez sesji open-in-view
+    // połączenie wraca do puli po każdej z nich, a nie dopiero po przesłaniu całego pliku
+    static final String STREAM_UPLOAD_PATH = "/api/properties/*/images/stream";
+
     @Value("${app.upload.dir:uploads/properties}")
     private String uploadDir;
 
+    // zastępuje open-in-view ze Spring Boot (ten sam interceptor), z wyłączeniem uploadu strumieniowego
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns(STREAM_UPLOAD_PATH);
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Stwórz folder jeśli nie istnieje
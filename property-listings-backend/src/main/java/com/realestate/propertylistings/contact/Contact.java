@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 @Data
 public class Contact {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_seq")
+    @SequenceGenerator(name = "contact_seq", sequenceName = "contacts_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
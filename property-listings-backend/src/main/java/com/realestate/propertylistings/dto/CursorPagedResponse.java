@@ -0,0 +1,19 @@
+package com.realestate.propertylistings.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPagedResponse<T> {
+    private List<T> content;
+    private int pageSize;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,30 @@
+package com.realestate.propertylistings.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageBatchUploadResponse {
+    private int uploaded;
+    private int failed;
+    // w kolejności plików z żądania
+    private List<Item> results;
+
+    @Getter
+    @Setter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int index;
+        private String originalFileName;
+        private boolean success;
+        private String error;
+        private ImageUploadResponse image;
+    }
+}
@@ -14,4 +14,10 @@ public class ImageUploadResponse {
     private String contentType;
     private Integer displayOrder;
     private Long fileSize;
+    private String sha256;
+    // pochodne (miniatura, karta, pełny rozmiar) pojawiają się asynchronicznie - do tego czasu null
+    private String derivativeStatus;
+    private String thumbnailUrl;
+    private String cardUrl;
+    private String fullUrl;
 }
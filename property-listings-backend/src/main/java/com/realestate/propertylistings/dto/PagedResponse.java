@@ -15,8 +15,10 @@ public class PagedResponse<T> {
     private List<T> content;
     private int pageNumber;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
+    private Boolean totalExact;
+    private boolean hasNext;
     private boolean last;
     private boolean first;
 }
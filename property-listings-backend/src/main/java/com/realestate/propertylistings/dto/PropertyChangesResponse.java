@@ -0,0 +1,33 @@
+package com.realestate.propertylistings.dto;
+
+import com.realestate.propertylistings.property.PropertyChangeType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertyChangesResponse {
+    private List<Item> changes;
+    // wartość since dla następnego wywołania
+    private long nextCursor;
+    private boolean hasMore;
+    // kursor starszy niż retencja dziennika - klient musi zsynchronizować pełny katalog
+    private boolean resyncRequired;
+
+    @Getter
+    @Setter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private long changeId;
+        private long propertyId;
+        private PropertyChangeType type;
+        private LocalDateTime changedAt;
+    }
+}
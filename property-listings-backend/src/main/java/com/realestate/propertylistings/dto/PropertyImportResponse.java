@@ -0,0 +1,30 @@
+package com.realestate.propertylistings.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertyImportResponse {
+    private long processed;
+    private long imported;
+    private long failed;
+    private long durationMs;
+    // lista błędów jest obcinana, liczniki są zawsze pełne
+    private boolean errorsTruncated;
+    private List<RowError> errors;
+
+    @Getter
+    @Setter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
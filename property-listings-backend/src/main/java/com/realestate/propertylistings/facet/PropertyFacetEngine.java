@@ -0,0 +1,281 @@
+package com.realestate.propertylistings.facet;
+
+import com.realestate.propertylistings.property.Property;
+import com.realestate.propertylistings.property.PropertyFilterRequest;
+import com.realestate.propertylistings.property.TransactionType;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Jedna skompresowana bitmapa (Roaring) na każdą wartość faseta, tylko dla aktywnych ogłoszeń.
+// Numerem dokumentu w bitmapie jest id ogłoszenia - wariant 64-bitowy, bo id to Long z sekwencji.
+@Component
+@Slf4j
+public class PropertyFacetEngine {
+
+    private final List<BigDecimal> priceBucketBounds;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Roaring64Bitmap active = new Roaring64Bitmap();
+    private final Map<String, Roaring64Bitmap> byCity = new HashMap<>();
+    private final Map<String, String> cityLabels = new HashMap<>();
+    private final Map<TransactionType, Roaring64Bitmap> byType = new EnumMap<>(TransactionType.class);
+    private final Roaring64Bitmap[] byPriceBucket;
+    private final NavigableMap<Integer, Roaring64Bitmap> byRooms = new TreeMap<>();
+    private final NavigableMap<Integer, Roaring64Bitmap> byBathrooms = new TreeMap<>();
+    private final NavigableMap<Integer, Roaring64Bitmap> byFloor = new TreeMap<>();
+    private final Map<Long, FacetValues> documents = new HashMap<>();
+    private volatile boolean ready;
+
+    public PropertyFacetEngine(
+            @Value("${app.facets.price-buckets:200000,400000,600000,800000,1000000}") List<BigDecimal> priceBucketBounds
+    ) {
+        this.priceBucketBounds = priceBucketBounds.stream().sorted().toList();
+        this.byPriceBucket = new Roaring64Bitmap[this.priceBucketBounds.size() + 1];
+        for (int i = 0; i < byPriceBucket.length; i++) {
+            byPriceBucket[i] = new Roaring64Bitmap();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+        log.info("Silnik fasetów gotowy: {} aktywnych ogłoszeń, {} miast", active.getLongCardinality(), byCity.size());
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            active.clear();
+            byCity.clear();
+            cityLabels.clear();
+            byType.clear();
+            for (Roaring64Bitmap bucket : byPriceBucket) {
+                bucket.clear();
+            }
+            byRooms.clear();
+            byBathrooms.clear();
+            byFloor.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Property property) {
+        if (!Boolean.TRUE.equals(property.getIsActive())) {
+            remove(property.getId());
+            return;
+        }
+
+        long doc = property.getId();
+        String city = property.getCity() == null ? null : property.getCity().toLowerCase(Locale.ROOT);
+        FacetValues values = new FacetValues(
+                city,
+                property.getTransactionType(),
+                property.getPrice() == null ? -1 : priceBucket(property.getPrice()),
+                property.getRoomCount(),
+                property.getBathroomCount(),
+                property.getFloorNumber()
+        );
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(doc);
+            active.addLong(doc);
+            if (city != null) {
+                byCity.computeIfAbsent(city, c -> new Roaring64Bitmap()).addLong(doc);
+                cityLabels.putIfAbsent(city, property.getCity());
+            }
+            if (values.type() != null) {
+                byType.computeIfAbsent(values.type(), t -> new Roaring64Bitmap()).addLong(doc);
+            }
+            if (values.priceBucket() >= 0) {
+                byPriceBucket[values.priceBucket()].addLong(doc);
+            }
+            addTo(byRooms, values.rooms(), doc);
+            addTo(byBathrooms, values.bathrooms(), doc);
+            addTo(byFloor, values.floor(), doc);
+            documents.put(doc, values);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // bitmapa pasujących aktywnych ogłoszeń, jeśli wszystkie filtry da się wyrazić bitmapami;
+    // cena, powierzchnia, ulica, kod i fraza wymagają innego źródła
+    public Optional<Roaring64Bitmap> match(PropertyFilterRequest filters) {
+        if (filters.getMinPrice() != null || filters.getMaxPrice() != null
+                || filters.getMinArea() != null || filters.getMaxArea() != null
+                || hasText(filters.getStreet()) || hasText(filters.getPostalCode())
+                || hasText(filters.getSearch())) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = active.clone();
+            if (hasText(filters.getCity())) {
+                result.and(byCity.getOrDefault(filters.getCity().toLowerCase(Locale.ROOT), new Roaring64Bitmap()));
+            }
+            if (filters.getType() != null) {
+                result.and(byType.getOrDefault(filters.getType(), new Roaring64Bitmap()));
+            }
+            andRange(result, byRooms, filters.getMinRooms(), filters.getMaxRooms());
+            andRange(result, byBathrooms, filters.getMinBathroom(), filters.getMaxBathroom());
+            andRange(result, byFloor, filters.getMinFloor(), filters.getMaxFloor());
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public PropertyFacetsResponse count(Roaring64Bitmap candidates) {
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap base = Roaring64Bitmap.and(candidates, active);
+
+            Map<String, Long> cities = new TreeMap<>();
+            byCity.forEach((city, bitmap) -> {
+                long count = Roaring64Bitmap.andCardinality(bitmap, base);
+                if (count > 0) {
+                    cities.put(cityLabels.get(city), count);
+                }
+            });
+
+            Map<TransactionType, Long> types = new EnumMap<>(TransactionType.class);
+            byType.forEach((type, bitmap) -> {
+                long count = Roaring64Bitmap.andCardinality(bitmap, base);
+                if (count > 0) {
+                    types.put(type, count);
+                }
+            });
+
+            List<PropertyFacetsResponse.PriceRange> priceRanges = new ArrayList<>();
+            for (int i = 0; i < byPriceBucket.length; i++) {
+                priceRanges.add(PropertyFacetsResponse.PriceRange.builder()
+                        .from(i == 0 ? BigDecimal.ZERO : priceBucketBounds.get(i - 1))
+                        .to(i < priceBucketBounds.size() ? priceBucketBounds.get(i) : null)
+                        .count(Roaring64Bitmap.andCardinality(byPriceBucket[i], base))
+                        .build());
+            }
+
+            Map<Integer, Long> rooms = new LinkedHashMap<>();
+            byRooms.forEach((roomCount, bitmap) -> {
+                long count = Roaring64Bitmap.andCardinality(bitmap, base);
+                if (count > 0) {
+                    rooms.put(roomCount, count);
+                }
+            });
+
+            return PropertyFacetsResponse.builder()
+                    .total(base.getLongCardinality())
+                    .cities(cities)
+                    .transactionTypes(types)
+                    .priceRanges(priceRanges)
+                    .rooms(rooms)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // przedział [from, to) - zgodnie z "from" i "to" w odpowiedzi
+    private int priceBucket(BigDecimal price) {
+        int bucket = 0;
+        while (bucket < priceBucketBounds.size() && price.compareTo(priceBucketBounds.get(bucket)) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private void removeUnlocked(long doc) {
+        FacetValues values = documents.remove(doc);
+        if (values == null) {
+            return;
+        }
+        active.removeLong(doc);
+        if (values.city() != null) {
+            Roaring64Bitmap bitmap = byCity.get(values.city());
+            bitmap.removeLong(doc);
+            if (bitmap.isEmpty()) {
+                byCity.remove(values.city());
+                cityLabels.remove(values.city());
+            }
+        }
+        if (values.type() != null) {
+            byType.get(values.type()).removeLong(doc);
+        }
+        if (values.priceBucket() >= 0) {
+            byPriceBucket[values.priceBucket()].removeLong(doc);
+        }
+        removeFrom(byRooms, values.rooms(), doc);
+        removeFrom(byBathrooms, values.bathrooms(), doc);
+        removeFrom(byFloor, values.floor(), doc);
+    }
+
+    private static void andRange(Roaring64Bitmap result, NavigableMap<Integer, Roaring64Bitmap> bitmaps,
+                                 Integer min, Integer max) {
+        if (min == null && max == null) {
+            return;
+        }
+        NavigableMap<Integer, Roaring64Bitmap> range = bitmaps.subMap(
+                min == null ? Integer.MIN_VALUE : min, true,
+                max == null ? Integer.MAX_VALUE : max, true);
+        Roaring64Bitmap union = new Roaring64Bitmap();
+        range.values().forEach(union::or);
+        result.and(union);
+    }
+
+    private static void addTo(Map<Integer, Roaring64Bitmap> bitmaps, Integer value, long doc) {
+        if (value != null) {
+            bitmaps.computeIfAbsent(value, v -> new Roaring64Bitmap()).addLong(doc);
+        }
+    }
+
+    private static void removeFrom(Map<Integer, Roaring64Bitmap> bitmaps, Integer value, long doc) {
+        if (value == null) {
+            return;
+        }
+        Roaring64Bitmap bitmap = bitmaps.get(value);
+        bitmap.removeLong(doc);
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(value);
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    private record FacetValues(String city, TransactionType type, int priceBucket,
+                               Integer rooms, Integer bathrooms, Integer floor) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.realestate.propertylistings.facet;
+
+import com.realestate.propertylistings.property.PropertyChangedEvent;
+import com.realestate.propertylistings.property.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PropertyFacetIndexer {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final PropertyFacetEngine facetEngine;
+    private final PropertyRepository propertyRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startTime = System.currentTimeMillis();
+        facetEngine.clear();
+
+        propertyRepository.forEachActiveBatch(REBUILD_BATCH_SIZE, batch -> batch.forEach(facetEngine::index));
+
+        facetEngine.markReady();
+        log.info("Przebudowa fasetów zajęła {} ms", System.currentTimeMillis() - startTime);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.changeType() == PropertyChangedEvent.ChangeType.DELETED) {
+            facetEngine.remove(event.propertyId());
+        } else {
+            facetEngine.index(event.property());
+        }
+    }
+}
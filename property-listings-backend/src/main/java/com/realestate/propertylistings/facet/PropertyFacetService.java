@@ -0,0 +1,68 @@
+package com.realestate.propertylistings.facet;
+
+import com.realestate.propertylistings.exception.ServiceUnavailableException;
+import com.realestate.propertylistings.property.PropertyFilterRequest;
+import com.realestate.propertylistings.property.PropertyRepository;
+import com.realestate.propertylistings.property.PropertySpecification;
+import com.realestate.propertylistings.search.PropertySearchIndex;
+import com.realestate.propertylistings.search.SearchSort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PropertyFacetService {
+
+    private static final long WARM_UP_RETRY_AFTER_SECONDS = 5;
+
+    private final PropertyFacetEngine facetEngine;
+    private final PropertySearchIndex searchIndex;
+    private final PropertyRepository propertyRepository;
+
+    @Transactional(readOnly = true)
+    public PropertyFacetsResponse getFacets(PropertyFilterRequest filters) {
+        long startTime = System.nanoTime();
+
+        if (!facetEngine.isReady()) {
+            throw new ServiceUnavailableException("Silnik fasetów nie jest jeszcze gotowy", WARM_UP_RETRY_AFTER_SECONDS);
+        }
+
+        Optional<Roaring64Bitmap> bitmapMatch = facetEngine.match(filters);
+        Roaring64Bitmap candidates = bitmapMatch.orElseGet(() -> matchInDatabase(filters));
+        PropertyFacetsResponse response = facetEngine.count(candidates);
+
+        log.info("Fasety policzone w {} µs ({}), pasujących: {}",
+                (System.nanoTime() - startTime) / 1000,
+                bitmapMatch.isPresent() ? "bitmapy" : "id z bazy",
+                response.getTotal());
+        return response;
+    }
+
+    // filtry, których nie da się wyrazić bitmapami: jedno zapytanie o same id zamiast N zapytań GROUP BY
+    private Roaring64Bitmap matchInDatabase(PropertyFilterRequest filters) {
+        List<Long> searchHits = null;
+        if (filters.getSearch() != null && !filters.getSearch().isEmpty() && searchIndex.isReady()) {
+            searchHits = searchIndex.search(filters.getSearch(), SearchSort.RELEVANCE);
+            // zbyt długa lista IN - jak w PropertyService wracamy do LIKE
+            if (searchHits.size() > PropertySpecification.MAX_SEARCH_IDS_IN_QUERY) {
+                searchHits = null;
+            }
+        }
+
+        return toBitmap(propertyRepository.findIds(PropertySpecification.withFilters(filters, searchHits)));
+    }
+
+    private static Roaring64Bitmap toBitmap(Collection<Long> ids) {
+        Roaring64Bitmap bitmap = new Roaring64Bitmap();
+        ids.forEach(bitmap::addLong);
+        return bitmap;
+    }
+}
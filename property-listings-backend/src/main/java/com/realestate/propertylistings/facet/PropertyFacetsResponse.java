@@ -0,0 +1,33 @@
+package com.realestate.propertylistings.facet;
+
+import com.realestate.propertylistings.property.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertyFacetsResponse {
+    private long total;
+    private Map<String, Long> cities;
+    private Map<TransactionType, Long> transactionTypes;
+    private List<PriceRange> priceRanges;
+    private Map<Integer, Long> rooms;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceRange {
+        private BigDecimal from;
+        private BigDecimal to;
+        private long count;
+    }
+}
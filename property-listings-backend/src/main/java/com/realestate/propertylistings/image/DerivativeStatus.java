@@ -0,0 +1,8 @@
+package com.realestate.propertylistings.image;
+
+public enum DerivativeStatus {
+    PENDING,
+    READY,
+    // oryginał nieczytelny dla dekodera - klienci dostają oryginalny plik
+    FAILED
+}
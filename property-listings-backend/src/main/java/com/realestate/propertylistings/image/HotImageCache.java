@@ -0,0 +1,63 @@
+package com.realestate.propertylistings.image;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU w pamięci dla najczęściej pobieranych małych plików (miniatury i karty z list ogłoszeń),
+ * ograniczone sumą bajtów. Nazwy plików są niezmienne (hash treści), więc wpis nie wymaga unieważniania.
+ */
+@Component
+public class HotImageCache {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private long currentBytes;
+
+    public HotImageCache(
+            @Value("${app.images.serving.hot-cache-bytes:67108864}") long maxBytes,
+            @Value("${app.images.serving.hot-cache-max-entry-bytes:262144}") long maxEntryBytes,
+            MeterRegistry meterRegistry
+    ) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.hits = meterRegistry.counter("image.serving.hot.cache", "result", "hit");
+        this.misses = meterRegistry.counter("image.serving.hot.cache", "result", "miss");
+    }
+
+    public boolean isEligible(String fileName, long size) {
+        return size <= maxEntryBytes
+                && (fileName.endsWith(ImageVariant.THUMBNAIL.fileName(""))
+                || fileName.endsWith(ImageVariant.CARD.fileName("")));
+    }
+
+    public synchronized byte[] get(String fileName) {
+        byte[] bytes = entries.get(fileName);
+        if (bytes != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return bytes;
+    }
+
+    public synchronized void put(String fileName, byte[] bytes) {
+        byte[] previous = entries.put(fileName, bytes);
+        currentBytes += bytes.length - (previous == null ? 0 : previous.length);
+
+        Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+}
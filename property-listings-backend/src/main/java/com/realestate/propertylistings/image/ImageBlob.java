@@ -0,0 +1,46 @@
+package com.realestate.propertylistings.image;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Plik zdjęcia adresowany treścią: jeden plik na dysku na każdy unikalny SHA-256,
+ * refCount to liczba PropertyImage wskazujących na niego przez contentHash.
+ */
+@Entity
+@Table(name = "image_blobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageBlob {
+
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(nullable = false)
+    private Integer refCount;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
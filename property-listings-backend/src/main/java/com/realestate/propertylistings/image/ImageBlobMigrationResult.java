@@ -0,0 +1,14 @@
+package com.realestate.propertylistings.image;
+
+/**
+ * Wynik jednej partii migracji; kolejną partię uruchamia się z afterId = lastImageId.
+ */
+public record ImageBlobMigrationResult(
+        int migrated,
+        int deduplicated,
+        int missingFiles,
+        long bytesFreed,
+        Long lastImageId,
+        long remaining
+) {
+}
@@ -0,0 +1,170 @@
+package com.realestate.propertylistings.image;
+
+import com.realestate.propertylistings.property.PropertyChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Przenosi zdjęcia z nazw UUID do magazynu adresowanego treścią partiami, bez zatrzymywania aplikacji.
+ * Nowa nazwa powstaje jako hard link (albo kopia w magazynie), więc stary URL działa do commitu; stary plik
+ * znika dopiero po zapisaniu nowej nazwy w bazie.
+ */
+@Service
+@Slf4j
+public class ImageBlobMigrationService {
+
+    private final ImageRepository imageRepository;
+    private final ImageBlobRepository blobRepository;
+    private final ImageBlobStore blobStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageStorage storage;
+
+    @Value("${app.upload.base-url:http://localhost:8080/uploads/properties}")
+    private String baseUrl;
+
+    public ImageBlobMigrationService(ImageRepository imageRepository,
+                                     ImageBlobRepository blobRepository,
+                                     ImageBlobStore blobStore,
+                                     ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager,
+                                     ImageStorage storage) {
+        this.imageRepository = imageRepository;
+        this.blobRepository = blobRepository;
+        this.blobStore = blobStore;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.storage = storage;
+    }
+
+    public ImageStorageReport report() {
+        return blobRepository.storageReport().withLegacyImages(imageRepository.countLegacyImages());
+    }
+
+    public ImageBlobMigrationResult migrateBatch(Long afterId, int batchSize) {
+        List<Long> ids = imageRepository.findIdsForBlobMigration(afterId == null ? 0L : afterId,
+                PageRequest.of(0, batchSize));
+
+        int migrated = 0;
+        int deduplicated = 0;
+        int missing = 0;
+        long bytesFreed = 0;
+        for (Long imageId : ids) {
+            // osobna transakcja na zdjęcie - błąd jednego pliku nie cofa całej partii
+            Outcome outcome = transactionTemplate.execute(tx -> migrate(imageId));
+            if (outcome == null || outcome == Outcome.MISSING) {
+                missing++;
+            } else {
+                migrated++;
+                if (outcome.deduplicated()) {
+                    deduplicated++;
+                    bytesFreed += outcome.size();
+                }
+            }
+        }
+
+        Long lastId = ids.isEmpty() ? afterId : ids.get(ids.size() - 1);
+        log.info("Migracja blobów: przeniesiono {}, duplikatów {}, zwolniono {} B, brak plików {}",
+                migrated, deduplicated, bytesFreed, missing);
+        return new ImageBlobMigrationResult(migrated, deduplicated, missing, bytesFreed, lastId,
+                imageRepository.countLegacyImages());
+    }
+
+    private Outcome migrate(Long imageId) {
+        PropertyImage image = imageRepository.findById(imageId).orElse(null);
+        if (image == null || ImageBlobStore.isContentAddressed(image)) {
+            return Outcome.MISSING;
+        }
+
+        String legacyName = image.getFileName();
+        if (!storage.exists(legacyName)) {
+            log.warn("Migracja: brak pliku {} dla zdjęcia id={}", legacyName, imageId);
+            return Outcome.MISSING;
+        }
+
+        try {
+            // hash, rozmiar i sygnatura w jednym przebiegu po pliku
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] header = new byte[ImageTypeSniffer.HEADER_LENGTH];
+            int headerLength;
+            long size;
+            try (DigestInputStream in = new DigestInputStream(storage.open(legacyName), digest)) {
+                headerLength = in.readNBytes(header, 0, header.length);
+                size = headerLength + in.transferTo(OutputStream.nullOutputStream());
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            String contentType = ImageTypeSniffer.detect(header, headerLength).orElse(image.getContentType());
+            String fileName = sha256 + ImageTypeSniffer.extension(contentType);
+
+            // nowa nazwa obok starej (hard link na dysku, kopia po stronie serwera w S3)
+            boolean duplicate = storage.exists(fileName);
+            if (!duplicate) {
+                storage.copy(legacyName, fileName);
+            }
+            blobStore.acquire(new StoredImageFile(fileName, contentType, size, sha256));
+
+            String legacyBaseName = ImageDerivativeProcessor.baseName(legacyName);
+            image.setFileName(fileName);
+            image.setFileUrl(baseUrl + "/" + fileName);
+            image.setContentHash(sha256);
+            image.setContentType(contentType);
+            image.setFileSize(size);
+            // pochodne powstaną (albo zostaną podjęte z bloba) pod nazwą z hasha
+            image.setDerivativeStatus(DerivativeStatus.PENDING);
+            image.setThumbnailUrl(null);
+            image.setCardUrl(null);
+            image.setFullUrl(null);
+            image.getProperty().markImagesChanged();
+            eventPublisher.publishEvent(PropertyChangedEvent.imagesChanged(image.getProperty()));
+            eventPublisher.publishEvent(new ImageUploadedEvent(imageId));
+
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteLegacyFiles(legacyName, legacyBaseName);
+                }
+            });
+            return duplicate ? Outcome.duplicateOf(size) : Outcome.MOVED;
+        } catch (IOException e) {
+            log.warn("Migracja zdjęcia id={} nieudana: {}", imageId, e.getMessage());
+            return Outcome.MISSING;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Brak algorytmu SHA-256", e);
+        }
+    }
+
+    private void deleteLegacyFiles(String legacyName, String legacyBaseName) {
+        try {
+            storage.delete(legacyName);
+            for (ImageVariant variant : ImageVariant.values()) {
+                storage.delete(variant.fileName(legacyBaseName));
+            }
+        } catch (IOException e) {
+            log.warn("Migracja: nie udało się usunąć starego pliku {}: {}", legacyName, e.getMessage());
+        }
+    }
+
+    private record Outcome(boolean deduplicated, long size) {
+        static final Outcome MOVED = new Outcome(false, 0);
+        static final Outcome MISSING = new Outcome(false, -1);
+
+        static Outcome duplicateOf(long size) {
+            return new Outcome(true, size);
+        }
+    }
+}
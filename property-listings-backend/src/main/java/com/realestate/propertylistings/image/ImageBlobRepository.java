@@ -0,0 +1,54 @@
+package com.realestate.propertylistings.image;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    // atomowo w bazie - równoległe uploady tego samego pliku nie gubią referencji
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount + 1 WHERE b.contentHash = :hash")
+    int incrementRefCount(@Param("hash") String hash);
+
+    // pierwszy upload danego hasha - równoległy insert tego samego pliku zamienia się w inkrementację
+    // zamiast naruszenia klucza głównego (Hibernate tłumaczy ON CONFLICT na dialekt bazy)
+    @Modifying
+    @Query("""
+            INSERT INTO ImageBlob (contentHash, fileName, contentType, size, refCount, createdAt)
+            VALUES (:hash, :fileName, :contentType, :size, 1, :createdAt)
+            ON CONFLICT (contentHash) DO UPDATE SET refCount = refCount + 1
+            """)
+    int upsertReference(@Param("hash") String hash,
+                        @Param("fileName") String fileName,
+                        @Param("contentType") String contentType,
+                        @Param("size") Long size,
+                        @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount - 1 WHERE b.contentHash = :hash AND b.refCount > 0")
+    int decrementRefCount(@Param("hash") String hash);
+
+    @Modifying
+    @Query("DELETE FROM ImageBlob b WHERE b.contentHash = :hash AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    @Query("SELECT b.contentHash FROM ImageBlob b WHERE b.contentHash >= :from AND b.contentHash < :to")
+    List<String> findHashesBetween(@Param("from") String from, @Param("to") String to);
+
+    @Query("""
+            SELECT new com.realestate.propertylistings.image.ImageStorageReport(
+                COUNT(b),
+                COALESCE(SUM(b.refCount), 0),
+                COALESCE(SUM(b.size), 0),
+                COALESCE(SUM(b.size * b.refCount), 0))
+            FROM ImageBlob b
+            """)
+    ImageStorageReport storageReport();
+}
@@ -0,0 +1,103 @@
+package com.realestate.propertylistings.image;
+
+import com.realestate.propertylistings.property.PropertyChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+@Service
+@Slf4j
+public class ImageBlobStore {
+
+    private final ImageBlobRepository blobRepository;
+    private final ImageStorage storage;
+
+    public ImageBlobStore(ImageBlobRepository blobRepository, ImageStorage storage) {
+        this.blobRepository = blobRepository;
+        this.storage = storage;
+    }
+
+    /**
+     * Dolicza referencję do bloba zapisanego już w magazynie pod nazwą z hasha.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acquire(StoredImageFile stored) {
+        if (blobRepository.incrementRefCount(stored.sha256()) > 0) {
+            log.info("Deduplikacja: plik {} ma już blob, zaoszczędzono {} B", stored.fileName(), stored.size());
+            return;
+        }
+        // równoległy pierwszy upload tego samego pliku mógł wstawić wiersz po naszej inkrementacji
+        blobRepository.upsertReference(stored.sha256(), stored.fileName(), stored.contentType(),
+                stored.size(), LocalDateTime.now());
+    }
+
+    /**
+     * Zdejmuje referencję; wiersz bez referencji znika od razu, a plik z pochodnymi usuwa dopiero
+     * OrphanImageCollector po okresie karencji - dedup-upload tego samego pliku w locie
+     * (odświeża mtime zamiast zapisywać) nie zostaje bez pliku.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String hash) {
+        if (blobRepository.decrementRefCount(hash) == 0) {
+            log.warn("Brak bloba {} przy usuwaniu referencji", hash);
+            return;
+        }
+        if (blobRepository.deleteIfUnreferenced(hash) > 0) {
+            log.info("Blob {} bez referencji - plik usunie GC zdjęć po okresie karencji", hash);
+        }
+    }
+
+    /**
+     * Plik spoza magazynu adresowanego treścią (nazwa UUID) należy do jednego zdjęcia - znika
+     * z pochodnymi po commicie usunięcia; przy rollbacku zostaje na miejscu.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteAfterCommit(String fileName) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteFiles(fileName);
+            }
+        });
+    }
+
+    private void deleteFiles(String fileName) {
+        String baseName = ImageDerivativeProcessor.baseName(fileName);
+        try {
+            storage.delete(fileName);
+            for (ImageVariant variant : ImageVariant.values()) {
+                storage.delete(variant.fileName(baseName));
+            }
+            log.info("Usunięto blob {} - brak referencji", fileName);
+        } catch (IOException e) {
+            log.warn("Nie udało się usunąć bloba {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    // zdjęcia usuwane kaskadowo z ogłoszeniem - wywołanie synchroniczne, wewnątrz transakcji usuwania
+    @EventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (event.changeType() != PropertyChangedEvent.ChangeType.DELETED
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        for (PropertyImage image : event.property().getImages()) {
+            if (isContentAddressed(image)) {
+                release(image.getContentHash());
+            } else {
+                deleteAfterCommit(image.getFileName());
+            }
+        }
+    }
+
+    public static boolean isContentAddressed(PropertyImage image) {
+        return image.getContentHash() != null && image.getFileName().startsWith(image.getContentHash());
+    }
+}
@@ -1,10 +1,14 @@
 package com.realestate.propertylistings.image;
 
+import com.realestate.propertylistings.dto.ImageBatchUploadResponse;
 import com.realestate.propertylistings.dto.ImageUploadResponse;
+import com.realestate.propertylistings.exception.UnauthorizedException;
 import com.realestate.propertylistings.user.User;
 import com.realestate.propertylistings.user.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -12,7 +16,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -48,7 +52,7 @@ public class ImageController {
 
     @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     // @PreAuthorize("hasAnyRole('AGENT', 'ADMIN')")  // ← ZAKOMENTOWANE TYMCZASOWO!
-    public ResponseEntity<List<ImageUploadResponse>> uploadMultipleImages(
+    public ResponseEntity<ImageBatchUploadResponse> uploadMultipleImages(
             @PathVariable Long propertyId,
             @RequestParam("files") List<MultipartFile> files,  // ← Z 's'!
             @AuthenticationPrincipal User currentUser
@@ -63,18 +67,36 @@ public class ImageController {
 
         log.info("Upload {} zdjęć dla property_id={} przez user={}", files.size(), propertyId, currentUser.getEmail());
 
-        List<ImageUploadResponse> responses = new ArrayList<>();
-        for (int i = 0; i < files.size(); i++) {
-            ImageUploadResponse response = imageService.uploadImage(
-                    propertyId,
-                    files.get(i),
-                    i,
-                    currentUser
-            );
-            responses.add(response);
+        ImageBatchUploadResponse response = imageService.uploadImages(propertyId, files, currentUser);
+        // 207 gdy część plików odrzucono - szczegóły w results
+        HttpStatus status = response.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    // surowe body (Content-Type: image/*) zamiast multipart - plik zapisywany raz, bez spoolowania
+    @PostMapping(value = "/stream", consumes = {
+            MediaType.IMAGE_JPEG_VALUE,
+            MediaType.IMAGE_PNG_VALUE,
+            MediaType.IMAGE_GIF_VALUE,
+            "image/webp",
+            MediaType.APPLICATION_OCTET_STREAM_VALUE
+    })
+    public ResponseEntity<ImageUploadResponse> uploadImageStream(
+            @PathVariable Long propertyId,
+            @RequestHeader(value = "X-File-Name", required = false) String fileName,
+            @RequestParam(value = "displayOrder", required = false, defaultValue = "0") Integer displayOrder,
+            @AuthenticationPrincipal User currentUser,
+            HttpServletRequest request
+    ) throws IOException {
+        if (currentUser == null) {
+            throw new UnauthorizedException("Wymagane zalogowanie");
         }
 
-        return ResponseEntity.ok(responses);
+        log.info("Upload strumieniowy dla property_id={} przez user={}", propertyId, currentUser.getEmail());
+
+        ImageUploadResponse response = imageService.uploadImageStream(
+                propertyId, request.getInputStream(), fileName, displayOrder, currentUser);
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping
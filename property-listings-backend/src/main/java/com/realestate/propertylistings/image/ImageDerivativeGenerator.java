@@ -0,0 +1,203 @@
+package com.realestate.propertylistings.image;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Pochodne zdjęcia: przeskalowane do stałych ramek i zapisane od nowa jako progresywny JPEG.
+ * Zapisywane są tylko piksele, więc EXIF (GPS, model aparatu) nie trafia do pochodnych -
+ * orientację z EXIF nakładamy na obraz przed zapisem.
+ */
+@Slf4j
+public class ImageDerivativeGenerator {
+
+    private final float jpegQuality;
+
+    public ImageDerivativeGenerator(float jpegQuality) {
+        this.jpegQuality = jpegQuality;
+    }
+
+    /**
+     * @return pliki pochodne albo pusta mapa, gdy dekoder nie obsługuje formatu oryginału
+     */
+    public Map<ImageVariant, Path> generate(Path original, Path targetDir, String baseName) throws IOException {
+        BufferedImage source = ImageIO.read(original.toFile());
+        if (source == null) {
+            return Map.of();
+        }
+        source = applyOrientation(source, readExifOrientation(original));
+
+        Map<ImageVariant, Path> result = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : ImageVariant.values()) {
+            BufferedImage scaled = scaleToFit(source, variant.maxWidth(), variant.maxHeight());
+            Path target = targetDir.resolve(variant.fileName(baseName));
+            writeJpeg(scaled, target);
+            result.put(variant, target);
+        }
+        return result;
+    }
+
+    static BufferedImage scaleToFit(BufferedImage source, int maxWidth, int maxHeight) {
+        double scale = Math.min(1.0, Math.min(
+                (double) maxWidth / source.getWidth(),
+                (double) maxHeight / source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // JPEG bez kanału alfa: przezroczystość PNG/GIF na białym tle
+        BufferedImage current = toRgb(source);
+        int width = current.getWidth();
+        int height = current.getHeight();
+
+        // zmniejszanie o połowę krokami - pojedynczy krok bilinearny daje aliasing przy dużych skalach
+        while (width / 2 >= targetWidth && height / 2 >= targetHeight) {
+            width /= 2;
+            height /= 2;
+            current = resize(current, width, height);
+        }
+        if (width != targetWidth || height != targetHeight) {
+            current = resize(current, targetWidth, targetHeight);
+        }
+        return current;
+    }
+
+    private static BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            graphics.drawImage(source, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+        // zapis do pliku tymczasowego i atomowa podmiana - serwowany plik nigdy nie jest w połowie zapisany
+        Path temp = Files.createTempFile(target.getParent(), ".derivative-", ".tmp");
+        try {
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static BufferedImage applyOrientation(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swap = orientation >= 5;
+
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { transform.translate(width, 0); transform.scale(-1, 1); }
+            case 3 -> { transform.translate(width, height); transform.rotate(Math.PI); }
+            case 4 -> { transform.translate(0, height); transform.scale(1, -1); }
+            case 5 -> { transform.rotate(Math.PI / 2); transform.scale(1, -1); }
+            case 6 -> { transform.translate(height, 0); transform.rotate(Math.PI / 2); }
+            case 7 -> { transform.translate(height, width); transform.scale(1, -1); transform.rotate(Math.PI / 2); }
+            case 8 -> { transform.translate(0, width); transform.rotate(3 * Math.PI / 2); }
+            default -> { }
+        }
+
+        BufferedImage rotated = new BufferedImage(swap ? height : width, swap ? width : height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rotated.createGraphics();
+        try {
+            graphics.drawImage(toRgb(image), transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rotated;
+    }
+
+    // tag 0x0112 z IFD0 segmentu APP1/Exif; 1 gdy brak lub plik nie jest JPEG-iem
+    static int readExifOrientation(Path file) {
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(raw)) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                int length = in.readUnsignedShort();
+                if (marker == 0xFFDA || (marker & 0xFF00) != 0xFF00) {
+                    return 1;
+                }
+                byte[] segment = new byte[length - 2];
+                in.readFully(segment);
+                if (marker == 0xFFE1 && segment.length > 14
+                        && segment[0] == 'E' && segment[1] == 'x' && segment[2] == 'i' && segment[3] == 'f') {
+                    return orientationFromTiff(ByteBuffer.wrap(segment, 6, segment.length - 6).slice());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Brak orientacji EXIF dla {}: {}", file, e.getMessage());
+            return 1;
+        }
+    }
+
+    private static int orientationFromTiff(ByteBuffer tiff) {
+        tiff.order(tiff.getShort(0) == 0x4949 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifdOffset = tiff.getInt(4);
+        int entries = Short.toUnsignedInt(tiff.getShort(ifdOffset));
+        for (int i = 0; i < entries; i++) {
+            int entry = ifdOffset + 2 + i * 12;
+            if (Short.toUnsignedInt(tiff.getShort(entry)) == 0x0112) {
+                return Short.toUnsignedInt(tiff.getShort(entry + 8));
+            }
+        }
+        return 1;
+    }
+}
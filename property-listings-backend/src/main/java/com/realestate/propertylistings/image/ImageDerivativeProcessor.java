@@ -0,0 +1,241 @@
+package com.realestate.propertylistings.image;
+
+import com.realestate.propertylistings.property.PropertyChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Generuje pochodne zdjęć w tle, po commicie uploadu. Kolejka jest ograniczona - zdjęcia,
+ * które się nie zmieściły, zostają PENDING i podbiera je okresowy przegląd (także po restarcie).
+ */
+@Component
+@Slf4j
+public class ImageDerivativeProcessor {
+
+    private final ImageRepository imageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageDerivativeGenerator generator;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Timer processingTimer;
+    private final int sweepBatchSize;
+    private final ImageStorage storage;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.upload.base-url:http://localhost:8080/uploads/properties}")
+    private String baseUrl;
+
+    public ImageDerivativeProcessor(
+            ImageRepository imageRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            ImageStorage storage,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.images.derivatives.threads:2}") int threads,
+            @Value("${app.images.derivatives.queue-capacity:200}") int queueCapacity,
+            @Value("${app.images.derivatives.jpeg-quality:0.82}") float jpegQuality
+    ) {
+        this.imageRepository = imageRepository;
+        this.storage = storage;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.generator = new ImageDerivativeGenerator(jpegQuality);
+        this.sweepBatchSize = queueCapacity;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    // skalowanie nie może konkurować z wątkami obsługującymi żądania
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.processingTimer = Timer.builder("image.derivatives.processing.time").register(meterRegistry);
+        meterRegistry.gauge("image.derivatives.queue.depth", executor, e -> e.getQueue().size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onImageUploaded(ImageUploadedEvent event) {
+        enqueue(event.imageId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        sweep();
+    }
+
+    @Scheduled(fixedDelayString = "${app.images.derivatives.sweep-interval:PT1M}")
+    public void sweep() {
+        int free = executor.getQueue().remainingCapacity();
+        if (free == 0) {
+            return;
+        }
+        List<Long> pending = imageRepository.findIdsPendingDerivatives(
+                PageRequest.of(0, Math.min(free + inFlight.size(), sweepBatchSize)));
+        int queued = 0;
+        for (Long imageId : pending) {
+            if (enqueue(imageId)) {
+                queued++;
+            }
+        }
+        if (queued > 0) {
+            log.info("Wznowiono generowanie pochodnych dla {} zdjęć", queued);
+        }
+    }
+
+    boolean enqueue(Long imageId) {
+        if (!inFlight.add(imageId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    processingTimer.record(() -> process(imageId));
+                } finally {
+                    inFlight.remove(imageId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(imageId);
+            log.debug("Kolejka pochodnych pełna - zdjęcie id={} poczeka na przegląd", imageId);
+            return false;
+        }
+    }
+
+    void process(Long imageId) {
+        PropertyImage image = imageRepository.findById(imageId).orElse(null);
+        if (image == null) {
+            return;
+        }
+
+        String baseName = baseName(image.getFileName());
+        boolean ready;
+        try {
+            // blob współdzielony z innym zdjęciem - pochodne już są w magazynie
+            ready = derivativesExist(baseName) || generate(image.getFileName(), baseName);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Nie udało się wygenerować pochodnych dla zdjęcia id={}: {}", imageId, e.getMessage());
+            ready = false;
+        }
+
+        DerivativeStatus status = ready ? DerivativeStatus.READY : DerivativeStatus.FAILED;
+        boolean stored = Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            PropertyImage current = imageRepository.findById(imageId).orElse(null);
+            if (current == null) {
+                return false;
+            }
+            current.setDerivativeStatus(status);
+            if (status == DerivativeStatus.READY) {
+                current.setThumbnailUrl(baseUrl + "/" + ImageVariant.THUMBNAIL.fileName(baseName));
+                current.setCardUrl(baseUrl + "/" + ImageVariant.CARD.fileName(baseName));
+                current.setFullUrl(baseUrl + "/" + ImageVariant.FULL.fileName(baseName));
+                // nowe adresy wariantów zmieniają odpowiedź ogłoszenia
+                current.getProperty().markImagesChanged();
+                eventPublisher.publishEvent(PropertyChangedEvent.imagesChanged(current.getProperty()));
+            }
+            return true;
+        }));
+
+        // zdjęcie usunięte w trakcie przetwarzania - sprzątamy to, co zdążyliśmy zapisać;
+        // pochodnymi bloba zarządza ImageBlobStore, bo mogą należeć też do innych zdjęć
+        if (!stored) {
+            if (ready && !ImageBlobStore.isContentAddressed(image)) {
+                for (ImageVariant variant : ImageVariant.values()) {
+                    deleteQuietly(variant.fileName(baseName));
+                }
+            }
+            return;
+        }
+        log.debug("Pochodne zdjęcia id={}: {}", imageId, status);
+    }
+
+    private boolean derivativesExist(String baseName) {
+        for (ImageVariant variant : ImageVariant.values()) {
+            if (!storage.exists(variant.fileName(baseName))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // osobny katalog roboczy na zadanie - dwa zdjęcia z tym samym blobem nie nadpiszą sobie plików
+    private boolean generate(String fileName, String baseName) throws IOException {
+        Path workDir = Files.createTempDirectory(storage.stagingDirectory(), "derivatives-");
+        try {
+            Path original = storage.localPath(fileName).orElse(null);
+            if (original == null) {
+                original = workDir.resolve(fileName);
+                try (InputStream input = storage.open(fileName)) {
+                    Files.copy(input, original);
+                }
+            }
+            Map<ImageVariant, Path> derivatives = generator.generate(original, workDir, baseName);
+            if (derivatives.isEmpty()) {
+                return false;
+            }
+            for (Map.Entry<ImageVariant, Path> derivative : derivatives.entrySet()) {
+                storage.store(derivative.getKey().fileName(baseName), derivative.getValue(), "image/jpeg");
+            }
+            return true;
+        } finally {
+            try (Stream<Path> files = Files.walk(workDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    static String baseName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    private void deleteQuietly(String fileName) {
+        try {
+            storage.delete(fileName);
+        } catch (IOException e) {
+            log.warn("Nie udało się usunąć pliku {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,72 @@
+package com.realestate.propertylistings.image;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stan GC osieroconych plików (jeden wiersz): następny shard do przejrzenia i statystyki przebiegów.
+ * Po restarcie GC wznawia pracę od nextShard; @Version chroni przed dwiema instancjami naraz.
+ */
+@Entity
+@Table(name = "image_gc_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageGcCheckpoint {
+
+    public static final Long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer nextShard;
+
+    @Column(nullable = false)
+    private Long completedPasses;
+
+    private LocalDateTime passStartedAt;
+
+    @Column(nullable = false)
+    private Long passDeletedFiles;
+
+    @Column(nullable = false)
+    private Long passReclaimedBytes;
+
+    @Column(nullable = false)
+    private Long lastPassDeletedFiles;
+
+    @Column(nullable = false)
+    private Long lastPassReclaimedBytes;
+
+    @Column(nullable = false)
+    private Long totalDeletedFiles;
+
+    @Column(nullable = false)
+    private Long totalReclaimedBytes;
+
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    public static ImageGcCheckpoint initial() {
+        return ImageGcCheckpoint.builder()
+                .id(SINGLETON_ID)
+                .nextShard(0)
+                .completedPasses(0L)
+                .passDeletedFiles(0L)
+                .passReclaimedBytes(0L)
+                .lastPassDeletedFiles(0L)
+                .lastPassReclaimedBytes(0L)
+                .totalDeletedFiles(0L)
+                .totalReclaimedBytes(0L)
+                .build();
+    }
+}
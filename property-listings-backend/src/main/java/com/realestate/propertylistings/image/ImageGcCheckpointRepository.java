@@ -0,0 +1,8 @@
+package com.realestate.propertylistings.image;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImageGcCheckpointRepository extends JpaRepository<ImageGcCheckpoint, Long> {
+}
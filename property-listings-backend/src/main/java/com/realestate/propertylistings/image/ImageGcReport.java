@@ -0,0 +1,35 @@
+package com.realestate.propertylistings.image;
+
+import java.time.LocalDateTime;
+
+/**
+ * Postęp bieżącego przebiegu GC i odzyskane miejsce: w tym przebiegu, w poprzednim i łącznie.
+ */
+public record ImageGcReport(
+        int nextShard,
+        int shardCount,
+        long completedPasses,
+        LocalDateTime passStartedAt,
+        long passDeletedFiles,
+        long passReclaimedBytes,
+        long lastPassDeletedFiles,
+        long lastPassReclaimedBytes,
+        long totalDeletedFiles,
+        long totalReclaimedBytes
+) {
+
+    static ImageGcReport of(ImageGcCheckpoint checkpoint) {
+        return new ImageGcReport(
+                checkpoint.getNextShard(),
+                OrphanImageCollector.SHARD_COUNT,
+                checkpoint.getCompletedPasses(),
+                checkpoint.getPassStartedAt(),
+                checkpoint.getPassDeletedFiles(),
+                checkpoint.getPassReclaimedBytes(),
+                checkpoint.getLastPassDeletedFiles(),
+                checkpoint.getLastPassReclaimedBytes(),
+                checkpoint.getTotalDeletedFiles(),
+                checkpoint.getTotalReclaimedBytes()
+        );
+    }
+}
@@ -0,0 +1,11 @@
+package com.realestate.propertylistings.image;
+
+/**
+ * Wynik jednej partii migracji do układu z podkatalogami; kolejne partie aż do remaining = false.
+ */
+public record ImageLayoutMigrationResult(
+        int moved,
+        int failed,
+        boolean remaining
+) {
+}
@@ -0,0 +1,76 @@
+package com.realestate.propertylistings.image;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Przenosi pliki z płaskiego katalogu app.upload.dir do magazynu (katalogi ab/cd/ albo bucket S3) partiami,
+ * bez przestoju: magazyn czyta płaski katalog jako drugi, a plik jest przenoszony atomowo
+ * albo usuwany dopiero po wysłaniu. Nazwy plików i URL-e w bazie się nie zmieniają.
+ */
+@Service
+@Slf4j
+public class ImageLayoutMigrationService {
+
+    private final ImageStorage storage;
+    private final Path flatDirectory;
+
+    public ImageLayoutMigrationService(ImageStorage storage,
+                                       @Value("${app.upload.dir:uploads/properties}") String uploadDir) {
+        this.storage = storage;
+        this.flatDirectory = Paths.get(uploadDir);
+    }
+
+    public ImageLayoutMigrationResult migrateBatch(int batchSize) {
+        List<Path> batch = flatFiles(batchSize);
+
+        int moved = 0;
+        int failed = 0;
+        for (Path file : batch) {
+            String fileName = file.getFileName().toString();
+            try {
+                storage.store(fileName, file, ImageTypeSniffer.contentTypeOf(fileName));
+                moved++;
+            } catch (NoSuchFileException e) {
+                // usunięty razem ze zdjęciem w trakcie partii
+            } catch (IOException e) {
+                failed++;
+                log.warn("Migracja układu: nie udało się przenieść pliku {}: {}", fileName, e.getMessage());
+            }
+        }
+
+        boolean remaining = !flatFiles(1).isEmpty();
+        log.info("Migracja układu: przeniesiono {}, błędów {}, pozostały pliki: {}", moved, failed, remaining);
+        return new ImageLayoutMigrationResult(moved, failed, remaining);
+    }
+
+    // DirectoryStream czyta katalog leniwie - przy milionach plików nie ładujemy całej listy
+    private List<Path> flatFiles(int limit) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(flatDirectory,
+                path -> !path.getFileName().toString().startsWith(".") && Files.isRegularFile(path))) {
+            for (Path path : stream) {
+                files.add(path);
+                if (files.size() >= limit) {
+                    break;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return files;
+    }
+}
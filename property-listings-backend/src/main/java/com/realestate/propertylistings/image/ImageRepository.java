@@ -1,7 +1,9 @@
 package com.realestate.propertylistings.image;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,9 +16,37 @@ public interface ImageRepository extends JpaRepository<PropertyImage, Long> {
 
     Optional<PropertyImage> findByPropertyIdAndIsPrimaryTrue(Long propertyId);
 
-    Optional<PropertyImage> findByFileName(String fileName);
+    // po deduplikacji jeden plik może należeć do wielu zdjęć
+    List<PropertyImage> findByFileName(String fileName);
+
+    // zdjęcia sprzed magazynu adresowanego treścią (nazwa pliku inna niż {contentHash}.{ext})
+    @Query("""
+            SELECT i.id FROM PropertyImage i
+            WHERE i.id > :afterId
+              AND (i.contentHash IS NULL OR i.fileName NOT LIKE CONCAT(i.contentHash, '%'))
+            ORDER BY i.id
+            """)
+    List<Long> findIdsForBlobMigration(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("""
+            SELECT COUNT(i) FROM PropertyImage i
+            WHERE i.contentHash IS NULL OR i.fileName NOT LIKE CONCAT(i.contentHash, '%')
+            """)
+    long countLegacyImages();
+
+    // zakres nazw zamiast LIKE - indeks b-tree działa przy każdym collation bazy
+    @Query("SELECT i.fileName FROM PropertyImage i WHERE i.fileName >= :from AND i.fileName < :to")
+    List<String> findFileNamesBetween(@Param("from") String from, @Param("to") String to);
 
     long countByPropertyId(Long propertyId);
 
     void deleteByPropertyId(Long propertyId);
+
+    @Query("""
+            SELECT i.id FROM PropertyImage i
+            WHERE i.derivativeStatus IS NULL
+               OR i.derivativeStatus = com.realestate.propertylistings.image.DerivativeStatus.PENDING
+            ORDER BY i.id
+            """)
+    List<Long> findIdsPendingDerivatives(Pageable pageable);
 }
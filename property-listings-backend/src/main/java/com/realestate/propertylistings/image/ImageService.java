@@ -1,28 +1,33 @@
 package com.realestate.propertylistings.image;
 
+import com.realestate.propertylistings.dto.ImageBatchUploadResponse;
 import com.realestate.propertylistings.dto.ImageUploadResponse;
 import com.realestate.propertylistings.exception.FileUploadException;
 import com.realestate.propertylistings.exception.PropertyNotFoundException;
 import com.realestate.propertylistings.exception.UnauthorizedException;
 import com.realestate.propertylistings.property.Property;
 import com.realestate.propertylistings.property.PropertyRepository;
+import com.realestate.propertylistings.property.PropertyChangedEvent;
 import com.realestate.propertylistings.user.User;
 import com.realestate.propertylistings.user.UserRole;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
@@ -41,9 +46,11 @@ public class ImageService {
 
     private final ImageRepository imageRepository;
     private final PropertyRepository propertyRepository;
-
-    @Value("${app.upload.dir:uploads/properties}")
-    private String uploadDir;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageBlobStore blobStore;
+    private final ImageWritePool writePool;
+    private final ImageStorage storage;
+    private final PlatformTransactionManager transactionManager;
 
     @Value("${app.upload.base-url:http://localhost:8080/uploads/properties}")
     private String baseUrl;
@@ -52,6 +59,54 @@ public class ImageService {
         log.info("Upload rozpoczęty: property_id={}, user={}, file={}",
                 propertyId, currentUser.getEmail(), file.getOriginalFilename());
 
+        Property property = findModifiableProperty(propertyId, currentUser);
+
+        validateFile(file);
+
+        StoredImageFile stored;
+        try (InputStream input = file.getInputStream()) {
+            stored = writeFile(input);
+        } catch (IOException e) {
+            log.error("Błąd zapisu pliku: {}", e.getMessage(), e);
+            throw new FileUploadException("Nie udało się zapisać pliku: " + e.getMessage(), e);
+        }
+
+        return saveImage(property, stored, file.getOriginalFilename(), displayOrder);
+    }
+
+    /**
+     * Upload z surowego body żądania (bez multipart): jeden zapis na dysk, bez spoolowania
+     * w katalogu tymczasowym kontenera. Body czytane poza transakcją - wolny klient nie trzyma
+     * połączenia z puli; uprawnienia i zapis wiersza w osobnych krótkich transakcjach.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImageUploadResponse uploadImageStream(Long propertyId, InputStream input, String originalFileName,
+                                                 Integer displayOrder, User currentUser) {
+        log.info("Upload strumieniowy rozpoczęty: property_id={}, user={}, file={}",
+                propertyId, currentUser.getEmail(), originalFileName);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // uprawnienia przed czytaniem body - obcy użytkownik nie zapisze nic na dysk
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> findModifiableProperty(propertyId, currentUser));
+
+        StoredImageFile stored;
+        try {
+            stored = writeFile(input);
+        } catch (IOException e) {
+            log.error("Błąd zapisu pliku: {}", e.getMessage(), e);
+            throw new FileUploadException("Nie udało się zapisać pliku: " + e.getMessage(), e);
+        }
+
+        // ponowne sprawdzenie - ogłoszenie mogło zostać usunięte w trakcie uploadu;
+        // plik bez wiersza usunie potem OrphanImageCollector
+        transactionTemplate.setReadOnly(false);
+        return transactionTemplate.execute(status -> saveImage(
+                findModifiableProperty(propertyId, currentUser), stored, originalFileName, displayOrder));
+    }
+
+    private Property findModifiableProperty(Long propertyId, User currentUser) {
         Property property = propertyRepository.findById(propertyId)
                 .orElseThrow(() -> new PropertyNotFoundException("Ogłoszenie nie znalezione: " + propertyId));
 
@@ -60,26 +115,107 @@ public class ImageService {
                     currentUser.getEmail(), property.getOwner().getEmail());
             throw new UnauthorizedException("Brak uprawnień do dodania zdjęcia do tego ogłoszenia");
         }
+        return property;
+    }
 
-        validateFile(file);
+    /**
+     * Upload wielu plików: jedno sprawdzenie uprawnień, równoległy zapis na dysk i jeden batch insertów.
+     * Błąd pojedynczego pliku nie przerywa pozostałych - trafia do wyniku tego pliku.
+     */
+    public ImageBatchUploadResponse uploadImages(Long propertyId, List<MultipartFile> files, User currentUser) {
+        log.info("Upload wsadowy {} plików: property_id={}, user={}", files.size(), propertyId, currentUser.getEmail());
+
+        Property property = findModifiableProperty(propertyId, currentUser);
+
+        List<CompletableFuture<StoredImageFile>> writes = files.stream()
+                .map(file -> writePool.submit(() -> {
+                    validateFile(file);
+                    try (InputStream input = file.getInputStream()) {
+                        return writeFile(input);
+                    } catch (IOException e) {
+                        throw new FileUploadException("Nie udało się zapisać pliku: " + e.getMessage(), e);
+                    }
+                }))
+                .toList();
+
+        List<ImageBatchUploadResponse.Item> results = new ArrayList<>();
+        List<PropertyImage> images = new ArrayList<>();
+        List<ImageBatchUploadResponse.Item> successful = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            String originalFileName = files.get(i).getOriginalFilename();
+            ImageBatchUploadResponse.Item item = ImageBatchUploadResponse.Item.builder()
+                    .index(i)
+                    .originalFileName(originalFileName)
+                    .build();
+            try {
+                StoredImageFile stored = writes.get(i).join();
+                images.add(newImage(property, stored, originalFileName, i));
+                item.setSuccess(true);
+                successful.add(item);
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("Upload wsadowy: plik {} odrzucony: {}", originalFileName, cause.getMessage());
+                item.setError(cause instanceof FileUploadException
+                        ? cause.getMessage()
+                        : "Nie udało się zapisać pliku");
+            }
+            results.add(item);
+        }
+
+        List<PropertyImage> saved = imageRepository.saveAll(images);
+        if (!saved.isEmpty()) {
+            property.markImagesChanged();
+            eventPublisher.publishEvent(PropertyChangedEvent.imagesChanged(property));
+        }
+        for (int i = 0; i < saved.size(); i++) {
+            eventPublisher.publishEvent(new ImageUploadedEvent(saved.get(i).getId()));
+            successful.get(i).setImage(toUploadResponse(saved.get(i)));
+        }
+
+        log.info("Upload wsadowy zakończony: property_id={}, zapisano {}, odrzucono {}",
+                propertyId, saved.size(), files.size() - saved.size());
+        return ImageBatchUploadResponse.builder()
+                .uploaded(saved.size())
+                .failed(files.size() - saved.size())
+                .results(results)
+                .build();
+    }
 
-        String fileName = saveFile(file);
-        String imageUrl = baseUrl + "/" + fileName;
+    private ImageUploadResponse saveImage(Property property, StoredImageFile stored, String originalFileName,
+                                          Integer displayOrder) {
+        PropertyImage saved = imageRepository.save(newImage(property, stored, originalFileName, displayOrder));
+        property.markImagesChanged();
+        eventPublisher.publishEvent(PropertyChangedEvent.imagesChanged(property));
+        log.info("Zdjęcie zapisane: id={}, url={}", saved.getId(), saved.getFileUrl());
+
+        // pochodne generowane po commicie, poza wątkiem żądania
+        eventPublisher.publishEvent(new ImageUploadedEvent(saved.getId()));
+
+        return toUploadResponse(saved);
+    }
 
-        PropertyImage image = PropertyImage.builder()
+    private PropertyImage newImage(Property property, StoredImageFile stored, String originalFileName,
+                                   Integer displayOrder) {
+        blobStore.acquire(stored);
+
+        return PropertyImage.builder()
                 .property(property)
-                .fileName(fileName)
-                .fileUrl(imageUrl)
-                .originalFileName(file.getOriginalFilename())
-                .contentType(file.getContentType())
+                .fileName(stored.fileName())
+                .fileUrl(baseUrl + "/" + stored.fileName())
+                .originalFileName(originalFileName != null && !originalFileName.isBlank()
+                        ? originalFileName
+                        : stored.fileName())
+                // typ z sygnatury pliku, nie z nagłówka klienta
+                .contentType(stored.contentType())
                 .displayOrder(displayOrder != null ? displayOrder : 0)
-                .fileSize(file.getSize())
+                .fileSize(stored.size())
+                .contentHash(stored.sha256())
                 .isPrimary(false)
+                .derivativeStatus(DerivativeStatus.PENDING)
                 .build();
+    }
 
-        PropertyImage saved = imageRepository.save(image);
-        log.info("Zdjęcie zapisane: id={}, url={}", saved.getId(), imageUrl);
-
+    private static ImageUploadResponse toUploadResponse(PropertyImage saved) {
         return ImageUploadResponse.builder()
                 .id(saved.getId())
                 .imageUrl(saved.getFileUrl())  // ✅ Zmień getImageUrl() na getFileUrl()
@@ -87,6 +223,8 @@ public class ImageService {
                 .contentType(saved.getContentType())
                 .displayOrder(saved.getDisplayOrder())
                 .fileSize(saved.getFileSize())
+                .sha256(saved.getContentHash())
+                .derivativeStatus(saved.getDerivativeStatus().name())
                 .build();
     }
 
@@ -112,52 +250,23 @@ public class ImageService {
             throw new UnauthorizedException("Brak uprawnień do usunięcia zdjęcia");
         }
 
-        deleteFileFromDisk(image.getFileUrl());
+        if (ImageBlobStore.isContentAddressed(image)) {
+            // plik współdzielony - znika dopiero z ostatnią referencją
+            blobStore.release(image.getContentHash());
+        } else {
+            blobStore.deleteAfterCommit(image.getFileName());
+        }
 
+        image.getProperty().markImagesChanged();
+        eventPublisher.publishEvent(PropertyChangedEvent.imagesChanged(image.getProperty()));
         imageRepository.delete(image);
         log.info("Zdjęcie usunięte: id={}", imageId);
     }
 
-    private String saveFile(MultipartFile file) {
-        try {
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-                log.info("Utworzono katalog: {}", uploadPath);
-            }
-
-            String originalFileName = file.getOriginalFilename();
-            String extension = originalFileName != null && originalFileName.contains(".")
-                    ? originalFileName.substring(originalFileName.lastIndexOf("."))
-                    : ".jpg";
-            String uniqueFileName = UUID.randomUUID().toString() + extension;
-
-            Path filePath = uploadPath.resolve(uniqueFileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            log.info("Plik zapisany: {}", filePath);
-            return uniqueFileName;
-
-        } catch (IOException e) {
-            log.error("Błąd zapisu pliku: {}", e.getMessage(), e);
-            throw new RuntimeException("Nie udało się zapisać pliku: " + e.getMessage(), e);
-        }
-    }
-
-    private void deleteFileFromDisk(String imageUrl) {
-        try {
-            String fileName = imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
-            Path filePath = Paths.get(uploadDir, fileName);
-
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
-                log.info("Plik usunięty z dysku: {}", filePath);
-            } else {
-                log.warn("Plik nie istnieje: {}", filePath);
-            }
-        } catch (IOException e) {
-            log.warn("Nie udało się usunąć pliku: {}", e.getMessage());
-        }
+    private StoredImageFile writeFile(InputStream input) throws IOException {
+        StoredImageFile stored = new StreamingImageWriter(MAX_SIZE_BYTES).write(input, storage);
+        log.info("Plik zapisany: {} ({} B, sha256={})", stored.fileName(), stored.size(), stored.sha256());
+        return stored;
     }
 
     private void validateFile(MultipartFile file) {
@@ -0,0 +1,217 @@
+package com.realestate.propertylistings.image;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serwowanie zdjęć ogłoszeń zamiast domyślnego handlera zasobów: nazwy plików są niezmienne
+ * (hash treści albo UUID), więc odpowiedzi mają długi Cache-Control z immutable, silny ETag,
+ * obsługę 304 i zakresów bajtów. Treść idzie przez sendfile Tomcata albo FileChannel.transferTo.
+ */
+@RestController
+@Slf4j
+public class ImageServingController {
+
+    private static final Pattern SAFE_FILE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_-]*\\.[A-Za-z0-9]+");
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("([0-9a-f]{64})(?:_([a-z]+))?\\..+");
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private final ImageStorage storage;
+    private final HotImageCache hotCache;
+
+    public ImageServingController(ImageStorage storage, HotImageCache hotCache) {
+        this.storage = storage;
+        this.hotCache = hotCache;
+    }
+
+    @RequestMapping(value = "/uploads/properties/{fileName:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(@PathVariable String fileName, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (!SAFE_FILE_NAME.matcher(fileName).matches()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path file = storage.localPath(fileName).orElse(null);
+        if (file == null) {
+            serveRemote(fileName, request, response);
+            return;
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = etag(fileName, size, lastModified);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(ImageTypeSniffer.contentTypeOf(fileName));
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            Matcher matcher = SINGLE_RANGE.matcher(range.trim());
+            // wiele zakresów naraz obsługujemy jak zwykłe żądanie - serwer może zignorować Range
+            if (matcher.matches() && !(matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+                try {
+                    if (matcher.group(1).isEmpty()) {
+                        start = Math.max(0, size - Long.parseLong(matcher.group(2)));
+                    } else {
+                        start = Long.parseLong(matcher.group(1));
+                        if (!matcher.group(2).isEmpty()) {
+                            end = Math.min(end, Long.parseLong(matcher.group(2)));
+                        }
+                    }
+                } catch (NumberFormatException e) {
+                    // granica poza zakresem long - i tak nie do spełnienia dla żadnego pliku
+                    start = size;
+                }
+                if (start >= size || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (length == size && hotCache.isEligible(fileName, size)) {
+            byte[] bytes = hotCache.get(fileName);
+            if (bytes == null) {
+                bytes = Files.readAllBytes(file);
+                hotCache.put(fileName, bytes);
+            }
+            response.getOutputStream().write(bytes);
+            return;
+        }
+
+        // NIO connector Tomcata: plik wysyła sam kontener przez sendfile, bez kopiowania do JVM
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream output = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(output);
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // obiekt tylko w zdalnym magazynie - zwykle serwuje go CDN spod app.upload.base-url, tu proxy bez zakresów
+    private void serveRemote(String fileName, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        InputStream input;
+        try {
+            input = storage.open(fileName);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        try (input) {
+            if (CONTENT_ADDRESSED.matcher(fileName).matches()) {
+                String etag = etag(fileName, 0, 0);
+                response.setHeader(HttpHeaders.ETAG, etag);
+                if (notModified(request, etag, -1)) {
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+            }
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            response.setContentType(ImageTypeSniffer.contentTypeOf(fileName));
+            if (!"HEAD".equals(request.getMethod())) {
+                input.transferTo(response.getOutputStream());
+            }
+        }
+    }
+
+    // nazwa z hashem treści to gotowy silny ETag; dla plików legacy rozmiar + czas modyfikacji
+    static String etag(String fileName, long size, long lastModified) {
+        Matcher matcher = CONTENT_ADDRESSED.matcher(fileName);
+        if (matcher.matches()) {
+            return "\"" + matcher.group(1) + (matcher.group(2) != null ? "-" + matcher.group(2) : "") + "\"";
+        }
+        return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String value = candidate.trim();
+                if (value.startsWith("W/")) {
+                    value = value.substring(2);
+                }
+                if (value.equals("*") || value.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince != -1 && lastModified != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+}
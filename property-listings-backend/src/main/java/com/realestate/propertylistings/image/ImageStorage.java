@@ -0,0 +1,63 @@
+package com.realestate.propertylistings.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Magazyn plików zdjęć adresowany nazwą pliku ({sha256}.ext, pochodne {sha256}_thumb.jpg, legacy UUID).
+ * Obiekty są niezmienne: zapis pod istniejącą nazwą oznacza tę samą treść i jest pomijany.
+ */
+public interface ImageStorage {
+
+    /**
+     * Lokalny katalog na pliki tymczasowe uploadu i generowania pochodnych.
+     */
+    Path stagingDirectory() throws IOException;
+
+    /**
+     * Przenosi lokalny plik do magazynu pod podaną nazwą; plik źródłowy zawsze znika.
+     */
+    void store(String fileName, Path source, String contentType) throws IOException;
+
+    boolean exists(String fileName);
+
+    InputStream open(String fileName) throws IOException;
+
+    /**
+     * Ścieżka na lokalnym dysku, jeżeli magazyn ją ma - pozwala dekodować i wysyłać plik bez kopiowania.
+     */
+    Optional<Path> localPath(String fileName);
+
+    void copy(String sourceFileName, String targetFileName) throws IOException;
+
+    void delete(String fileName) throws IOException;
+
+    /**
+     * Pliki jednego katalogu shardu (np. "ab/cd") z rozmiarem i czasem ostatniego zapisu.
+     */
+    List<StoredObject> listShard(String shard) throws IOException;
+
+    /**
+     * Usuwa plik, jeżeli nikt go nie zapisał ani nie odświeżył po cutoff. Zapis istniejącej nazwy
+     * (deduplikacja) odświeża czas modyfikacji, więc plik właśnie podejmowany przez upload zostaje.
+     */
+    boolean deleteIfUnmodifiedSince(String fileName, Instant cutoff) throws IOException;
+
+    /**
+     * Klucz z dwoma poziomami katalogów z początku nazwy: ab/cd/abcd...jpg.
+     * Nazwy z hasha i UUID zaczynają się od hex, więc pliki rozkładają się równo na 65536 katalogów.
+     */
+    record StoredObject(String fileName, long size, Instant lastModified) {
+    }
+
+    static String shardedKey(String fileName) {
+        String prefix = fileName.length() >= 4 && fileName.substring(0, 4).matches("[0-9a-f]{4}")
+                ? fileName.substring(0, 4)
+                : String.format("%08x", fileName.hashCode()).substring(0, 4);
+        return prefix.substring(0, 2) + "/" + prefix.substring(2, 4) + "/" + fileName;
+    }
+}
@@ -0,0 +1,54 @@
+package com.realestate.propertylistings.image;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/images")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class ImageStorageAdminController {
+
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final ImageBlobMigrationService migrationService;
+    private final ImageLayoutMigrationService layoutMigrationService;
+    private final OrphanImageCollector orphanImageCollector;
+
+    @GetMapping("/storage-report")
+    public ResponseEntity<ImageStorageReport> storageReport() {
+        return ResponseEntity.ok(migrationService.report());
+    }
+
+    // wywoływane w pętli z afterId = lastImageId, dopóki remaining > 0
+    @PostMapping("/migrate-blobs")
+    public ResponseEntity<ImageBlobMigrationResult> migrateBlobs(
+            @RequestParam(value = "afterId", required = false, defaultValue = "0") Long afterId,
+            @RequestParam(value = "batchSize", required = false, defaultValue = "100") Integer batchSize
+    ) {
+        int size = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        return ResponseEntity.ok(migrationService.migrateBatch(afterId, size));
+    }
+
+    @GetMapping("/gc")
+    public ResponseEntity<ImageGcReport> gcReport() {
+        return ResponseEntity.ok(orphanImageCollector.report());
+    }
+
+    // jeden przebieg poza harmonogramem, z tymi samymi limitami
+    @PostMapping("/gc/run")
+    public ResponseEntity<ImageGcReport> runGc() {
+        return ResponseEntity.ok(orphanImageCollector.runBatch());
+    }
+
+    // wywoływane w pętli, dopóki remaining = true
+    @PostMapping("/migrate-layout")
+    public ResponseEntity<ImageLayoutMigrationResult> migrateLayout(
+            @RequestParam(value = "batchSize", required = false, defaultValue = "500") Integer batchSize
+    ) {
+        int size = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        return ResponseEntity.ok(layoutMigrationService.migrateBatch(size));
+    }
+}
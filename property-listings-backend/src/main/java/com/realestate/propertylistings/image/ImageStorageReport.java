@@ -0,0 +1,25 @@
+package com.realestate.propertylistings.image;
+
+/**
+ * @param storedBytes  bajty faktycznie zajęte przez bloby
+ * @param logicalBytes bajty, które zajmowałyby te same zdjęcia bez deduplikacji
+ * @param legacyImages zdjęcia jeszcze nieprzeniesione do magazynu adresowanego treścią
+ */
+public record ImageStorageReport(
+        long blobs,
+        long references,
+        long storedBytes,
+        long logicalBytes,
+        long bytesSaved,
+        long legacyImages
+) {
+
+    // konstruktor dla zapytania JPQL - liczbę zdjęć legacy dokłada serwis
+    public ImageStorageReport(long blobs, long references, long storedBytes, long logicalBytes) {
+        this(blobs, references, storedBytes, logicalBytes, logicalBytes - storedBytes, 0);
+    }
+
+    public ImageStorageReport withLegacyImages(long legacyImages) {
+        return new ImageStorageReport(blobs, references, storedBytes, logicalBytes, bytesSaved, legacyImages);
+    }
+}
@@ -0,0 +1,61 @@
+package com.realestate.propertylistings.image;
+
+import java.util.Optional;
+
+/**
+ * Typ zdjęcia po sygnaturze pliku - nagłówek Content-Type od klienta nie jest wiarygodny.
+ */
+public final class ImageTypeSniffer {
+
+    // tyle bajtów wystarcza dla wszystkich obsługiwanych sygnatur (RIFF....WEBP)
+    public static final int HEADER_LENGTH = 12;
+
+    private ImageTypeSniffer() {
+    }
+
+    public static Optional<String> detect(byte[] header, int length) {
+        if (length >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return Optional.of("image/jpeg");
+        }
+        if (length >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G'
+                && header[4] == 0x0D && header[5] == 0x0A && header[6] == 0x1A && header[7] == 0x0A) {
+            return Optional.of("image/png");
+        }
+        if (length >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8'
+                && (header[4] == '7' || header[4] == '9') && header[5] == 'a') {
+            return Optional.of("image/gif");
+        }
+        if (length >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return Optional.of("image/webp");
+        }
+        return Optional.empty();
+    }
+
+    public static String extension(String contentType) {
+        return switch (contentType) {
+            case "image/png" -> ".png";
+            case "image/gif" -> ".gif";
+            case "image/webp" -> ".webp";
+            default -> ".jpg";
+        };
+    }
+
+    // typ po rozszerzeniu nazwy nadanej przy zapisie - tylko dla plików, które już przeszły detect()
+    public static String contentTypeOf(String fileName) {
+        String lower = fileName.toLowerCase();
+        if (lower.endsWith(".png")) {
+            return "image/png";
+        }
+        if (lower.endsWith(".gif")) {
+            return "image/gif";
+        }
+        if (lower.endsWith(".webp")) {
+            return "image/webp";
+        }
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return "image/jpeg";
+        }
+        return "application/octet-stream";
+    }
+}
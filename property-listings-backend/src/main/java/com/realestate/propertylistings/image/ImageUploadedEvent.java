@@ -0,0 +1,4 @@
+package com.realestate.propertylistings.image;
+
+public record ImageUploadedEvent(Long imageId) {
+}
@@ -0,0 +1,46 @@
+package com.realestate.propertylistings.image;
+
+public enum ImageVariant {
+    THUMBNAIL("thumb", 320, 240),
+    CARD("card", 640, 480),
+    FULL("full", 1600, 1200);
+
+    private final String suffix;
+    private final int maxWidth;
+    private final int maxHeight;
+
+    ImageVariant(String suffix, int maxWidth, int maxHeight) {
+        this.suffix = suffix;
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+    }
+
+    public String suffix() {
+        return suffix;
+    }
+
+    public int maxWidth() {
+        return maxWidth;
+    }
+
+    public int maxHeight() {
+        return maxHeight;
+    }
+
+    public String fileName(String baseName) {
+        return baseName + "_" + suffix + ".jpg";
+    }
+
+    /**
+     * Nazwa bazowa oryginału, do którego należy plik: abc_thumb.jpg i abc.png dają abc.
+     */
+    public static String ownerBaseName(String fileName) {
+        for (ImageVariant variant : values()) {
+            String derivativeSuffix = "_" + variant.suffix + ".jpg";
+            if (fileName.endsWith(derivativeSuffix)) {
+                return fileName.substring(0, fileName.length() - derivativeSuffix.length());
+            }
+        }
+        return ImageDerivativeProcessor.baseName(fileName);
+    }
+}
@@ -0,0 +1,155 @@
+package com.realestate.propertylistings.image;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Pliki na lokalnym dysku w katalogach ab/cd/ pod app.upload.dir. Pliki z dawnego płaskiego układu
+ * są czytane z katalogu głównego, dopóki migracja ich nie przeniesie.
+ */
+@Slf4j
+public class LocalShardedImageStorage implements ImageStorage {
+
+    static final String STAGING_DIRECTORY = ".staging";
+
+    private final Path root;
+
+    public LocalShardedImageStorage(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public Path stagingDirectory() throws IOException {
+        // ten sam system plików co magazyn - store() to zwykły rename
+        return Files.createDirectories(root.resolve(STAGING_DIRECTORY));
+    }
+
+    @Override
+    public void store(String fileName, Path source, String contentType) throws IOException {
+        Path target = shardedPath(fileName);
+        try {
+            if (Files.exists(target)) {
+                try {
+                    // świeży czas modyfikacji chroni plik przed GC do commitu nowej referencji
+                    Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                    log.debug("Plik {} już istnieje - pomijam zapis duplikatu", fileName);
+                    return;
+                } catch (NoSuchFileException e) {
+                    // GC usunął plik między sprawdzeniami - zapisujemy od nowa
+                }
+            }
+            Files.createDirectories(target.getParent());
+            // przy wyścigu dwóch identycznych zapisów rename nadpisuje plik tą samą treścią
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    @Override
+    public boolean exists(String fileName) {
+        return localPath(fileName).isPresent();
+    }
+
+    @Override
+    public InputStream open(String fileName) throws IOException {
+        return Files.newInputStream(localPath(fileName).orElseThrow(() -> new NoSuchFileException(fileName)));
+    }
+
+    @Override
+    public Optional<Path> localPath(String fileName) {
+        Path sharded = shardedPath(fileName);
+        if (Files.isRegularFile(sharded)) {
+            return Optional.of(sharded);
+        }
+        Path flat = flatPath(fileName);
+        if (Files.isRegularFile(flat)) {
+            return Optional.of(flat);
+        }
+        // migracja mogła przenieść plik między dwoma sprawdzeniami
+        return Files.isRegularFile(sharded) ? Optional.of(sharded) : Optional.empty();
+    }
+
+    @Override
+    public void copy(String sourceFileName, String targetFileName) throws IOException {
+        Path source = localPath(sourceFileName).orElseThrow(() -> new NoSuchFileException(sourceFileName));
+        Path target = shardedPath(targetFileName);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createLink(target, source);
+        } catch (FileAlreadyExistsException e) {
+            // ta sama treść jest już w magazynie
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(source, target);
+        }
+    }
+
+    @Override
+    public void delete(String fileName) throws IOException {
+        Files.deleteIfExists(shardedPath(fileName));
+        Files.deleteIfExists(flatPath(fileName));
+    }
+
+    @Override
+    public List<StoredObject> listShard(String shard) throws IOException {
+        Path directory = root.resolve(shard);
+        List<StoredObject> objects = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    objects.add(new StoredObject(path.getFileName().toString(), attributes.size(),
+                            attributes.lastModifiedTime().toInstant()));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return List.of();
+        }
+        return objects;
+    }
+
+    /**
+     * Plik najpierw znika pod swoją nazwą (rename do katalogu roboczego), dopiero potem sprawdzamy
+     * czas modyfikacji: równoległy store() albo zdążył go odświeżyć, albo nie znajdzie pliku i zapisze nowy.
+     */
+    @Override
+    public boolean deleteIfUnmodifiedSince(String fileName, Instant cutoff) throws IOException {
+        Path path = shardedPath(fileName);
+        Path trash = stagingDirectory().resolve(".gc-" + UUID.randomUUID() + ".tmp");
+        try {
+            Files.move(path, trash, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (Files.getLastModifiedTime(trash).toInstant().isBefore(cutoff)) {
+            Files.delete(trash);
+            return true;
+        }
+        Files.move(trash, path, StandardCopyOption.ATOMIC_MOVE);
+        return false;
+    }
+
+    private Path shardedPath(String fileName) {
+        return root.resolve(ImageStorage.shardedKey(fileName));
+    }
+
+    private Path flatPath(String fileName) {
+        return root.resolve(fileName);
+    }
+}
@@ -0,0 +1,215 @@
+package com.realestate.propertylistings.image;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Przyrostowe uzgadnianie magazynu z property_images: w każdym przebiegu kilka katalogów shardu ab/cd,
+ * pliki bez zdjęcia ani bloba w bazie są usuwane. Limit usunięć na przebieg, punkt wznowienia w bazie,
+ * a pliki młodsze niż okres karencji są pomijane - upload mógł jeszcze nie zatwierdzić transakcji.
+ */
+@Component
+@Slf4j
+public class OrphanImageCollector {
+
+    static final int SHARD_COUNT = 256 * 256;
+    // górna granica zakresu nazw dla ostatniego shardu - 'g' jest za wszystkimi cyframi hex
+    private static final String AFTER_LAST_SHARD = "g";
+
+    private final ImageStorage storage;
+    private final ImageRepository imageRepository;
+    private final ImageBlobRepository blobRepository;
+    private final ImageGcCheckpointRepository checkpointRepository;
+    private final boolean enabled;
+    private final int shardsPerRun;
+    private final int maxDeletesPerRun;
+    private final Duration gracePeriod;
+    private final Counter deletedFiles;
+    private final Counter reclaimedBytes;
+
+    public OrphanImageCollector(
+            ImageStorage storage,
+            ImageRepository imageRepository,
+            ImageBlobRepository blobRepository,
+            ImageGcCheckpointRepository checkpointRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.images.gc.enabled:true}") boolean enabled,
+            @Value("${app.images.gc.shards-per-run:64}") int shardsPerRun,
+            @Value("${app.images.gc.max-deletes-per-run:500}") int maxDeletesPerRun,
+            @Value("${app.images.gc.grace-period:PT6H}") Duration gracePeriod
+    ) {
+        this.storage = storage;
+        this.imageRepository = imageRepository;
+        this.blobRepository = blobRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.enabled = enabled;
+        this.shardsPerRun = shardsPerRun;
+        this.maxDeletesPerRun = maxDeletesPerRun;
+        this.gracePeriod = gracePeriod;
+        this.deletedFiles = meterRegistry.counter("image.gc.deleted.files");
+        this.reclaimedBytes = meterRegistry.counter("image.gc.reclaimed.bytes");
+    }
+
+    @Scheduled(fixedDelayString = "${app.images.gc.interval:PT10S}",
+            initialDelayString = "${app.images.gc.initial-delay:PT2M}")
+    public void scheduledRun() {
+        if (enabled) {
+            runBatch();
+        }
+    }
+
+    public ImageGcReport report() {
+        return ImageGcReport.of(checkpointRepository.findById(ImageGcCheckpoint.SINGLETON_ID)
+                .orElseGet(ImageGcCheckpoint::initial));
+    }
+
+    public synchronized ImageGcReport runBatch() {
+        ImageGcCheckpoint checkpoint = checkpointRepository.findById(ImageGcCheckpoint.SINGLETON_ID)
+                .orElseGet(ImageGcCheckpoint::initial);
+        Instant cutoff = Instant.now().minus(gracePeriod);
+
+        if (checkpoint.getPassStartedAt() == null) {
+            checkpoint.setPassStartedAt(LocalDateTime.now());
+            cleanStaging(cutoff);
+        }
+
+        int first = checkpoint.getNextShard();
+        int end = Math.min(SHARD_COUNT, first + shardsPerRun);
+        // jedno zapytanie na cały zakres shardów przebiegu zamiast jednego na katalog
+        Set<String> referenced = referencedBaseNames(prefix(first),
+                end < SHARD_COUNT ? prefix(end) : AFTER_LAST_SHARD);
+
+        int shard = first;
+        long files = 0;
+        long bytes = 0;
+        try {
+            while (shard < end) {
+                ShardOutcome outcome = collectShard(shard, referenced, cutoff, maxDeletesPerRun - files);
+                files += outcome.files();
+                bytes += outcome.bytes();
+                // limit usunięć - resztę tego shardu dokończy następny przebieg
+                if (!outcome.complete()) {
+                    break;
+                }
+                shard++;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("GC zdjęć: błąd w shardzie {} - ponowna próba w następnym przebiegu: {}",
+                    key(shard), e.getMessage());
+        }
+
+        deletedFiles.increment(files);
+        reclaimedBytes.increment(bytes);
+        checkpoint.setNextShard(shard);
+        checkpoint.setPassDeletedFiles(checkpoint.getPassDeletedFiles() + files);
+        checkpoint.setPassReclaimedBytes(checkpoint.getPassReclaimedBytes() + bytes);
+        checkpoint.setTotalDeletedFiles(checkpoint.getTotalDeletedFiles() + files);
+        checkpoint.setTotalReclaimedBytes(checkpoint.getTotalReclaimedBytes() + bytes);
+        if (shard == SHARD_COUNT) {
+            log.info("GC zdjęć: przebieg zakończony, usunięto {} plików, odzyskano {} B",
+                    checkpoint.getPassDeletedFiles(), checkpoint.getPassReclaimedBytes());
+            checkpoint.setCompletedPasses(checkpoint.getCompletedPasses() + 1);
+            checkpoint.setLastPassDeletedFiles(checkpoint.getPassDeletedFiles());
+            checkpoint.setLastPassReclaimedBytes(checkpoint.getPassReclaimedBytes());
+            checkpoint.setPassDeletedFiles(0L);
+            checkpoint.setPassReclaimedBytes(0L);
+            checkpoint.setPassStartedAt(null);
+            checkpoint.setNextShard(0);
+        }
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+
+        try {
+            checkpoint = checkpointRepository.save(checkpoint);
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            // druga instancja przesunęła punkt wznowienia - jej stan wygrywa, usunięcia są idempotentne
+            log.debug("GC zdjęć: konflikt zapisu punktu wznowienia: {}", e.getMessage());
+            return report();
+        }
+        if (files > 0) {
+            log.info("GC zdjęć: shardy {}..{}, usunięto {} plików, odzyskano {} B",
+                    key(first), key(Math.max(first, shard - 1)), files, bytes);
+        }
+        return ImageGcReport.of(checkpoint);
+    }
+
+    private ShardOutcome collectShard(int shard, Set<String> referenced, Instant cutoff, long budget)
+            throws IOException {
+        String prefix = prefix(shard);
+        long files = 0;
+        long bytes = 0;
+        for (ImageStorage.StoredObject object : storage.listShard(key(shard))) {
+            String fileName = object.fileName();
+            // nazwy spoza układu hex trafiają do shardu z hashCode - tych nie umiemy uzgodnić, zostają
+            if (!fileName.startsWith(prefix)
+                    || !object.lastModified().isBefore(cutoff)
+                    || referenced.contains(ImageVariant.ownerBaseName(fileName))) {
+                continue;
+            }
+            if (files >= budget) {
+                return new ShardOutcome(files, bytes, false);
+            }
+            if (storage.deleteIfUnmodifiedSince(fileName, cutoff)) {
+                files++;
+                bytes += object.size();
+                log.debug("GC zdjęć: usunięto osierocony plik {} ({} B)", fileName, object.size());
+            }
+        }
+        return new ShardOutcome(files, bytes, true);
+    }
+
+    private Set<String> referencedBaseNames(String from, String to) {
+        Set<String> names = new HashSet<>();
+        for (String fileName : imageRepository.findFileNamesBetween(from, to)) {
+            names.add(ImageDerivativeProcessor.baseName(fileName));
+        }
+        // blob bez zdjęcia to wyciek licznika, nie śmieć - plik zostaje, żeby acquire() nie wskazał w próżnię
+        names.addAll(blobRepository.findHashesBetween(from, to));
+        return names;
+    }
+
+    // pliki tymczasowe po przerwanych uploadach i generowaniu pochodnych
+    private void cleanStaging(Instant cutoff) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(storage.stagingDirectory())) {
+            for (Path path : stream) {
+                if (Files.getLastModifiedTime(path).toInstant().isBefore(cutoff)) {
+                    try (Stream<Path> nested = Files.walk(path)) {
+                        nested.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("GC zdjęć: nie udało się wyczyścić katalogu roboczego: {}", e.getMessage());
+        }
+    }
+
+    static String prefix(int shard) {
+        return String.format("%04x", shard);
+    }
+
+    static String key(int shard) {
+        String prefix = prefix(shard);
+        return prefix.substring(0, 2) + "/" + prefix.substring(2);
+    }
+
+    private record ShardOutcome(long files, long bytes, boolean complete) {
+    }
+}
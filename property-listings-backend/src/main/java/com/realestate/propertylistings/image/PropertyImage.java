@@ -1,24 +1,35 @@
 package com.realestate.propertylistings.image;
 
 import com.realestate.propertylistings.property.Property;
+import com.realestate.propertylistings.property.PropertyCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "property_images")
+@EntityListeners(PropertyCacheInvalidator.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "property_images", indexes = {
+        // zakresowe zapytania po nazwie pliku w OrphanImageCollector
+        @Index(name = "idx_property_images_file_name", columnList = "file_name")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class PropertyImage {
 
+    // sekwencja z pulą 50: id znane przed insertem, więc zapis wielu zdjęć idzie jednym batchem JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "property_image_seq")
+    @SequenceGenerator(name = "property_image_seq", sequenceName = "property_images_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -36,12 +47,27 @@ public class PropertyImage {
     @Column(nullable = false)
     private String fileUrl;
 
+    // SHA-256 zawartości (hex) liczony w trakcie zapisu; null dla zdjęć sprzed tej kolumny
+    @Column(length = 64)
+    private String contentHash;
+
     @Column(nullable = false)
     private boolean isPrimary = false;
 
     @Column(nullable = false)
     private Integer displayOrder = 0;
 
+    // null dla zdjęć sprzed potoku pochodnych - traktowane jak PENDING
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private DerivativeStatus derivativeStatus;
+
+    private String thumbnailUrl;
+
+    private String cardUrl;
+
+    private String fullUrl;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "property_id", nullable = false)
     private Property property;
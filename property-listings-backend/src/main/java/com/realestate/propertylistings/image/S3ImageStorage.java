@@ -0,0 +1,210 @@
+package com.realestate.propertylistings.image;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Magazyn w buckecie zgodnym z S3 (AWS, MinIO, Ceph) przez klienta AWS SDK. Klucze mają ten sam
+ * podział ab/cd/ co dysk lokalny. Pliki z płaskiego katalogu app.upload.dir są czytane lokalnie,
+ * dopóki migracja nie wyśle ich do bucketu.
+ */
+@Slf4j
+public class S3ImageStorage implements ImageStorage {
+
+    private static final int NOT_FOUND = 404;
+
+    private final S3Client client;
+    private final String bucket;
+    private final Path localRoot;
+
+    public S3ImageStorage(S3Client client, String bucket, Path localRoot) {
+        this.client = client;
+        this.bucket = bucket;
+        this.localRoot = localRoot;
+    }
+
+    @Override
+    public Path stagingDirectory() throws IOException {
+        return Files.createDirectories(localRoot.resolve(LocalShardedImageStorage.STAGING_DIRECTORY));
+    }
+
+    @Override
+    public void store(String fileName, Path source, String contentType) throws IOException {
+        try {
+            if (head(fileName).isPresent()) {
+                touch(fileName, contentType);
+                log.debug("Obiekt {} już jest w buckecie - pomijam wysyłkę duplikatu", fileName);
+                return;
+            }
+            put(fileName, source, contentType);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    @Override
+    public boolean exists(String fileName) {
+        try {
+            return head(fileName).isPresent() || Files.isRegularFile(localRoot.resolve(fileName));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public InputStream open(String fileName) throws IOException {
+        try {
+            return client.getObject(request -> request.bucket(bucket).key(ImageStorage.shardedKey(fileName)));
+        } catch (S3Exception e) {
+            if (e.statusCode() != NOT_FOUND) {
+                throw failure("GET", fileName, e);
+            }
+        } catch (SdkException e) {
+            throw failure("GET", fileName, e);
+        }
+        Path flat = localRoot.resolve(fileName);
+        if (Files.isRegularFile(flat)) {
+            return Files.newInputStream(flat);
+        }
+        throw new NoSuchFileException(fileName);
+    }
+
+    @Override
+    public Optional<Path> localPath(String fileName) {
+        Path flat = localRoot.resolve(fileName);
+        return Files.isRegularFile(flat) ? Optional.of(flat) : Optional.empty();
+    }
+
+    @Override
+    public void copy(String sourceFileName, String targetFileName) throws IOException {
+        Path flat = localRoot.resolve(sourceFileName);
+        if (Files.isRegularFile(flat)) {
+            put(targetFileName, flat, ImageTypeSniffer.contentTypeOf(targetFileName));
+            return;
+        }
+        // kopia po stronie serwera - bajty nie przechodzą przez aplikację
+        try {
+            client.copyObject(request -> request
+                    .sourceBucket(bucket)
+                    .sourceKey(ImageStorage.shardedKey(sourceFileName))
+                    .destinationBucket(bucket)
+                    .destinationKey(ImageStorage.shardedKey(targetFileName)));
+        } catch (SdkException e) {
+            throw failure("COPY", sourceFileName, e);
+        }
+    }
+
+    @Override
+    public void delete(String fileName) throws IOException {
+        deleteObject(fileName);
+        Files.deleteIfExists(localRoot.resolve(fileName));
+    }
+
+    @Override
+    public List<StoredObject> listShard(String shard) throws IOException {
+        List<StoredObject> objects = new ArrayList<>();
+        try {
+            for (S3Object object : client.listObjectsV2Paginator(request -> request
+                    .bucket(bucket)
+                    .prefix(shard + "/")).contents()) {
+                String key = object.key();
+                objects.add(new StoredObject(key.substring(key.lastIndexOf('/') + 1),
+                        object.size(), object.lastModified()));
+            }
+        } catch (SdkException e) {
+            throw failure("LIST", shard, e);
+        }
+        return objects;
+    }
+
+    // S3 nie ma warunkowego DELETE po dacie - sprawdzamy HEAD tuż przed usunięciem
+    @Override
+    public boolean deleteIfUnmodifiedSince(String fileName, Instant cutoff) throws IOException {
+        Optional<HeadObjectResponse> head = head(fileName);
+        if (head.isEmpty()) {
+            return false;
+        }
+        Instant lastModified = head.get().lastModified() != null ? head.get().lastModified() : Instant.MAX;
+        if (!lastModified.isBefore(cutoff)) {
+            return false;
+        }
+        deleteObject(fileName);
+        return true;
+    }
+
+    // kopia obiektu na samego siebie odświeża Last-Modified bez przesyłania treści
+    private void touch(String fileName, String contentType) throws IOException {
+        String key = ImageStorage.shardedKey(fileName);
+        try {
+            client.copyObject(request -> request
+                    .sourceBucket(bucket)
+                    .sourceKey(key)
+                    .destinationBucket(bucket)
+                    .destinationKey(key)
+                    .metadataDirective(MetadataDirective.REPLACE)
+                    .contentType(contentType));
+        } catch (SdkException e) {
+            throw failure("TOUCH", fileName, e);
+        }
+    }
+
+    private Optional<HeadObjectResponse> head(String fileName) throws IOException {
+        try {
+            return Optional.of(client.headObject(request -> request
+                    .bucket(bucket)
+                    .key(ImageStorage.shardedKey(fileName))));
+        } catch (S3Exception e) {
+            if (e.statusCode() == NOT_FOUND) {
+                return Optional.empty();
+            }
+            throw failure("HEAD", fileName, e);
+        } catch (SdkException e) {
+            throw failure("HEAD", fileName, e);
+        }
+    }
+
+    private void put(String fileName, Path source, String contentType) throws IOException {
+        try {
+            client.putObject(request -> request
+                    .bucket(bucket)
+                    .key(ImageStorage.shardedKey(fileName))
+                    .contentType(contentType), RequestBody.fromFile(source));
+        } catch (SdkException e) {
+            throw failure("PUT", fileName, e);
+        }
+    }
+
+    private void deleteObject(String fileName) throws IOException {
+        try {
+            client.deleteObject(request -> request.bucket(bucket).key(ImageStorage.shardedKey(fileName)));
+        } catch (S3Exception e) {
+            if (e.statusCode() != NOT_FOUND) {
+                throw failure("DELETE", fileName, e);
+            }
+        } catch (SdkException e) {
+            throw failure("DELETE", fileName, e);
+        }
+    }
+
+    private static IOException failure(String operation, String fileName, SdkException cause) {
+        return new IOException("Magazyn S3: " + operation + " " + fileName + " nie powiódł się: "
+                + cause.getMessage(), cause);
+    }
+}
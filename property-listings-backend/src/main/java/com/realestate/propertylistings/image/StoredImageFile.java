@@ -0,0 +1,4 @@
+package com.realestate.propertylistings.image;
+
+public record StoredImageFile(String fileName, String contentType, long size, String sha256) {
+}
@@ -0,0 +1,92 @@
+package com.realestate.propertylistings.image;
+
+import com.realestate.propertylistings.exception.FileUploadException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Jednoprzebiegowy zapis uploadu: strumień trafia do pliku tymczasowego w katalogu roboczym magazynu,
+ * po drodze liczony jest SHA-256, rozmiar i sygnatura typu; na końcu plik przechodzi do magazynu
+ * pod nazwą {sha256}.{ext}.
+ * Dla dysku lokalnego katalog roboczy leży na tym samym systemie plików, więc to tylko rename.
+ */
+public class StreamingImageWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long maxSizeBytes;
+
+    public StreamingImageWriter(long maxSizeBytes) {
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    public StoredImageFile write(InputStream input, ImageStorage storage) throws IOException {
+        Path temp = Files.createTempFile(storage.stagingDirectory(), ".upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            byte[] header = new byte[ImageTypeSniffer.HEADER_LENGTH];
+            int headerLength = 0;
+            String contentType = null;
+            long size = 0;
+
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxSizeBytes) {
+                        throw new FileUploadException(String.format(
+                                "Plik jest za duży. Maksymalnie: %.1f MB", maxSizeBytes / 1024.0 / 1024.0));
+                    }
+                    if (contentType == null) {
+                        int copied = Math.min(read, header.length - headerLength);
+                        System.arraycopy(buffer, 0, header, headerLength, copied);
+                        headerLength += copied;
+                        // odrzucamy zanim zapiszemy resztę pliku
+                        if (headerLength == header.length) {
+                            contentType = detectOrReject(header, headerLength);
+                        }
+                    }
+                    digest.update(buffer, 0, read);
+                    output.write(buffer, 0, read);
+                }
+            }
+
+            if (size == 0) {
+                throw new FileUploadException("Plik jest pusty");
+            }
+            if (contentType == null) {
+                contentType = detectOrReject(header, headerLength);
+            }
+
+            // nazwa z hasha treści: ten sam plik wgrany ponownie trafia w istniejący blob
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            String fileName = sha256 + ImageTypeSniffer.extension(contentType);
+            storage.store(fileName, temp, contentType);
+            return new StoredImageFile(fileName, contentType, size, sha256);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String detectOrReject(byte[] header, int length) {
+        return ImageTypeSniffer.detect(header, length)
+                .orElseThrow(() -> new FileUploadException(
+                        "Nieprawidłowy typ pliku. Dozwolone: JPEG, PNG, WebP, GIF"));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Brak algorytmu SHA-256", e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.realestate.propertylistings.property;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * CSV (RFC 4180) z nagłówkiem; nazwy kolumn zgodne z importem CSV.
+ */
+public class CsvPropertyExportWriter implements PropertyExportWriter {
+
+    static final String HEADER = "id,title,description,price,area_sqm,room_count,bathroom_count,floor_number,"
+            + "transaction_type,city,street,postal_code,is_active,owner_id,created_at,updated_at";
+
+    private final Writer writer;
+
+    public CsvPropertyExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(PropertyExportRow row) throws IOException {
+        writer.write(Objects.toString(row.id(), ""));
+        field(row.title());
+        field(row.description());
+        field(row.price() != null ? row.price().toPlainString() : null);
+        field(row.areaSqm());
+        field(row.roomCount());
+        field(row.bathroomCount());
+        field(row.floorNumber());
+        field(row.transactionType());
+        field(row.city());
+        field(row.street());
+        field(row.postalCode());
+        field(row.isActive());
+        field(row.ownerId());
+        field(row.createdAt());
+        field(row.updatedAt());
+        writer.write("\r\n");
+    }
+
+    private void field(Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (needsQuoting(text)) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+
+    private static boolean needsQuoting(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == ',' || ch == '"' || ch == '\n' || ch == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // strumień odpowiedzi zamyka kontener
+        writer.flush();
+    }
+}
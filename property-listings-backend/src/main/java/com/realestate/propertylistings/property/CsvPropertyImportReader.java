@@ -0,0 +1,170 @@
+package com.realestate.propertylistings.property;
+
+import com.realestate.propertylistings.dto.CreatePropertyRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * CSV (RFC 4180) z nagłówkiem z nazwami pól CreatePropertyRequest. Separator ',' albo ';'
+ * (eksport z polskiego Excela) wykrywany z nagłówka; pola w cudzysłowach mogą zawierać separator
+ * i znaki nowej linii. Liczby przyjmują też przecinek dziesiętny.
+ */
+public class CsvPropertyImportReader implements PropertyImportReader {
+
+    private static final int MAX_HEADER_LENGTH = 64 * 1024;
+
+    // nazwy kolumn bez wielkości liter, podkreśleń i spacji
+    private static final Map<String, BiConsumer<CreatePropertyRequest, String>> COLUMNS = Map.ofEntries(
+            Map.entry("title", CreatePropertyRequest::setTitle),
+            Map.entry("description", CreatePropertyRequest::setDescription),
+            Map.entry("price", (request, value) -> request.setPrice(decimal(value))),
+            Map.entry("areasqm", (request, value) -> request.setAreaSqm(decimal(value).doubleValue())),
+            Map.entry("area", (request, value) -> request.setAreaSqm(decimal(value).doubleValue())),
+            Map.entry("roomcount", (request, value) -> request.setRoomCount(Integer.valueOf(value))),
+            Map.entry("rooms", (request, value) -> request.setRoomCount(Integer.valueOf(value))),
+            Map.entry("floornumber", (request, value) -> request.setFloorNumber(Integer.valueOf(value))),
+            Map.entry("floor", (request, value) -> request.setFloorNumber(Integer.valueOf(value))),
+            Map.entry("transactiontype", (request, value) ->
+                    request.setTransactionType(TransactionType.valueOf(value.toUpperCase(Locale.ROOT)))),
+            Map.entry("type", (request, value) ->
+                    request.setTransactionType(TransactionType.valueOf(value.toUpperCase(Locale.ROOT)))),
+            Map.entry("city", CreatePropertyRequest::setCity),
+            Map.entry("street", CreatePropertyRequest::setStreet),
+            Map.entry("postalcode", CreatePropertyRequest::setPostalCode),
+            Map.entry("ownerid", (request, value) -> request.setOwnerId(Long.valueOf(value)))
+    );
+
+    private final BufferedReader reader;
+    private final char separator;
+    private final List<String> header;
+    private final List<BiConsumer<CreatePropertyRequest, String>> setters = new ArrayList<>();
+    private long line = 1;
+
+    public CsvPropertyImportReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        this.separator = detectSeparator(reader);
+        List<String> columns = readRecord();
+        if (columns == null) {
+            throw new IllegalArgumentException("Plik CSV jest pusty - wymagany wiersz nagłówka");
+        }
+        if (!columns.isEmpty() && columns.get(0).startsWith("\uFEFF")) {
+            columns.set(0, columns.get(0).substring(1));
+        }
+        this.header = columns;
+        for (String column : columns) {
+            BiConsumer<CreatePropertyRequest, String> setter =
+                    COLUMNS.get(column.trim().toLowerCase(Locale.ROOT).replace("_", "").replace(" ", ""));
+            if (setter == null) {
+                throw new IllegalArgumentException("Nieznana kolumna CSV: " + column);
+            }
+            setters.add(setter);
+        }
+    }
+
+    @Override
+    public PropertyImportRow next() throws IOException {
+        List<String> values;
+        long startLine;
+        do {
+            startLine = line;
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isBlank());
+
+        if (values.size() != header.size()) {
+            return PropertyImportRow.failed(startLine,
+                    "Wiersz ma " + values.size() + " kolumn, nagłówek " + header.size());
+        }
+        CreatePropertyRequest request = new CreatePropertyRequest();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            try {
+                setters.get(i).accept(request, value);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                return PropertyImportRow.failed(startLine,
+                        header.get(i).trim() + ": nieprawidłowa wartość '" + value + "'");
+            }
+        }
+        return PropertyImportRow.parsed(startLine, request);
+    }
+
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean readAnything = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            readAnything = true;
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    if (ch == '\n') {
+                        line++;
+                    }
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (ch == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+        }
+        if (!readAnything) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static char detectSeparator(BufferedReader reader) throws IOException {
+        reader.mark(MAX_HEADER_LENGTH);
+        String headerLine = reader.readLine();
+        reader.reset();
+        if (headerLine == null) {
+            return ',';
+        }
+        long semicolons = headerLine.chars().filter(ch -> ch == ';').count();
+        long commas = headerLine.chars().filter(ch -> ch == ',').count();
+        return semicolons > commas ? ';' : ',';
+    }
+
+    private static BigDecimal decimal(String value) {
+        return new BigDecimal(value.replace(',', '.').replace(" ", ""));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
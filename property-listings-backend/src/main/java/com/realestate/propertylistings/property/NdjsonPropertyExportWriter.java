@@ -0,0 +1,74 @@
+package com.realestate.propertylistings.property;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Jeden obiekt JSON na linię, pola pisane bezpośrednio generatorem - bez pośrednich DTO i refleksji.
+ */
+public class NdjsonPropertyExportWriter implements PropertyExportWriter {
+
+    private final JsonGenerator generator;
+
+    public NdjsonPropertyExportWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public void write(PropertyExportRow row) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.id());
+        generator.writeStringField("title", row.title());
+        generator.writeStringField("description", row.description());
+        if (row.price() != null) {
+            generator.writeNumberField("price", row.price());
+        } else {
+            generator.writeNullField("price");
+        }
+        writeNumber("areaSqm", row.areaSqm());
+        writeNumber("roomCount", row.roomCount());
+        writeNumber("bathroomCount", row.bathroomCount());
+        writeNumber("floorNumber", row.floorNumber());
+        generator.writeStringField("transactionType",
+                row.transactionType() != null ? row.transactionType().name() : null);
+        generator.writeStringField("city", row.city());
+        generator.writeStringField("street", row.street());
+        generator.writeStringField("postalCode", row.postalCode());
+        generator.writeFieldName("isActive");
+        if (row.isActive() != null) {
+            generator.writeBoolean(row.isActive());
+        } else {
+            generator.writeNull();
+        }
+        writeNumber("ownerId", row.ownerId());
+        writeDateTime("createdAt", row.createdAt());
+        writeDateTime("updatedAt", row.updatedAt());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private void writeNumber(String field, Number value) throws IOException {
+        generator.writeFieldName(field);
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Double doubleValue) {
+            generator.writeNumber(doubleValue);
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+
+    private void writeDateTime(String field, LocalDateTime value) throws IOException {
+        generator.writeStringField(field, value != null ? value.toString() : null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,47 @@
+package com.realestate.propertylistings.property;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.realestate.propertylistings.dto.CreatePropertyRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Jeden obiekt CreatePropertyRequest w JSON na linię; puste linie są pomijane.
+ */
+public class NdjsonPropertyImportReader implements PropertyImportReader {
+
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private long line;
+
+    public NdjsonPropertyImportReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectReader = objectMapper.readerFor(CreatePropertyRequest.class);
+    }
+
+    @Override
+    public PropertyImportRow next() throws IOException {
+        String json;
+        do {
+            json = reader.readLine();
+            if (json == null) {
+                return null;
+            }
+            line++;
+        } while (json.isBlank());
+
+        try {
+            return PropertyImportRow.parsed(line, objectReader.readValue(json));
+        } catch (JsonProcessingException e) {
+            return PropertyImportRow.failed(line, "Nieprawidłowy JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
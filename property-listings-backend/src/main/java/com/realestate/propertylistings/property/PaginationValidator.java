@@ -1,7 +1,11 @@
 package com.realestate.propertylistings.property;
 
+import com.realestate.propertylistings.search.SearchSort;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 @Component
 public class PaginationValidator {
     private static final int MAX_PAGE_SIZE = 50;
@@ -49,4 +53,66 @@ public class PaginationValidator {
             default -> "createdAt";
         };
     }
+
+    // lista pól rozdzielona przecinkami; id jest zawsze dołączane
+    public Set<PropertyField> validateFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            throw new IllegalArgumentException("Parametr fields nie może być pusty");
+        }
+
+        Set<PropertyField> validated = EnumSet.of(PropertyField.ID);
+        for (String field : fields.split(",")) {
+            if (field.isBlank()) {
+                continue;
+            }
+            validated.add(switch (field.trim().toLowerCase()) {
+                case "id" -> PropertyField.ID;
+                case "title" -> PropertyField.TITLE;
+                case "description" -> PropertyField.DESCRIPTION;
+                case "price" -> PropertyField.PRICE;
+                case "type", "transactiontype", "transaction_type" -> PropertyField.TYPE;
+                case "city" -> PropertyField.CITY;
+                case "address" -> PropertyField.ADDRESS;
+                case "area", "areasqm" -> PropertyField.AREA;
+                case "rooms", "roomcount" -> PropertyField.ROOMS;
+                case "bathrooms", "bathroomcount" -> PropertyField.BATHROOMS;
+                case "floor", "floornumber" -> PropertyField.FLOOR;
+                case "isactive", "is_active", "active" -> PropertyField.IS_ACTIVE;
+                case "createdat", "created_at" -> PropertyField.CREATED_AT;
+                case "updatedat", "updated_at" -> PropertyField.UPDATED_AT;
+                case "owner" -> PropertyField.OWNER;
+                case "imageurls", "image_urls" -> PropertyField.IMAGE_URLS;
+                case "images" -> PropertyField.IMAGES;
+                default -> throw new IllegalArgumentException("Nieobsługiwane pole: " + field.trim());
+            });
+        }
+        return validated;
+    }
+
+    public String validateCursorSortField(String sortBy) {
+        String field = validateSortField(sortBy);
+        return switch (field) {
+            case "price", "createdAt", "updatedAt", "title" -> field;
+            default -> "createdAt";
+        };
+    }
+
+    public TotalMode validateTotalMode(String totalMode) {
+        if (totalMode == null) {
+            return TotalMode.EXACT;
+        }
+
+        return switch (totalMode.toLowerCase()) {
+            case "estimate" -> TotalMode.ESTIMATE;
+            case "none" -> TotalMode.NONE;
+            default -> TotalMode.EXACT;
+        };
+    }
+
+    public SearchSort validateSearchSort(String sortBy) {
+        if (sortBy != null && sortBy.equalsIgnoreCase("relevance")) {
+            return SearchSort.RELEVANCE;
+        }
+        return SearchSort.NEWEST;
+    }
 }
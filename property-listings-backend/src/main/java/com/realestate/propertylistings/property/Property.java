@@ -6,6 +6,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -13,6 +16,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(PropertyCacheInvalidator.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "properties",
         indexes = {
                 @Index(name = "idx_city", columnList = "city"),
@@ -29,8 +35,10 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Property {
+    // sekwencja z pulą 50 zamiast IDENTITY - Hibernate może wtedy łączyć inserty w batche JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "property_seq")
+    @SequenceGenerator(name = "property_seq", sequenceName = "properties_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 200)
@@ -65,13 +73,23 @@ public class Property {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // zdjęcia nie są kolumnami ogłoszenia, a zmieniają jego odpowiedź - licznik zmienia ETag i updatedAt
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long imageRevision = 0L;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User owner;
 
     @OneToMany(mappedBy = "property", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<PropertyImage> images = new ArrayList<>();
 
+    public void markImagesChanged() {
+        imageRevision = imageRevision == null ? 1L : imageRevision + 1;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,147 @@
+package com.realestate.propertylistings.property;
+
+import com.realestate.propertylistings.image.PropertyImage;
+import com.realestate.propertylistings.user.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listener encji Property, PropertyImage i User - każda zmiana, która trafia
+ * do PropertyResponse, usuwa wpis z "propertyCache" i unieważnia listy
+ * w PropertyQueryCache niezależnie od ścieżki zapisu.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PropertyCacheInvalidator {
+
+    static final String CACHE_NAME = "propertyCache";
+
+    // opcjonalny: kontekst bez cache (np. testy repozytoriów) nie może blokować tworzenia encji
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final ObjectProvider<PropertyQueryCache> queryCache;
+
+    // nowy użytkownik (rejestracja) nie ma jeszcze ogłoszeń w żadnym cache
+    @PostPersist
+    public void onEntityCreated(Object entity) {
+        if (!(entity instanceof User)) {
+            onEntityChanged(entity);
+        }
+    }
+
+    // rehash hasła przy logowaniu, zmiana roli czy blokada konta nie trafiają do OwnerInfo
+    @PostUpdate
+    public void onEntityUpdated(Object entity) {
+        if (entity instanceof User user && !user.ownerInfoChanged()) {
+            return;
+        }
+        onEntityChanged(entity);
+    }
+
+    @PostRemove
+    public void onEntityChanged(Object entity) {
+        if (entity instanceof Property property) {
+            evictProperty(property.getId());
+            invalidateLists(property.getCity());
+        } else if (entity instanceof PropertyImage image && image.getProperty() != null) {
+            evictProperty(image.getProperty().getId());
+            // nie inicjalizujemy proxy w trakcie flush - bez znanego miasta unieważniamy wszystkie listy
+            Property property = image.getProperty();
+            if (Hibernate.isInitialized(property)) {
+                invalidateLists(property.getCity());
+            } else {
+                invalidateAllLists();
+            }
+        } else if (entity instanceof User user) {
+            evictOwner(user.getId());
+            invalidateAllLists();
+        }
+    }
+
+    private void invalidateLists(String city) {
+        PropertyQueryCache cache = queryCache.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+        cache.invalidateCity(city);
+        afterCommit(() -> cache.invalidateCity(city));
+    }
+
+    private void invalidateAllLists() {
+        PropertyQueryCache cache = queryCache.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+        cache.invalidateAll();
+        afterCommit(cache::invalidateAll);
+    }
+
+    // drugie usunięcie po commicie: odczyt współbieżny z transakcją mógł w międzyczasie wstawić starą wersję
+    private void evictProperty(Long propertyId) {
+        Cache cache = detailCache();
+        if (cache == null || propertyId == null) {
+            return;
+        }
+        cache.evict(propertyId);
+        afterCommit(() -> cache.evict(propertyId));
+    }
+
+    // dane właściciela (email, telefon) są wbudowane w każde jego ogłoszenie
+    private void evictOwner(Long ownerId) {
+        Cache cache = detailCache();
+        if (cache == null || ownerId == null) {
+            return;
+        }
+        evictOwnedBy(cache, ownerId);
+        afterCommit(() -> evictOwnedBy(cache, ownerId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evictOwnedBy(Cache cache, Long ownerId) {
+        if (!(cache.getNativeCache() instanceof javax.cache.Cache<?, ?> nativeCache)) {
+            cache.clear();
+            return;
+        }
+
+        List<Object> keys = new ArrayList<>();
+        for (javax.cache.Cache.Entry<?, ?> entry : (javax.cache.Cache<Object, Object>) nativeCache) {
+            if (entry.getValue() instanceof PropertyResponse response
+                    && response.getOwner() != null
+                    && ownerId.equals(response.getOwner().getId())) {
+                keys.add(entry.getKey());
+            }
+        }
+        keys.forEach(cache::evict);
+        log.debug("Usunięto z cache {} ogłoszeń właściciela id={}", keys.size(), ownerId);
+    }
+
+    private Cache detailCache() {
+        CacheManager manager = cacheManager.getIfAvailable();
+        return manager == null ? null : manager.getCache(CACHE_NAME);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.realestate.propertylistings.property;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertyCardResponse {
+    private Long id;
+    private String title;
+    private BigDecimal price;
+    private TransactionType type;
+    private String city;
+    private Double area;
+    private Integer rooms;
+    private LocalDateTime createdAt;
+    private String ownerName;
+    private String imageUrl;
+}
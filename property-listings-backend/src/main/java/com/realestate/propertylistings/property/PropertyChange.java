@@ -0,0 +1,40 @@
+package com.realestate.propertylistings.property;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Wpis dziennika zmian ogłoszeń zapisywany w tej samej transakcji co zmiana. Przy usunięciu ogłoszenia
+ * zostaje jako tombstone, dlatego propertyId nie jest kluczem obcym.
+ * Id z puli sekwencji - przy kilku instancjach kolejność id nie odpowiada kolejności zatwierdzenia,
+ * dlatego feed porządkuje po (changedAt, id), a changedAt jest ustawiane tuż przed commitem.
+ */
+@Entity
+@Table(name = "property_changes",
+        indexes = @Index(name = "idx_property_changes_changed_at", columnList = "changed_at, id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertyChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "property_change_seq")
+    @SequenceGenerator(name = "property_change_seq", sequenceName = "property_changes_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long propertyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PropertyChangeType changeType;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,138 @@
+package com.realestate.propertylistings.property;
+
+import com.realestate.propertylistings.dto.PropertyChangesResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feed zmian ogłoszeń dla partnerów i warstwy ISR: zamiast crawlować cały katalog, klient pobiera
+ * wpisy zapisane po wpisie wskazanym kursorem (since = changeId ostatnio widzianego wpisu),
+ * w kolejności (changedAt, id).
+ * changedAt jest ustawiane w beforeCommit, już po flushu zmian ogłoszenia - do commitu zostaje tylko
+ * INSERT wpisów i sam COMMIT. Wpisy młodsze niż settle-delay nie są jeszcze zwracane: settle-delay musi
+ * przekraczać ten odcinek i rozjazd zegarów instancji, inaczej kursor przeskoczyłby na zawsze
+ * transakcję zatwierdzoną z wcześniejszym changedAt.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PropertyChangeFeed {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final PropertyChangeRepository changeRepository;
+
+    @Value("${app.properties.changes.settle-delay:PT5S}")
+    private Duration settleDelay = Duration.ofSeconds(5);
+
+    @Value("${app.properties.changes.retention:P30D}")
+    private Duration retention = Duration.ofDays(30);
+
+    // w transakcji zmiany - wpis i zmiana zatwierdzają się albo wycofują razem
+    @EventListener
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        PropertyChange change = PropertyChange.builder()
+                .propertyId(event.propertyId())
+                .changeType(typeOf(event))
+                .build();
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.setChangedAt(LocalDateTime.now());
+            changeRepository.save(change);
+            return;
+        }
+        pendingChanges().add(change);
+    }
+
+    // wpisy transakcji zapisywane razem przed commitem - jeden batch INSERT zamiast wpisu na zdarzenie
+    @SuppressWarnings("unchecked")
+    private List<PropertyChange> pendingChanges() {
+        List<PropertyChange> pending = (List<PropertyChange>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        List<PropertyChange> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // czekanie na blokady wierszy ogłoszeń przypada na ten flush, jeszcze przed ustaleniem changedAt
+                changeRepository.flush();
+                LocalDateTime changedAt = LocalDateTime.now();
+                created.forEach(change -> change.setChangedAt(changedAt));
+                changeRepository.saveAllAndFlush(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PropertyChangeFeed.this);
+            }
+        });
+        return created;
+    }
+
+    @Transactional(readOnly = true)
+    public PropertyChangesResponse getChanges(long since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        LocalDateTime settledBefore = LocalDateTime.now().minus(settleDelay);
+
+        // wpis kursora usunięty przez retencję - zmiany między nim a najstarszym zachowanym przepadły
+        PropertyChange cursor = since > 0 ? changeRepository.findById(since).orElse(null) : null;
+        boolean resyncRequired = since > 0 && cursor == null;
+
+        List<PropertyChange> changes = cursor == null
+                ? changeRepository.findByChangedAtBeforeOrderByChangedAtAscIdAsc(settledBefore, Limit.of(pageSize + 1))
+                : changeRepository.findSettledAfter(cursor.getChangedAt(), cursor.getId(), settledBefore,
+                        Limit.of(pageSize + 1));
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = changes.subList(0, pageSize);
+        }
+
+        return PropertyChangesResponse.builder()
+                .changes(changes.stream()
+                        .map(change -> PropertyChangesResponse.Item.builder()
+                                .changeId(change.getId())
+                                .propertyId(change.getPropertyId())
+                                .type(change.getChangeType())
+                                .changedAt(change.getChangedAt())
+                                .build())
+                        .toList())
+                .nextCursor(changes.isEmpty() ? since : changes.get(changes.size() - 1).getId())
+                .hasMore(hasMore)
+                .resyncRequired(resyncRequired)
+                .build();
+    }
+
+    @Scheduled(cron = "${app.properties.changes.prune-cron:0 30 3 * * *}")
+    @Transactional
+    public void pruneExpired() {
+        int deleted = changeRepository.deleteOlderThan(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Usunięto {} wpisów dziennika zmian starszych niż {}", deleted, retention);
+        }
+    }
+
+    private static PropertyChangeType typeOf(PropertyChangedEvent event) {
+        return switch (event.changeType()) {
+            case CREATED -> PropertyChangeType.CREATED;
+            case DELETED -> PropertyChangeType.DELETED;
+            case UPDATED -> Boolean.FALSE.equals(event.property().getIsActive())
+                    ? PropertyChangeType.DEACTIVATED
+                    : PropertyChangeType.UPDATED;
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.realestate.propertylistings.property;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PropertyChangeRepository extends JpaRepository<PropertyChange, Long> {
+
+    // keyset po (changedAt, id) - koszt strony nie zależy od tego, jak daleko jest kursor
+    List<PropertyChange> findByChangedAtBeforeOrderByChangedAtAscIdAsc(LocalDateTime settledBefore, Limit limit);
+
+    @Query("""
+            SELECT c FROM PropertyChange c
+            WHERE (c.changedAt > :afterChangedAt OR (c.changedAt = :afterChangedAt AND c.id > :afterId))
+              AND c.changedAt < :settledBefore
+            ORDER BY c.changedAt, c.id
+            """)
+    List<PropertyChange> findSettledAfter(@Param("afterChangedAt") LocalDateTime afterChangedAt,
+                                          @Param("afterId") Long afterId,
+                                          @Param("settledBefore") LocalDateTime settledBefore,
+                                          Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM PropertyChange c WHERE c.changedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,8 @@
+package com.realestate.propertylistings.property;
+
+public enum PropertyChangeType {
+    CREATED,
+    UPDATED,
+    DEACTIVATED,
+    DELETED
+}
@@ -0,0 +1,31 @@
+package com.realestate.propertylistings.property;
+
+public record PropertyChangedEvent(Property property, ChangeType changeType, String previousCity) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static PropertyChangedEvent created(Property property) {
+        return new PropertyChangedEvent(property, ChangeType.CREATED, property.getCity());
+    }
+
+    public static PropertyChangedEvent updated(Property property, String previousCity) {
+        return new PropertyChangedEvent(property, ChangeType.UPDATED, previousCity);
+    }
+
+    // zdjęcia podbijają imageRevision i updatedAt ogłoszenia - indeksy w pamięci też muszą to zobaczyć
+    public static PropertyChangedEvent imagesChanged(Property property) {
+        return updated(property, property.getCity());
+    }
+
+    public static PropertyChangedEvent deleted(Property property) {
+        return new PropertyChangedEvent(property, ChangeType.DELETED, property.getCity());
+    }
+
+    public Long propertyId() {
+        return property.getId();
+    }
+}
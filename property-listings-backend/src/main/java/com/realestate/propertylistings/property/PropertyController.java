@@ -1,18 +1,39 @@
 package com.realestate.propertylistings.property;
 
 import com.realestate.propertylistings.dto.CreatePropertyRequest;
+import com.realestate.propertylistings.dto.CursorPagedResponse;
 import com.realestate.propertylistings.dto.PagedResponse;
+import com.realestate.propertylistings.dto.PropertyChangesResponse;
+import com.realestate.propertylistings.dto.PropertyImportResponse;
 import com.realestate.propertylistings.dto.UpdatePropertyRequest;
+import com.realestate.propertylistings.facet.PropertyFacetService;
+import com.realestate.propertylistings.facet.PropertyFacetsResponse;
+import com.realestate.propertylistings.exception.FileUploadException;
 import com.realestate.propertylistings.user.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/properties")
@@ -20,24 +41,139 @@ import java.math.BigDecimal;
 public class PropertyController {
 
     private final PropertyService propertyService;
+    private final PaginationValidator paginationValidator;
+    private final PropertyFacetService facetService;
+    private final PropertyImportService importService;
+    private final PropertyExportService exportService;
+    private final PropertyChangeFeed changeFeed;
+    private final PropertyResponseByteCache responseCache;
 
     @GetMapping
     public ResponseEntity<PagedResponse<PropertyResponse>> getAllProperties(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String direction,
+            @RequestParam(defaultValue = "exact") String totalMode,
+            ServletWebRequest webRequest
+    ) {
+        return conditionalList(webRequest, propertyService.getListVersion(null), () ->
+                propertyService.getAllProperties(
+                        page, size, sortBy, direction, paginationValidator.validateTotalMode(totalMode)
+                ));
+    }
+
+    // ?fields=id,title,price: SELECT tylko żądanych kolumn, w JSON tylko żądane klucze
+    @GetMapping(params = {"fields", "!after"})
+    public ResponseEntity<PagedResponse<Map<String, Object>>> getAllPropertyFields(
+            @RequestParam String fields,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String direction,
+            @RequestParam(defaultValue = "exact") String totalMode,
+            ServletWebRequest webRequest
+    ) {
+        Set<PropertyField> validatedFields = paginationValidator.validateFields(fields);
+        return conditionalList(webRequest, propertyService.getListVersion(null), () ->
+                propertyService.getAllPropertyFields(
+                        page, size, sortBy, direction, paginationValidator.validateTotalMode(totalMode),
+                        validatedFields
+                ));
+    }
+
+    @GetMapping(params = "after")
+    public ResponseEntity<CursorPagedResponse<PropertyResponse>> getAllPropertiesAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "DESC") String direction
     ) {
-        PagedResponse<PropertyResponse> response = propertyService.getAllProperties(
-                page, size, sortBy, direction
+        CursorPagedResponse<PropertyResponse> response = propertyService.getAllPropertiesAfter(
+                after, size, sortBy, direction
         );
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cards")
+    public ResponseEntity<PagedResponse<PropertyCardResponse>> getPropertyCards(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String direction,
+            @RequestParam(defaultValue = "exact") String totalMode,
+            ServletWebRequest webRequest
+    ) throws IOException {
+        return conditionalCards(webRequest, propertyService.getListVersion(null), () ->
+                propertyService.getPropertyCards(
+                        page, size, sortBy, direction, paginationValidator.validateTotalMode(totalMode)
+                ));
+    }
+
+    @GetMapping("/cards/city/{city}")
+    public ResponseEntity<PagedResponse<PropertyCardResponse>> getPropertyCardsByCity(
+            @PathVariable String city,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest webRequest
+    ) throws IOException {
+        return conditionalCards(webRequest, propertyService.getCityListVersion(city), () ->
+                propertyService.getPropertyCardsByCity(city, page, size));
+    }
+
+    @GetMapping("/cards/user/{userId}")
+    public ResponseEntity<PagedResponse<PropertyCardResponse>> getUserPropertyCards(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest webRequest
+    ) throws IOException {
+        return conditionalCards(webRequest, propertyService.getOwnerListVersion(userId), () ->
+                propertyService.getUserPropertyCards(userId, page, size));
+    }
+
+    @GetMapping("/cards/my")
+    public ResponseEntity<PagedResponse<PropertyCardResponse>> getMyPropertyCards(
+            @AuthenticationPrincipal User currentUser,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest webRequest
+    ) throws IOException {
+        // ten sam URL dla każdego użytkownika - id właściciela musi wejść do ETag i klucza bajtów
+        Long ownerId = currentUser.getId();
+        return conditionalCards(webRequest, requestKey(webRequest) + "&owner=" + ownerId,
+                propertyService.getOwnerListVersion(ownerId), () ->
+                        propertyService.getUserPropertyCards(ownerId, page, size));
+    }
+
+    @GetMapping("/cards/filter")
+    public ResponseEntity<PagedResponse<PropertyCardResponse>> filterPropertyCards(
+            @ModelAttribute PropertyFilterRequest filters,
+            @RequestParam(defaultValue = "exact") String totalMode,
+            ServletWebRequest webRequest
+    ) throws IOException {
+        return conditionalCards(webRequest, propertyService.getListVersion(filters), () ->
+                propertyService.filterPropertyCards(filters, paginationValidator.validateTotalMode(totalMode)));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<PropertyResponse> getPropertyById(@PathVariable Long id) {
-        PropertyResponse response = propertyService.getPropertyByIdOptimized(id);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<PropertyResponse> getPropertyById(@PathVariable Long id, ServletWebRequest webRequest)
+            throws IOException {
+        PropertyVersion version = propertyService.getPropertyVersion(id);
+        return conditionalEncoded(webRequest, "detail:" + id + ":" + version.eTag(),
+                version.eTag(), version.lastModified(), () -> propertyService.getPropertyByIdOptimized(id));
+    }
+
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getPropertyFieldsById(
+            @PathVariable Long id,
+            @RequestParam String fields,
+            ServletWebRequest webRequest
+    ) {
+        Set<PropertyField> validatedFields = paginationValidator.validateFields(fields);
+        PropertyVersion version = propertyService.getPropertyVersion(id);
+        return conditional(webRequest, version.eTag(validatedFields.toString()), version.lastModified(),
+                () -> propertyService.getPropertyFields(id, validatedFields));
     }
 
     @PostMapping
@@ -49,6 +185,22 @@ public class PropertyController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<PropertyImportResponse> importProperties(
+            HttpServletRequest request,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        PropertyImportFormat format = PropertyImportFormat.fromContentType(request.getContentType());
+        try {
+            // ciało czytane strumieniowo - plik z 100k wierszy nie jest buforowany w pamięci
+            BufferedReader body = new BufferedReader(
+                    new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8), 64 * 1024);
+            return ResponseEntity.ok(importService.importProperties(body, format, currentUser));
+        } catch (IOException e) {
+            throw new FileUploadException("Nie udało się odczytać pliku importu", e);
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<PropertyResponse> updateProperty(
             @PathVariable Long id,
@@ -74,22 +226,43 @@ public class PropertyController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "DESC") String direction
+            @RequestParam(defaultValue = "DESC") String direction,
+            @RequestParam(defaultValue = "exact") String totalMode
     ) {
         PagedResponse<PropertyResponse> response = propertyService.getPropertiesWithFilters(
-                filters, page, size, sortBy, direction
+                filters, page, size, sortBy, direction, paginationValidator.validateTotalMode(totalMode)
         );
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping(value = "/search", params = "after")
+    public ResponseEntity<CursorPagedResponse<PropertyResponse>> searchPropertiesWithFiltersAfter(
+            @RequestBody PropertyFilterRequest filters,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String direction
+    ) {
+        CursorPagedResponse<PropertyResponse> response = propertyService.getPropertiesWithFiltersAfter(
+                filters, after, size, sortBy, direction
+        );
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/facets")
+    public ResponseEntity<PropertyFacetsResponse> getFacets(@RequestBody PropertyFilterRequest filters) {
+        return ResponseEntity.ok(facetService.getFacets(filters));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<PagedResponse<PropertyResponse>> searchProperties(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy
     ) {
         PagedResponse<PropertyResponse> response = propertyService.searchProperties(
-                q, page, size
+                q, page, size, sortBy
         );
         return ResponseEntity.ok(response);
     }
@@ -98,10 +271,34 @@ public class PropertyController {
     public ResponseEntity<PagedResponse<PropertyResponse>> getPropertiesByCity(
             @PathVariable String city,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest webRequest
+    ) {
+        return conditionalList(webRequest, propertyService.getCityListVersion(city), () ->
+                propertyService.getPropertiesByCity(city, page, size));
+    }
+
+    @GetMapping(value = "/city/{city}", params = {"fields", "!after"})
+    public ResponseEntity<PagedResponse<Map<String, Object>>> getPropertyFieldsByCity(
+            @PathVariable String city,
+            @RequestParam String fields,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest webRequest
+    ) {
+        Set<PropertyField> validatedFields = paginationValidator.validateFields(fields);
+        return conditionalList(webRequest, propertyService.getCityListVersion(city), () ->
+                propertyService.getPropertyFieldsByCity(city, page, size, validatedFields));
+    }
+
+    @GetMapping(value = "/city/{city}", params = "after")
+    public ResponseEntity<CursorPagedResponse<PropertyResponse>> getPropertiesByCityAfter(
+            @PathVariable String city,
+            @RequestParam String after,
             @RequestParam(defaultValue = "20") int size
     ) {
-        PagedResponse<PropertyResponse> response = propertyService.getPropertiesByCity(
-                city, page, size
+        CursorPagedResponse<PropertyResponse> response = propertyService.getPropertiesByCityAfter(
+                city, after, size
         );
         return ResponseEntity.ok(response);
     }
@@ -118,20 +315,56 @@ public class PropertyController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/my", params = "after")
+    public ResponseEntity<CursorPagedResponse<PropertyResponse>> getMyPropertiesAfter(
+            @AuthenticationPrincipal User currentUser,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        CursorPagedResponse<PropertyResponse> response = propertyService.getMyPropertiesAfter(
+                currentUser, after, size
+        );
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<PagedResponse<PropertyResponse>> getUserProperties(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest webRequest
+    ) {
+        return conditionalList(webRequest, propertyService.getOwnerListVersion(userId), () ->
+                propertyService.getUserProperties(userId, page, size));
+    }
+
+    @GetMapping(value = "/user/{userId}", params = {"fields", "!after"})
+    public ResponseEntity<PagedResponse<Map<String, Object>>> getUserPropertyFields(
+            @PathVariable Long userId,
+            @RequestParam String fields,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest webRequest
+    ) {
+        Set<PropertyField> validatedFields = paginationValidator.validateFields(fields);
+        return conditionalList(webRequest, propertyService.getOwnerListVersion(userId), () ->
+                propertyService.getUserPropertyFields(userId, page, size, validatedFields));
+    }
+
+    @GetMapping(value = "/user/{userId}", params = "after")
+    public ResponseEntity<CursorPagedResponse<PropertyResponse>> getUserPropertiesAfter(
+            @PathVariable Long userId,
+            @RequestParam String after,
             @RequestParam(defaultValue = "20") int size
     ) {
-        PagedResponse<PropertyResponse> response = propertyService.getUserProperties(
-                userId, page, size
+        CursorPagedResponse<PropertyResponse> response = propertyService.getUserPropertiesAfter(
+                userId, after, size
         );
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/filter")
-    public ResponseEntity<Page<PropertyResponse>> filterProperties(
+    public ResponseEntity<PagedResponse<PropertyResponse>> filterProperties(
             @RequestParam(required = false) String city,
             @RequestParam(required = false) TransactionType type,
             @RequestParam(required = false) BigDecimal minPrice,
@@ -151,7 +384,9 @@ public class PropertyController {
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDirection,
             @RequestParam(defaultValue = "0") Integer page,
-            @RequestParam(defaultValue = "20") Integer size
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(defaultValue = "exact") String totalMode,
+            ServletWebRequest webRequest
     ) {
         PropertyFilterRequest filters = new PropertyFilterRequest();
         filters.setCity(city);
@@ -175,6 +410,139 @@ public class PropertyController {
         filters.setPage(page);
         filters.setSize(size);
 
-        return ResponseEntity.ok(propertyService.filterProperties(filters));
+        return conditionalList(webRequest, propertyService.getListVersion(filters), () ->
+                propertyService.filterProperties(filters, paginationValidator.validateTotalMode(totalMode)));
+    }
+
+    // parametry filtrów jak w GET /filter (aliasy minBathrooms/maxBathrooms w PropertyFilterRequest)
+    @GetMapping(value = "/filter", params = {"fields", "!after"})
+    public ResponseEntity<PagedResponse<Map<String, Object>>> filterPropertyFields(
+            @ModelAttribute PropertyFilterRequest filters,
+            @RequestParam String fields,
+            @RequestParam(defaultValue = "exact") String totalMode,
+            ServletWebRequest webRequest
+    ) {
+        Set<PropertyField> validatedFields = paginationValidator.validateFields(fields);
+        return conditionalList(webRequest, propertyService.getListVersion(filters), () ->
+                propertyService.filterPropertyFields(
+                        filters, paginationValidator.validateTotalMode(totalMode), validatedFields));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<PropertyChangesResponse> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        return ResponseEntity.ok(changeFeed.getChanges(since, limit));
+    }
+
+    @GetMapping("/export")
+    public void exportProperties(
+            @ModelAttribute PropertyFilterRequest filters,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        PropertyExportFormat exportFormat = PropertyExportFormat.fromParameter(format);
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        exportService.export(filters, exportFormat, () -> {
+            response.setContentType(exportFormat.contentType());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename("properties." + exportFormat.fileExtension())
+                    .build()
+                    .toString());
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (!gzip) {
+                return response.getOutputStream();
+            }
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+        });
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // pusty parametr "after" rozpoczyna stronicowanie kursorem od pierwszej strony
+    @GetMapping(value = "/filter", params = "after")
+    public ResponseEntity<CursorPagedResponse<PropertyResponse>> filterPropertiesAfter(
+            @ModelAttribute PropertyFilterRequest filters,
+            @RequestParam String after
+    ) {
+        return ResponseEntity.ok(propertyService.filterPropertiesAfter(filters, after));
+    }
+
+    // 304 przed zbudowaniem odpowiedzi: bez zapytania o stronę, mapowania encji i serializacji JSON;
+    // null kończy obsługę żądania ze statusem ustawionym przez checkNotModified
+    private static <T> ResponseEntity<T> conditional(ServletWebRequest webRequest, String eTag, long lastModified,
+                                                     Supplier<T> body) {
+        if (isNotModified(webRequest, eTag, lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok(body.get());
+    }
+
+    // jak conditional, ale gotowe bajty (i gzip) z PropertyResponseByteCache idą prosto do odpowiedzi
+    private <T> ResponseEntity<T> conditionalEncoded(ServletWebRequest webRequest, String cacheKey, String eTag,
+                                                     long lastModified, Supplier<T> body) throws IOException {
+        if (isNotModified(webRequest, eTag, lastModified)) {
+            return null;
+        }
+        PropertyResponseByteCache.EncodedResponse encoded = responseCache.getOrEncode(cacheKey, body);
+        HttpServletResponse response = webRequest.getResponse();
+        byte[] bytes = encoded.json();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoded.gzip() != null && acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            bytes = encoded.gzip();
+        }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+        return null;
+    }
+
+    // bez Last-Modified: usunięcie z listy nie przesuwa maksimum updatedAt, wykrywa je tylko ETag
+    private static <T> ResponseEntity<T> conditionalList(ServletWebRequest webRequest, PropertyListVersion version,
+                                                         Supplier<T> body) {
+        return conditional(webRequest, version.eTag(requestKey(webRequest)), -1, body);
+    }
+
+    private <T> ResponseEntity<T> conditionalCards(ServletWebRequest webRequest, PropertyListVersion version,
+                                                   Supplier<T> body) throws IOException {
+        return conditionalCards(webRequest, requestKey(webRequest), version, body);
+    }
+
+    private <T> ResponseEntity<T> conditionalCards(ServletWebRequest webRequest, String requestKey,
+                                                   PropertyListVersion version, Supplier<T> body) throws IOException {
+        String eTag = version.eTag(requestKey);
+        return conditionalEncoded(webRequest, "cards:" + eTag, eTag, -1, body);
+    }
+
+    private static boolean isNotModified(ServletWebRequest webRequest, String eTag, long lastModified) {
+        // rewalidacja przy każdym użyciu - bez tego przeglądarka cache'owałaby heurystycznie po Last-Modified
+        if (webRequest.getResponse() != null) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+        return webRequest.checkNotModified(eTag, lastModified);
+    }
+
+    // parametry posortowane - kolejność w adresie nie zmienia ETag
+    private static String requestKey(ServletWebRequest webRequest) {
+        StringBuilder requestKey = new StringBuilder(webRequest.getRequest().getRequestURI());
+        new TreeMap<>(webRequest.getParameterMap()).forEach((name, values) ->
+                requestKey.append('&').append(name).append('=').append(String.join(",", values)));
+        return requestKey.toString();
     }
 }
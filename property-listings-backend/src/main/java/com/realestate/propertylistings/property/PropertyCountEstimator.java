@@ -0,0 +1,53 @@
+package com.realestate.propertylistings.property;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+@Component
+@Slf4j
+public class PropertyCountEstimator {
+
+    private final long maxStalenessNanos;
+    private final Map<String, CachedCount> counts;
+
+    public PropertyCountEstimator(
+            @Value("${app.pagination.count-estimate.max-staleness:PT60S}") Duration maxStaleness,
+            @Value("${app.pagination.count-estimate.max-entries:1000}") int maxEntries
+    ) {
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.counts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedCount> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    // zwraca licznik nie starszy niż max-staleness; przy braku lub przeterminowaniu liczy dokładnie i zapamiętuje
+    public long estimate(String key, LongSupplier exactCount) {
+        long now = System.nanoTime();
+        CachedCount cached;
+        synchronized (counts) {
+            cached = counts.get(key);
+        }
+        if (cached != null && now - cached.computedAt() < maxStalenessNanos) {
+            return cached.count();
+        }
+
+        long count = exactCount.getAsLong();
+        log.debug("Odświeżono szacowany licznik: key={}, count={}", key, count);
+        synchronized (counts) {
+            counts.put(key, new CachedCount(count, now));
+        }
+        return count;
+    }
+
+    private record CachedCount(long count, long computedAt) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.realestate.propertylistings.property;
+
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Nieprzezroczysty kursor stronicowania keyset: pole sortowania, kierunek,
+ * wartość klucza sortowania ostatniego wiersza oraz jego id.
+ */
+public record PropertyCursor(String sortBy, Sort.Direction direction, Comparable<?> value, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static PropertyCursor of(Property property, String sortBy, Sort.Direction direction) {
+        return new PropertyCursor(sortBy, direction, sortValue(property, sortBy), property.getId());
+    }
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PropertyCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Nieprawidłowy kursor stronicowania");
+            }
+            String sortBy = parts[0];
+            return new PropertyCursor(
+                    sortBy,
+                    Sort.Direction.valueOf(parts[1]),
+                    parseValue(sortBy, parts[3]),
+                    Long.valueOf(parts[2])
+            );
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Nieprawidłowy kursor stronicowania", e);
+        }
+    }
+
+    public void verifyMatches(String expectedSortBy, Sort.Direction expectedDirection) {
+        if (!sortBy.equals(expectedSortBy) || direction != expectedDirection) {
+            throw new IllegalArgumentException(
+                    "Kursor został wygenerowany dla innego sortowania: " + sortBy + " " + direction);
+        }
+    }
+
+    private static Comparable<?> sortValue(Property property, String sortBy) {
+        return switch (sortBy) {
+            case "price" -> property.getPrice();
+            case "updatedAt" -> property.getUpdatedAt();
+            case "title" -> property.getTitle();
+            default -> property.getCreatedAt();
+        };
+    }
+
+    private static Comparable<?> parseValue(String sortBy, String raw) {
+        return switch (sortBy) {
+            case "price" -> new BigDecimal(raw);
+            case "createdAt", "updatedAt" -> LocalDateTime.parse(raw);
+            case "title" -> raw;
+            default -> throw new IllegalArgumentException("Nieobsługiwane pole kursora: " + sortBy);
+        };
+    }
+}
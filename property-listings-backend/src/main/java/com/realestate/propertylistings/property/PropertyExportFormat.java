@@ -0,0 +1,47 @@
+package com.realestate.propertylistings.property;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+public enum PropertyExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv;charset=UTF-8", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    PropertyExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String fileExtension() {
+        return fileExtension;
+    }
+
+    public static PropertyExportFormat fromParameter(String format) {
+        if (format == null) {
+            return NDJSON;
+        }
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "ndjson", "jsonl", "json" -> NDJSON;
+            case "csv" -> CSV;
+            default -> throw new IllegalArgumentException(
+                    "Nieobsługiwany format eksportu: " + format + ". Dozwolone: ndjson, csv");
+        };
+    }
+
+    public PropertyExportWriter open(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return switch (this) {
+            case NDJSON -> new NdjsonPropertyExportWriter(out, objectMapper);
+            case CSV -> new CsvPropertyExportWriter(out);
+        };
+    }
+}
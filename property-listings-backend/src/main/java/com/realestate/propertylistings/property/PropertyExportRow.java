@@ -0,0 +1,27 @@
+package com.realestate.propertylistings.property;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Płaski wiersz eksportu - same kolumny skalarne, bez encji w kontekście persystencji.
+ */
+public record PropertyExportRow(
+        Long id,
+        String title,
+        String description,
+        BigDecimal price,
+        Double areaSqm,
+        Integer roomCount,
+        Integer bathroomCount,
+        Integer floorNumber,
+        TransactionType transactionType,
+        String city,
+        String street,
+        String postalCode,
+        Boolean isActive,
+        Long ownerId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
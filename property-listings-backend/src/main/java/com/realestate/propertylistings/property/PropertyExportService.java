@@ -0,0 +1,97 @@
+package com.realestate.propertylistings.property;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.propertylistings.exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Eksport całego wyniku filtra jednym zapytaniem z kursorem po stronie serwera zamiast tysięcy stron z OFFSET.
+ * Wiersze płyną z kursora prosto do writera, więc zużycie pamięci nie zależy od liczby wierszy.
+ * Eksport trzyma połączenie z puli przez cały czas trwania - liczba równoległych eksportów jest ograniczona.
+ */
+@Service
+@Slf4j
+public class PropertyExportService {
+
+    private final PropertyRepository propertyRepository;
+    private final PaginationValidator paginationValidator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Semaphore exportSlots;
+
+    @Value("${app.properties.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    /**
+     * Otwiera strumień docelowy dopiero po zajęciu slotu - odrzucony eksport nie zaczyna odpowiedzi.
+     */
+    @FunctionalInterface
+    public interface ExportTarget {
+        OutputStream open() throws IOException;
+    }
+
+    public PropertyExportService(PropertyRepository propertyRepository,
+                                 PaginationValidator paginationValidator,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.properties.export.max-concurrent:2}") int maxConcurrentExports) {
+        this.propertyRepository = propertyRepository;
+        this.paginationValidator = paginationValidator;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.exportSlots = new Semaphore(maxConcurrentExports);
+    }
+
+    public long export(PropertyFilterRequest filters, PropertyExportFormat format, ExportTarget target) throws IOException {
+        if (!exportSlots.tryAcquire()) {
+            throw new TooManyRequestsException("Trwają już inne eksporty. Spróbuj ponownie za chwilę.", 30);
+        }
+        try {
+            long start = System.nanoTime();
+            Sort.Direction direction = Sort.Direction.fromString(
+                    paginationValidator.validateSortDirection(filters.getSortDirection()));
+            // id rozstrzyga remisy, żeby kolejność była stabilna między eksportami
+            Sort sort = Sort.by(direction, paginationValidator.validateSortField(filters.getSortBy()))
+                    .and(Sort.by(direction, "id"));
+
+            Long rows = readOnlyTransaction.execute(status -> {
+                try (Stream<PropertyExportRow> stream = propertyRepository.streamExportRows(
+                        PropertySpecification.withFilters(filters), sort, fetchSize);
+                     OutputStream out = target.open();
+                     PropertyExportWriter writer = format.open(out, objectMapper)) {
+                    long count = 0;
+                    Iterator<PropertyExportRow> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        writer.write(iterator.next());
+                        count++;
+                    }
+                    return count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            log.info("Eksport ogłoszeń ({}) zakończony: wierszy={}, czas={} ms",
+                    format, rows, (System.nanoTime() - start) / 1_000_000);
+            return rows;
+        } catch (UncheckedIOException e) {
+            // najczęściej klient przerwał pobieranie
+            throw e.getCause();
+        } finally {
+            exportSlots.release();
+        }
+    }
+}
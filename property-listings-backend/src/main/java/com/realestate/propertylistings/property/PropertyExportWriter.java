@@ -0,0 +1,12 @@
+package com.realestate.propertylistings.property;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Zapis wierszy eksportu prosto do strumienia odpowiedzi; close() opróżnia bufory writera; strumień zamyka wywołujący.
+ */
+public interface PropertyExportWriter extends Closeable {
+
+    void write(PropertyExportRow row) throws IOException;
+}
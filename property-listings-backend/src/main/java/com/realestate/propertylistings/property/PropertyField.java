@@ -0,0 +1,55 @@
+package com.realestate.propertylistings.property;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Pola PropertyResponse dostępne w parametrze {@code fields} (sparse fieldset) - nazwa w JSON
+ * i odczyt wartości z częściowo wypełnionej odpowiedzi.
+ */
+public enum PropertyField {
+    ID("id", PropertyResponse::getId),
+    TITLE("title", PropertyResponse::getTitle),
+    DESCRIPTION("description", PropertyResponse::getDescription),
+    PRICE("price", PropertyResponse::getPrice),
+    TYPE("type", PropertyResponse::getType),
+    CITY("city", PropertyResponse::getCity),
+    ADDRESS("address", PropertyResponse::getAddress),
+    AREA("area", PropertyResponse::getArea),
+    ROOMS("rooms", PropertyResponse::getRooms),
+    BATHROOMS("bathrooms", PropertyResponse::getBathrooms),
+    FLOOR("floor", PropertyResponse::getFloor),
+    IS_ACTIVE("isActive", PropertyResponse::getIsActive),
+    CREATED_AT("createdAt", PropertyResponse::getCreatedAt),
+    UPDATED_AT("updatedAt", PropertyResponse::getUpdatedAt),
+    OWNER("owner", PropertyResponse::getOwner),
+    IMAGE_URLS("imageUrls", PropertyResponse::getImageUrls),
+    IMAGES("images", PropertyResponse::getImages);
+
+    private final String jsonName;
+    private final Function<PropertyResponse, Object> accessor;
+
+    PropertyField(String jsonName, Function<PropertyResponse, Object> accessor) {
+        this.jsonName = jsonName;
+        this.accessor = accessor;
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    // dokładnie żądane klucze (także z wartością null), w kolejności pól PropertyResponse
+    public static Map<String, Object> project(PropertyResponse response, Set<PropertyField> fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (PropertyField field : fields) {
+            projected.put(field.jsonName, field.accessor.apply(response));
+        }
+        return projected;
+    }
+
+    public static boolean needsImages(Set<PropertyField> fields) {
+        return fields.contains(IMAGE_URLS) || fields.contains(IMAGES);
+    }
+}
@@ -3,6 +3,8 @@ package com.realestate.propertylistings.property;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Objects;
 
 @Data
 public class PropertyFilterRequest {
@@ -26,4 +28,60 @@ public class PropertyFilterRequest {
     private String sortDirection = "DESC";
     private Integer page = 0;
     private Integer size = 20;
+
+    // tekst normalizowany raz przy bindowaniu - klucz cache i Specification widzą te same wartości
+    public void setCity(String city) {
+        this.city = normalize(city);
+    }
+
+    public void setSearch(String search) {
+        this.search = normalize(search);
+    }
+
+    public void setStreet(String street) {
+        this.street = normalize(street);
+    }
+
+    public void setPostalCode(String postalCode) {
+        this.postalCode = postalCode == null || postalCode.isBlank() ? null : postalCode.trim();
+    }
+
+    // aliasy zgodne z parametrami zapytania GET /filter
+    public void setMinBathrooms(Integer minBathrooms) {
+        this.minBathroom = minBathrooms;
+    }
+
+    public void setMaxBathrooms(Integer maxBathrooms) {
+        this.maxBathroom = maxBathrooms;
+    }
+
+    // znormalizowany klucz samych kryteriów (bez stronicowania i sortowania)
+    public String criteriaKey() {
+        return String.join("|",
+                Objects.toString(city, ""),
+                Objects.toString(type, ""),
+                normalize(minPrice),
+                normalize(maxPrice),
+                Objects.toString(minArea, ""),
+                Objects.toString(maxArea, ""),
+                Objects.toString(minRooms, ""),
+                Objects.toString(maxRooms, ""),
+                Objects.toString(search, ""),
+                String.valueOf(Boolean.TRUE.equals(activeOnly)),
+                Objects.toString(minBathroom, ""),
+                Objects.toString(maxBathroom, ""),
+                Objects.toString(minFloor, ""),
+                Objects.toString(maxFloor, ""),
+                Objects.toString(street, ""),
+                Objects.toString(postalCode, "")
+        );
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalize(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
 }
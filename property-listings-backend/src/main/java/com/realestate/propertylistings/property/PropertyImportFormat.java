@@ -0,0 +1,41 @@
+package com.realestate.propertylistings.property;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+public enum PropertyImportFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    PropertyImportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public static PropertyImportFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            String normalized = contentType.toLowerCase();
+            for (PropertyImportFormat format : values()) {
+                if (normalized.startsWith(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Nieobsługiwany format importu: " + contentType
+                + ". Dozwolone: text/csv, application/x-ndjson");
+    }
+
+    public PropertyImportReader open(BufferedReader reader, ObjectMapper objectMapper) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvPropertyImportReader(reader);
+            case NDJSON -> new NdjsonPropertyImportReader(reader, objectMapper);
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.realestate.propertylistings.property;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Strumieniowy odczyt pliku importu wiersz po wierszu - w pamięci jest tylko bieżący wiersz.
+ */
+public interface PropertyImportReader extends Closeable {
+
+    /**
+     * Następny wiersz albo null na końcu pliku.
+     */
+    PropertyImportRow next() throws IOException;
+}
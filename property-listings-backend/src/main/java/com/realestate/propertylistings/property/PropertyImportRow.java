@@ -0,0 +1,17 @@
+package com.realestate.propertylistings.property;
+
+import com.realestate.propertylistings.dto.CreatePropertyRequest;
+
+/**
+ * Wiersz pliku importu: sparsowane żądanie albo błąd parsowania; line to numer linii, od której wiersz się zaczyna.
+ */
+public record PropertyImportRow(long line, CreatePropertyRequest request, String error) {
+
+    static PropertyImportRow parsed(long line, CreatePropertyRequest request) {
+        return new PropertyImportRow(line, request, null);
+    }
+
+    static PropertyImportRow failed(long line, String error) {
+        return new PropertyImportRow(line, null, error);
+    }
+}
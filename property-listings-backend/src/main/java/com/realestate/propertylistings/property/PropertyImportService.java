@@ -0,0 +1,201 @@
+package com.realestate.propertylistings.property;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.propertylistings.dto.CreatePropertyRequest;
+import com.realestate.propertylistings.dto.PropertyImportResponse;
+import com.realestate.propertylistings.exception.FileUploadException;
+import com.realestate.propertylistings.exception.UnauthorizedException;
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Import wsadowy ogłoszeń agencji (CSV / NDJSON). Plik jest czytany strumieniowo, wiersze walidowane
+ * na bieżąco, a poprawne zapisywane porcjami po chunk-size w osobnych transakcjach z batchowaniem JDBC.
+ * Błąd porcji nie przerywa importu - porcja jest powtarzana wiersz po wierszu, żeby wskazać winny wiersz.
+ */
+@Service
+@Slf4j
+public class PropertyImportService {
+
+    private final PropertyMapper propertyMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.properties.import.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${app.properties.import.jdbc-batch-size:500}")
+    private int jdbcBatchSize = 500;
+
+    @Value("${app.properties.import.max-reported-errors:1000}")
+    private int maxReportedErrors = 1000;
+
+    public PropertyImportService(PropertyMapper propertyMapper,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager) {
+        this.propertyMapper = propertyMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public PropertyImportResponse importProperties(BufferedReader input, PropertyImportFormat format, User currentUser) {
+        if (currentUser == null
+                || (currentUser.getRole() != UserRole.AGENT && currentUser.getRole() != UserRole.ADMIN)) {
+            throw new UnauthorizedException("Import ogłoszeń jest dostępny tylko dla agentów");
+        }
+        log.info("Import ogłoszeń ({}) przez: {}", format, currentUser.getEmail());
+
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress(maxReportedErrors);
+        List<PropertyImportRow> chunk = new ArrayList<>(chunkSize);
+
+        try (PropertyImportReader reader = format.open(input, objectMapper)) {
+            PropertyImportRow row;
+            while ((row = reader.next()) != null) {
+                progress.processed++;
+                if (row.error() != null) {
+                    progress.fail(row.line(), row.error());
+                    continue;
+                }
+                // właścicielem jest zawsze importujący - ownerId z pliku jest ignorowane
+                row.request().setOwnerId(currentUser.getId());
+                String violations = validate(row.request());
+                if (violations != null) {
+                    progress.fail(row.line(), violations);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    insertChunk(chunk, currentUser, progress);
+                    chunk.clear();
+                }
+            }
+            // ostatnia niepełna paczka tylko po odczytaniu całego pliku - błąd odczytu przerywa import
+            if (!chunk.isEmpty()) {
+                insertChunk(chunk, currentUser, progress);
+            }
+        } catch (IOException e) {
+            throw new FileUploadException("Nie udało się odczytać pliku importu", e);
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Import zakończony: user={}, wierszy={}, zapisanych={}, błędnych={}, czas={} ms",
+                currentUser.getEmail(), progress.processed, progress.imported, progress.failed, durationMs);
+
+        return PropertyImportResponse.builder()
+                .processed(progress.processed)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .durationMs(durationMs)
+                .errorsTruncated(progress.failed > progress.errors.size())
+                .errors(progress.errors)
+                .build();
+    }
+
+    private String validate(CreatePropertyRequest request) {
+        Set<ConstraintViolation<CreatePropertyRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+
+    private void insertChunk(List<PropertyImportRow> chunk, User owner, ImportProgress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(chunk, owner));
+            progress.imported += chunk.size();
+        } catch (RuntimeException e) {
+            log.warn("Porcja importu ({} wierszy od linii {}) odrzucona, zapis pojedynczo: {}",
+                    chunk.size(), chunk.get(0).line(), e.getMessage());
+            for (PropertyImportRow row : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(row), owner));
+                    progress.imported++;
+                } catch (RuntimeException rowError) {
+                    progress.fail(row.line(), "Błąd zapisu: " + rootMessage(rowError));
+                }
+            }
+        }
+    }
+
+    private void persist(List<PropertyImportRow> rows, User owner) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(jdbcBatchSize);
+        // świeżo wstawione wiersze nie muszą trafiać do cache drugiego poziomu
+        session.setCacheMode(CacheMode.IGNORE);
+
+        // referencja zamiast principala - w trybie claims to niepełna encja spoza kontekstu
+        User ownerReference = entityManager.getReference(User.class, owner.getId());
+        List<Property> saved = new ArrayList<>(rows.size());
+        for (PropertyImportRow row : rows) {
+            Property property = propertyMapper.toEntity(row.request());
+            property.setOwner(ownerReference);
+            entityManager.persist(property);
+            saved.add(property);
+        }
+        // słuchacze synchroniczni (np. dziennik zmian) dopisują swoje encje przed flush
+        saved.forEach(property -> eventPublisher.publishEvent(PropertyChangedEvent.created(property)));
+        entityManager.flush();
+        // kontekst persystencji nie rośnie przez cały import
+        entityManager.clear();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private static class ImportProgress {
+        private final int maxErrors;
+        private final List<PropertyImportResponse.RowError> errors = new ArrayList<>();
+        private long processed;
+        private long imported;
+        private long failed;
+
+        ImportProgress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new PropertyImportResponse.RowError(line, message));
+            }
+        }
+    }
+}
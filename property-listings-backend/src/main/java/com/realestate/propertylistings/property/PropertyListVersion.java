@@ -0,0 +1,20 @@
+package com.realestate.propertylistings.property;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Wersja wyniku listy: najnowsza zmiana ogłoszenia lub właściciela i liczba wierszy - liczba wykrywa
+ * usunięcia, których maksimum updatedAt nie widzi.
+ */
+public record PropertyListVersion(LocalDateTime maxUpdatedAt, LocalDateTime maxOwnerUpdatedAt, long count) {
+
+    // requestKey (ścieżka z parametrami) rozróżnia strony, sortowania i filtry tego samego zbioru
+    public String eTag(String requestKey) {
+        String seed = requestKey + "|" + PropertyVersion.epochMillis(maxUpdatedAt)
+                + "|" + PropertyVersion.epochMillis(maxOwnerUpdatedAt) + "|" + count;
+        return "W/\"" + DigestUtils.md5DigestAsHex(seed.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -19,6 +19,7 @@ public interface PropertyMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "isActive", constant = "true")
     @Mapping(target = "bathroomCount", ignore = true)
+    @Mapping(target = "imageRevision", ignore = true)
     Property toEntity(CreatePropertyRequest request);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
@@ -35,6 +36,7 @@ public interface PropertyMapper {
     @Mapping(target = "street", ignore = true)
     @Mapping(target = "postalCode", ignore = true)
     @Mapping(target = "isActive", ignore = true)
+    @Mapping(target = "imageRevision", ignore = true)
     @Mapping(target = "price", source = "price")
     void updateEntity(@MappingTarget Property property, UpdatePropertyRequest request);
 
@@ -50,6 +52,7 @@ public interface PropertyMapper {
     @Mapping(target = "owner.email", source = "owner.email")
     @Mapping(target = "owner.phoneNumber", source = "owner.phoneNumber")
     @Mapping(target = "imageUrls", expression = "java(mapImageUrls(property))")
+    @Mapping(target = "images", expression = "java(mapImages(property))")
     PropertyResponse toResponse(Property property);
 
     default List<String> mapImageUrls(Property property) {
@@ -61,21 +64,42 @@ public interface PropertyMapper {
                 .map(PropertyImage::getFileUrl)
                 .collect(Collectors.toList());
     }
+
+    default List<PropertyResponse.ImageInfo> mapImages(Property property) {
+        if (property.getImages() == null || property.getImages().isEmpty()) {
+            return List.of();
+        }
+        return property.getImages().stream()
+                .sorted(Comparator.comparing(PropertyImage::getDisplayOrder))
+                .map(image -> PropertyResponse.ImageInfo.builder()
+                        .id(image.getId())
+                        .url(image.getFileUrl())
+                        .thumbnailUrl(image.getThumbnailUrl())
+                        .cardUrl(image.getCardUrl())
+                        .fullUrl(image.getFullUrl())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     default String buildAddress(Property property) {
-        if (property.getStreet() == null && property.getCity() == null) {
+        return formatAddress(property.getStreet(), property.getCity(), property.getPostalCode());
+    }
+
+    static String formatAddress(String street, String city, String postalCode) {
+        if (street == null && city == null) {
             return null;
         }
         StringBuilder address = new StringBuilder();
-        if (property.getStreet() != null) {
-            address.append(property.getStreet());
+        if (street != null) {
+            address.append(street);
         }
-        if (property.getCity() != null) {
+        if (city != null) {
             if (address.length() > 0) address.append(", ");
-            address.append(property.getCity());
+            address.append(city);
         }
-        if (property.getPostalCode() != null) {
+        if (postalCode != null) {
             if (address.length() > 0) address.append(", ");
-            address.append(property.getPostalCode());
+            address.append(postalCode);
         }
         return address.toString();
     }
@@ -0,0 +1,143 @@
+package com.realestate.propertylistings.property;
+
+import com.realestate.propertylistings.dto.PagedResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache wyników list (/filter, /city/{city}) unieważniany licznikami generacji:
+ * numer generacji jest częścią klucza, więc zapis tylko podbija licznik, a stare
+ * wpisy stają się nieosiągalne i wypadają z ograniczonego cache same. Wersje list do ETag
+ * (agregat MAX/COUNT) leżą pod tymi samymi generacjami, więc nie są liczone przy każdym żądaniu.
+ * Liczniki są lokalne dla JVM - jedną instancję na bazę wymusza SingleInstanceLock.
+ */
+@Component
+@Slf4j
+public class PropertyQueryCache {
+
+    static final String CACHE_NAME = "propertyQueryCache";
+    static final String VERSION_CACHE_NAME = "propertyListVersionCache";
+
+    private final Cache cache;
+    private final Cache versionCache;
+    private final Map<String, AtomicLong> cityGenerations = new ConcurrentHashMap<>();
+    // zmienia się przy każdym zapisie ogłoszenia - dla zapytań bez filtra miasta
+    private final AtomicLong anyWriteGeneration = new AtomicLong();
+    // zmienia się przy zmianach wpływających na wszystkie listy (np. dane właściciela)
+    private final AtomicLong epoch = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public PropertyQueryCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.versionCache = cacheManager.getCache(VERSION_CACHE_NAME);
+        this.hits = Counter.builder("property.query.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("property.query.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("property.query.cache.hit.ratio", this, PropertyQueryCache::hitRatio)
+                .register(meterRegistry);
+    }
+
+    // city == null: zapytanie obejmuje wszystkie miasta
+    @SuppressWarnings("unchecked")
+    public PagedResponse<PropertyResponse> getOrLoad(
+            String city,
+            String queryKey,
+            Supplier<PagedResponse<PropertyResponse>> loader
+    ) {
+        if (cache == null) {
+            return loader.get();
+        }
+
+        String key = versionedKey(city, queryKey);
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            hits.increment();
+            return (PagedResponse<PropertyResponse>) cached.get();
+        }
+
+        misses.increment();
+        PagedResponse<PropertyResponse> result = loader.get();
+        cache.put(key, result);
+        return result;
+    }
+
+    // ten sam klucz generacji co strony - zapis unieważnia wersję i strony listy naraz
+    public PropertyListVersion getOrLoadVersion(
+            String city,
+            String versionKey,
+            Supplier<PropertyListVersion> loader
+    ) {
+        if (versionCache == null) {
+            return loader.get();
+        }
+
+        String key = versionedKey(city, versionKey);
+        PropertyListVersion cached = versionCache.get(key, PropertyListVersion.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        PropertyListVersion version = loader.get();
+        versionCache.put(key, version);
+        return version;
+    }
+
+    public void invalidateCity(String city) {
+        if (city != null) {
+            cityGeneration(city).incrementAndGet();
+        }
+        anyWriteGeneration.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+    }
+
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    // ogłoszenie mogło zmienić miasto - stare miasto też traci aktualność
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        invalidateCity(event.previousCity());
+        invalidateCity(event.property().getCity());
+    }
+
+    private String versionedKey(String city, String queryKey) {
+        long generation;
+        if (city == null) {
+            generation = anyWriteGeneration.get();
+        } else {
+            // odczyt nie tworzy licznika - dowolne nazwy miast z zapytań nie mogą rozdmuchać mapy
+            AtomicLong cityGeneration = cityGenerations.get(normalizeCity(city));
+            generation = cityGeneration == null ? 0 : cityGeneration.get();
+        }
+        return epoch.get() + ":" + generation + ":" + queryKey;
+    }
+
+    private AtomicLong cityGeneration(String city) {
+        return cityGenerations.computeIfAbsent(normalizeCity(city), c -> new AtomicLong());
+    }
+
+    private static String normalizeCity(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,22 +1,28 @@
 package com.realestate.propertylistings.property;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 public interface PropertyRepository extends JpaRepository<Property, Long>,
-        JpaSpecificationExecutor<Property> {
+        JpaSpecificationExecutor<Property>, PropertyRepositoryCustom {
     Page<Property> findByIsActiveTrue(Pageable pageable);
     Page<Property> findByCityAndIsActiveTrue(String city, Pageable pageable);
     Page<Property> findByOwnerId(Long ownerId, Pageable pageable);
+    List<Property> findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
     @Query("SELECT p FROM Property p WHERE " +
             "(LOWER(p.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -30,9 +36,29 @@ public interface PropertyRepository extends JpaRepository<Property, Long>,
             "WHERE p.id = :id")
     Optional<Property> findByIdWithDetails(@Param("id") Long id);
 
+    // jeden odczyt po kluczu zamiast budowania odpowiedzi - wystarcza do ETag / Last-Modified
+    @Query("SELECT new com.realestate.propertylistings.property.PropertyVersion(p.updatedAt, p.imageRevision, o.updatedAt) " +
+            "FROM Property p LEFT JOIN p.owner o WHERE p.id = :id")
+    Optional<PropertyVersion> findVersionById(@Param("id") Long id);
+
+    // cache zapytań Hibernate unieważnia wynik przy każdym zapisie do tabeli properties
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(p) FROM Property p WHERE p.city = :city AND p.isActive = true")
     long countByCityAndIsActiveTrue(@Param("city") String city);
 
     @Query("SELECT COUNT(p) FROM Property p WHERE p.isActive = true")
     long countByIsActiveTrue();
+
+    // przechodzi po aktywnych ogłoszeniach partiami (keyset po id) - do przebudowy indeksów w pamięci
+    default void forEachActiveBatch(int batchSize, Consumer<List<Property>> consumer) {
+        long lastId = 0;
+        List<Property> batch;
+        do {
+            batch = findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(lastId, Limit.of(batchSize));
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == batchSize);
+    }
 }
@@ -0,0 +1,30 @@
+package com.realestate.propertylistings.property;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface PropertyRepositoryCustom {
+
+    List<Long> findIds(Specification<Property> spec);
+
+    List<PropertyCardResponse> findCards(Specification<Property> spec, Sort sort, long offset, int limit);
+
+    // PropertyResponse z wypełnionymi tylko polami z fields (zdjęcia - findImages)
+    List<PropertyResponse> findSparse(Specification<Property> spec, Sort sort, long offset, int limit,
+                                      Set<PropertyField> fields);
+
+    Map<Long, List<PropertyResponse.ImageInfo>> findImages(Collection<Long> propertyIds);
+
+    Map<Long, String> findCoverImageUrls(Collection<Long> propertyIds);
+
+    PropertyListVersion findListVersion(Specification<Property> spec);
+
+    // wymaga otwartej transakcji; strumień trzeba zamknąć
+    Stream<PropertyExportRow> streamExportRows(Specification<Property> spec, Sort sort, int fetchSize);
+}
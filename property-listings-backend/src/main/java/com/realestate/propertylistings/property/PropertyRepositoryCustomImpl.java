@@ -0,0 +1,357 @@
+package com.realestate.propertylistings.property;
+
+import com.realestate.propertylistings.user.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class PropertyRepositoryCustomImpl implements PropertyRepositoryCustom {
+
+    // pierwsze zdjęcie na ogłoszenie: główne, a w drugiej kolejności najniższy displayOrder;
+    // wariant "card", gdy pochodne są już gotowe
+    private static final String COVER_IMAGES_QUERY = """
+            SELECT c.propertyId, c.fileUrl FROM (
+                SELECT i.property.id AS propertyId, COALESCE(i.cardUrl, i.fileUrl) AS fileUrl,
+                       ROW_NUMBER() OVER (PARTITION BY i.property.id
+                                          ORDER BY CASE WHEN i.isPrimary THEN 0 ELSE 1 END,
+                                                   i.displayOrder, i.id) AS position
+                FROM PropertyImage i
+                WHERE i.property.id IN :propertyIds
+            ) c
+            WHERE c.position = 1
+            """;
+
+    // kolejność jak w PropertyMapper.mapImages
+    private static final String IMAGES_QUERY = """
+            SELECT i.property.id, i.id, i.fileUrl, i.thumbnailUrl, i.cardUrl, i.fullUrl
+            FROM PropertyImage i
+            WHERE i.property.id IN :propertyIds
+            ORDER BY i.displayOrder, i.id
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findIds(Specification<Property> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Property> root = query.from(Property.class);
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get("id"));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    // tylko kolumny potrzebne na liście; właściciel dołączony w tym samym zapytaniu
+    @Override
+    public List<PropertyCardResponse> findCards(Specification<Property> spec, Sort sort, long offset, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+        Join<Property, User> owner = root.join("owner", JoinType.LEFT);
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(
+                root.get("id"),
+                root.get("title"),
+                root.get("price"),
+                root.get("transactionType"),
+                root.get("city"),
+                root.get("areaSqm"),
+                root.get("roomCount"),
+                root.get("createdAt"),
+                owner.get("firstName"),
+                owner.get("lastName")
+        );
+        query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(PropertyRepositoryCustomImpl::toCard)
+                .toList();
+    }
+
+    // SELECT tylko z kolumnami żądanych pól; właściciel dołączany wyłącznie dla pola owner,
+    // zdjęcia (imageUrls, images) osobno przez findImages
+    @Override
+    public List<PropertyResponse> findSparse(Specification<Property> spec, Sort sort, long offset, int limit,
+                                             Set<PropertyField> fields) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get("id").alias("id"));
+        for (PropertyField field : fields) {
+            String attribute = sparseAttribute(field);
+            if (attribute != null) {
+                selections.add(root.get(attribute).alias(field.name()));
+            } else if (field == PropertyField.ADDRESS) {
+                selections.add(root.get("street").alias("addressStreet"));
+                selections.add(root.get("city").alias("addressCity"));
+                selections.add(root.get("postalCode").alias("addressPostalCode"));
+            } else if (field == PropertyField.OWNER) {
+                Join<Property, User> owner = root.join("owner", JoinType.LEFT);
+                selections.add(owner.get("id").alias("ownerId"));
+                selections.add(owner.get("firstName").alias("ownerFirstName"));
+                selections.add(owner.get("lastName").alias("ownerLastName"));
+                selections.add(owner.get("email").alias("ownerEmail"));
+                selections.add(owner.get("phoneNumber").alias("ownerPhoneNumber"));
+            }
+        }
+        query.multiselect(selections);
+        query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(row -> toSparseResponse(row, fields))
+                .toList();
+    }
+
+    @Override
+    public Map<Long, List<PropertyResponse.ImageInfo>> findImages(Collection<Long> propertyIds) {
+        Map<Long, List<PropertyResponse.ImageInfo>> images = new HashMap<>();
+        if (propertyIds.isEmpty()) {
+            return images;
+        }
+
+        entityManager.createQuery(IMAGES_QUERY, Tuple.class)
+                .setParameter("propertyIds", propertyIds)
+                .getResultList()
+                .forEach(row -> images.computeIfAbsent(row.get(0, Long.class), id -> new ArrayList<>())
+                        .add(PropertyResponse.ImageInfo.builder()
+                                .id(row.get(1, Long.class))
+                                .url(row.get(2, String.class))
+                                .thumbnailUrl(row.get(3, String.class))
+                                .cardUrl(row.get(4, String.class))
+                                .fullUrl(row.get(5, String.class))
+                                .build()));
+        return images;
+    }
+
+    @Override
+    public Map<Long, String> findCoverImageUrls(Collection<Long> propertyIds) {
+        Map<Long, String> urls = new HashMap<>();
+        if (propertyIds.isEmpty()) {
+            return urls;
+        }
+
+        entityManager.createQuery(COVER_IMAGES_QUERY, Tuple.class)
+                .setParameter("propertyIds", propertyIds)
+                .getResultList()
+                .forEach(row -> urls.put(row.get(0, Long.class), row.get(1, String.class)));
+        return urls;
+    }
+
+    @Override
+    public PropertyListVersion findListVersion(Specification<Property> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+        Join<Property, User> owner = root.join("owner", JoinType.LEFT);
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(
+                criteriaBuilder.greatest(root.<LocalDateTime>get("updatedAt")),
+                criteriaBuilder.greatest(owner.<LocalDateTime>get("updatedAt")),
+                criteriaBuilder.count(root)
+        );
+
+        Tuple row = entityManager.createQuery(query).getSingleResult();
+        return new PropertyListVersion(
+                row.get(0, LocalDateTime.class),
+                row.get(1, LocalDateTime.class),
+                row.get(2, Long.class)
+        );
+    }
+
+    // kursor tylko do przodu (ScrollableResults) pobierający fetchSize wierszy na raz;
+    // same skalary, więc kontekst persystencji nie rośnie niezależnie od liczby wierszy
+    @Override
+    public Stream<PropertyExportRow> streamExportRows(Specification<Property> spec, Sort sort, int fetchSize) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(
+                root.get("id"),
+                root.get("title"),
+                root.get("description"),
+                root.get("price"),
+                root.get("areaSqm"),
+                root.get("roomCount"),
+                root.get("bathroomCount"),
+                root.get("floorNumber"),
+                root.get("transactionType"),
+                root.get("city"),
+                root.get("street"),
+                root.get("postalCode"),
+                root.get("isActive"),
+                root.get("owner").get("id"),
+                root.get("createdAt"),
+                root.get("updatedAt")
+        );
+        query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(PropertyRepositoryCustomImpl::toExportRow);
+    }
+
+    private static PropertyExportRow toExportRow(Tuple row) {
+        return new PropertyExportRow(
+                row.get(0, Long.class),
+                row.get(1, String.class),
+                row.get(2, String.class),
+                row.get(3, BigDecimal.class),
+                row.get(4, Double.class),
+                row.get(5, Integer.class),
+                row.get(6, Integer.class),
+                row.get(7, Integer.class),
+                row.get(8, TransactionType.class),
+                row.get(9, String.class),
+                row.get(10, String.class),
+                row.get(11, String.class),
+                row.get(12, Boolean.class),
+                row.get(13, Long.class),
+                row.get(14, LocalDateTime.class),
+                row.get(15, LocalDateTime.class)
+        );
+    }
+
+    // null: pole nie jest pojedynczą kolumną ogłoszenia
+    private static String sparseAttribute(PropertyField field) {
+        return switch (field) {
+            case TITLE -> "title";
+            case DESCRIPTION -> "description";
+            case PRICE -> "price";
+            case TYPE -> "transactionType";
+            case CITY -> "city";
+            case AREA -> "areaSqm";
+            case ROOMS -> "roomCount";
+            case BATHROOMS -> "bathroomCount";
+            case FLOOR -> "floorNumber";
+            case IS_ACTIVE -> "isActive";
+            case CREATED_AT -> "createdAt";
+            case UPDATED_AT -> "updatedAt";
+            case ID, ADDRESS, OWNER, IMAGE_URLS, IMAGES -> null;
+        };
+    }
+
+    private static PropertyResponse toSparseResponse(Tuple row, Set<PropertyField> fields) {
+        PropertyResponse response = new PropertyResponse();
+        response.setId(row.get("id", Long.class));
+        for (PropertyField field : fields) {
+            switch (field) {
+                case TITLE -> response.setTitle(row.get(field.name(), String.class));
+                case DESCRIPTION -> response.setDescription(row.get(field.name(), String.class));
+                case PRICE -> response.setPrice(row.get(field.name(), BigDecimal.class));
+                case TYPE -> response.setType(row.get(field.name(), TransactionType.class));
+                case CITY -> response.setCity(row.get(field.name(), String.class));
+                case AREA -> response.setArea(row.get(field.name(), Double.class));
+                case ROOMS -> response.setRooms(row.get(field.name(), Integer.class));
+                case BATHROOMS -> response.setBathrooms(row.get(field.name(), Integer.class));
+                case FLOOR -> response.setFloor(row.get(field.name(), Integer.class));
+                case IS_ACTIVE -> response.setIsActive(row.get(field.name(), Boolean.class));
+                case CREATED_AT -> response.setCreatedAt(row.get(field.name(), LocalDateTime.class));
+                case UPDATED_AT -> response.setUpdatedAt(row.get(field.name(), LocalDateTime.class));
+                case ADDRESS -> response.setAddress(PropertyMapper.formatAddress(
+                        row.get("addressStreet", String.class),
+                        row.get("addressCity", String.class),
+                        row.get("addressPostalCode", String.class)));
+                case OWNER -> response.setOwner(toOwnerInfo(row));
+                case ID, IMAGE_URLS, IMAGES -> {
+                }
+            }
+        }
+        return response;
+    }
+
+    // jak MapStruct dla owner == null: brak właściciela daje null, nie pusty obiekt
+    private static PropertyResponse.OwnerInfo toOwnerInfo(Tuple row) {
+        Long ownerId = row.get("ownerId", Long.class);
+        if (ownerId == null) {
+            return null;
+        }
+        return PropertyResponse.OwnerInfo.builder()
+                .id(ownerId)
+                .firstName(row.get("ownerFirstName", String.class))
+                .lastName(row.get("ownerLastName", String.class))
+                .email(row.get("ownerEmail", String.class))
+                .phoneNumber(row.get("ownerPhoneNumber", String.class))
+                .build();
+    }
+
+    private static PropertyCardResponse toCard(Tuple row) {
+        return PropertyCardResponse.builder()
+                .id(row.get(0, Long.class))
+                .title(row.get(1, String.class))
+                .price(row.get(2, BigDecimal.class))
+                .type(row.get(3, TransactionType.class))
+                .city(row.get(4, String.class))
+                .area(row.get(5, Double.class))
+                .rooms(row.get(6, Integer.class))
+                .createdAt(row.get(7, LocalDateTime.class))
+                .ownerName(ownerName(row.get(8, String.class), row.get(9, String.class)))
+                .build();
+    }
+
+    private static String ownerName(String firstName, String lastName) {
+        if (firstName == null && lastName == null) {
+            return null;
+        }
+        if (firstName == null || lastName == null) {
+            return firstName != null ? firstName : lastName;
+        }
+        return firstName + " " + lastName;
+    }
+}
@@ -30,6 +30,7 @@ public class PropertyResponse {
     private LocalDateTime updatedAt;
     private OwnerInfo owner;
     private List<String> imageUrls;
+    private List<ImageInfo> images;
 
     @Data
     @Builder
@@ -42,4 +43,17 @@ public class PropertyResponse {
         private String email;
         private String phoneNumber;
     }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ImageInfo {
+        private Long id;
+        private String url;
+        // null dopóki pochodne nie są gotowe - klient używa wtedy url
+        private String thumbnailUrl;
+        private String cardUrl;
+        private String fullUrl;
+    }
 }
@@ -0,0 +1,101 @@
+package com.realestate.propertylistings.property;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * LRU gotowych bajtów JSON (i wariantu gzip) dla szczegółów ogłoszeń i list kart, ograniczone sumą bajtów.
+ * Trafienie pomija mapowanie encji, serializację i kompresję. Klucz zawiera wersję treści (ETag),
+ * więc zmiana ogłoszenia tworzy nowy klucz, a stary wpis po prostu wypada z LRU.
+ */
+@Component
+public class PropertyResponseByteCache {
+
+    public record EncodedResponse(byte[] json, byte[] gzip) {
+
+        long size() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final int gzipMinBytes;
+    private final LinkedHashMap<String, EncodedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private long currentBytes;
+
+    public PropertyResponseByteCache(
+            ObjectMapper objectMapper,
+            @Value("${app.properties.response-cache.max-bytes:33554432}") long maxBytes,
+            @Value("${app.properties.response-cache.gzip-min-bytes:1024}") int gzipMinBytes,
+            MeterRegistry meterRegistry
+    ) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.gzipMinBytes = gzipMinBytes;
+        this.hits = meterRegistry.counter("property.response.byte.cache", "result", "hit");
+        this.misses = meterRegistry.counter("property.response.byte.cache", "result", "miss");
+    }
+
+    public EncodedResponse getOrEncode(String key, Supplier<?> body) throws IOException {
+        EncodedResponse cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        // kodowanie poza blokadą - dwa równoległe chybienia policzą to samo, ale nie blokują innych kluczy
+        EncodedResponse encoded = encode(body.get());
+        put(key, encoded);
+        return encoded;
+    }
+
+    EncodedResponse encode(Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        // małe odpowiedzi po kompresji prawie nie maleją, a nagłówki gzip dokładają swoje
+        return new EncodedResponse(json, json.length >= gzipMinBytes ? gzip(json) : null);
+    }
+
+    private synchronized EncodedResponse get(String key) {
+        EncodedResponse encoded = entries.get(key);
+        if (encoded != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return encoded;
+    }
+
+    private synchronized void put(String key, EncodedResponse encoded) {
+        if (encoded.size() > maxBytes) {
+            return;
+        }
+        EncodedResponse previous = entries.put(key, encoded);
+        currentBytes += encoded.size() - (previous == null ? 0 : previous.size());
+
+        Iterator<Map.Entry<String, EncodedResponse>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().size();
+            eldest.remove();
+        }
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+}
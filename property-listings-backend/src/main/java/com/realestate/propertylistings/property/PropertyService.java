@@ -1,25 +1,39 @@
 package com.realestate.propertylistings.property;
 
+import com.realestate.propertylistings.columnar.ColumnarPage;
+import com.realestate.propertylistings.columnar.PropertyColumnarEngine;
 import com.realestate.propertylistings.dto.CreatePropertyRequest;
+import com.realestate.propertylistings.dto.CursorPagedResponse;
 import com.realestate.propertylistings.dto.PagedResponse;
 import com.realestate.propertylistings.dto.UpdatePropertyRequest;
 import com.realestate.propertylistings.exception.PropertyNotFoundException;
 import com.realestate.propertylistings.exception.UnauthorizedException;
+import com.realestate.propertylistings.search.PropertySearchIndex;
+import com.realestate.propertylistings.search.SearchSort;
 import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRepository;
 import com.realestate.propertylistings.user.UserRole;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,19 +45,26 @@ public class PropertyService {
     private final PropertyRepository propertyRepository;
     private final PropertyMapper propertyMapper;
     private final PaginationValidator paginationValidator;
+    private final PropertyCountEstimator countEstimator;
+    private final PropertySearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PropertyColumnarEngine columnarEngine;
+    private final PropertyQueryCache queryCache;
+    private final UserRepository userRepository;
 
     public PropertyResponse createProperty(CreatePropertyRequest request, User currentUser) {
         log.info("Tworzenie ogłoszenia przez: {}", currentUser.getEmail());
 
         Property property = propertyMapper.toEntity(request);
-        property.setOwner(currentUser);
+        // principal w trybie claims to tylko id, e-mail i rola - właściciel musi być encją z bazy
+        property.setOwner(userRepository.getReferenceById(currentUser.getId()));
         Property saved = propertyRepository.save(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.created(saved));
 
         log.info("Ogłoszenie utworzone: id={}", saved.getId());
         return propertyMapper.toResponse(saved);
     }
 
-    @CacheEvict(value = "propertyCache", key = "#id")
     @Transactional
     public PropertyResponse updateProperty(Long id, UpdatePropertyRequest request, User currentUser) {
         log.info("Aktualizacja ogłoszenia id={} przez: {}", id, currentUser.getEmail());
@@ -57,14 +78,15 @@ public class PropertyService {
             throw new UnauthorizedException("Brak uprawnień do edycji tego ogłoszenia");
         }
 
+        String previousCity = property.getCity();
         propertyMapper.updateEntity(property, request);
         Property updated = propertyRepository.save(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.updated(updated, previousCity));
 
         log.info("Ogłoszenie zaktualizowane: id={}", updated.getId());
         return propertyMapper.toResponse(updated);
     }
 
-    @CacheEvict(value = "propertyCache", key = "#id")
     @Transactional
     public void deleteProperty(Long id, User currentUser) {
         log.info("Usuwanie ogłoszenia id={} przez: {}", id, currentUser.getEmail());
@@ -79,6 +101,7 @@ public class PropertyService {
         }
 
         propertyRepository.delete(property);
+        eventPublisher.publishEvent(PropertyChangedEvent.deleted(property));
         log.info("Ogłoszenie usunięte: id={}", id);
     }
 
@@ -99,24 +122,56 @@ public class PropertyService {
         return result;
     }
 
+    @Transactional(readOnly = true)
+    public PropertyVersion getPropertyVersion(Long id) {
+        return propertyRepository.findVersionById(id)
+                .orElseThrow(() -> new PropertyNotFoundException("Ogłoszenie nie znalezione: " + id));
+    }
+
+    // filters == null: cały katalog (jak getAllProperties / getPropertyCards);
+    // agregat liczony tylko po zapisie lub wygaśnięciu wpisu w PropertyQueryCache
+    @Transactional(readOnly = true)
+    public PropertyListVersion getListVersion(PropertyFilterRequest filters) {
+        if (filters == null) {
+            return queryCache.getOrLoadVersion(null, "all",
+                    () -> propertyRepository.findListVersion(PropertySpecification.all()));
+        }
+        String city = filters.getCity() == null || filters.getCity().isEmpty() ? null : filters.getCity();
+        return queryCache.getOrLoadVersion(city, "filter|" + filters.criteriaKey(),
+                () -> propertyRepository.findListVersion(filterSpecification(filters)));
+    }
+
+    @Transactional(readOnly = true)
+    public PropertyListVersion getCityListVersion(String city) {
+        return queryCache.getOrLoadVersion(city, "city|" + city,
+                () -> propertyRepository.findListVersion(PropertySpecification.activeInCity(city)));
+    }
+
+    // ogłoszenia właściciela mogą być w dowolnym mieście - generacja wspólna dla wszystkich zapisów
+    @Transactional(readOnly = true)
+    public PropertyListVersion getOwnerListVersion(Long ownerId) {
+        return queryCache.getOrLoadVersion(null, "owner|" + ownerId,
+                () -> propertyRepository.findListVersion(PropertySpecification.ownedBy(ownerId)));
+    }
+
     @Transactional(readOnly = true)
     public PagedResponse<PropertyResponse> getAllProperties(
             int page,
             int size,
             String sortBy,
-            String direction
+            String direction,
+            TotalMode totalMode
     ) {
-        log.info("Pobieranie ogłoszeń - strona: {}, rozmiar: {}, sortowanie: {} {}",
-                page, size, sortBy, direction);
+        log.info("Pobieranie ogłoszeń - strona: {}, rozmiar: {}, sortowanie: {} {}, licznik: {}",
+                page, size, sortBy, direction, totalMode);
 
         Sort sort = direction.equalsIgnoreCase("DESC")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Property> propertyPage = propertyRepository.findAll(pageable);
 
-        return buildPagedResponse(propertyPage);
+        return findPage(PropertySpecification.all(), "all", pageable, totalMode);
     }
 
     @Transactional(readOnly = true)
@@ -125,9 +180,10 @@ public class PropertyService {
             int page,
             int size,
             String sortBy,
-            String direction
+            String direction,
+            TotalMode totalMode
     ) {
-        log.info("Pobieranie ogłoszeń z filtrami: {}", filters);
+        log.info("Pobieranie ogłoszeń z filtrami: {}, licznik: {}", filters, totalMode);
 
         Sort sort = direction.equalsIgnoreCase("DESC")
                 ? Sort.by(sortBy).descending()
@@ -135,10 +191,9 @@ public class PropertyService {
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Specification<Property> spec = PropertySpecification.withFilters(filters);
-        Page<Property> propertyPage = propertyRepository.findAll(spec, pageable);
+        Specification<Property> spec = filterSpecification(filters);
 
-        return buildPagedResponse(propertyPage);
+        return findPage(spec, "filters:" + filters.criteriaKey(), pageable, totalMode);
     }
 
     @Transactional(readOnly = true)
@@ -149,24 +204,35 @@ public class PropertyService {
     ) {
         log.info("Pobieranie ogłoszeń dla miasta: {}", city);
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Property> propertyPage = propertyRepository.findByCityAndIsActiveTrue(city, pageable);
-
-        return buildPagedResponse(propertyPage);
+        // klucz z wartości po walidacji - inaczej każdy nieprawidłowy rozmiar to osobny wpis w cache
+        int validPage = paginationValidator.validatePageNumber(page);
+        int validSize = paginationValidator.validatePageSize(size);
+        // miasto dokładnie jak w zapytaniu (równość po city) - klucz nie może łączyć wyników, które baza rozróżnia
+        String queryKey = "city|" + city + "|" + validPage + "|" + validSize;
+        return queryCache.getOrLoad(city, queryKey, () -> {
+            Pageable pageable = PageRequest.of(validPage, validSize, Sort.by("createdAt").descending());
+            return buildPagedResponse(propertyRepository.findByCityAndIsActiveTrue(city, pageable));
+        });
     }
 
     @Transactional(readOnly = true)
     public PagedResponse<PropertyResponse> searchProperties(
             String search,
             int page,
-            int size
+            int size,
+            String sortBy
     ) {
-        log.info("Wyszukiwanie ogłoszeń: {}", search);
+        log.info("Wyszukiwanie ogłoszeń: {}, sortowanie: {}", search, sortBy);
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<Property> propertyPage = propertyRepository.searchProperties(search, pageable);
+        if (!searchIndex.isReady()) {
+            Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+            Page<Property> propertyPage = propertyRepository.searchProperties(search, pageable);
 
-        return buildPagedResponse(propertyPage);
+            return buildPagedResponse(propertyPage);
+        }
+
+        List<Long> hits = searchIndex.search(search, paginationValidator.validateSearchSort(sortBy));
+        return buildPagedResponse(loadPageOfIds(hits, PageRequest.of(page, size)));
     }
 
     @Transactional(readOnly = true)
@@ -192,16 +258,15 @@ public class PropertyService {
 
 
 
-    public Page<PropertyResponse> filterProperties(PropertyFilterRequest filters) {
+    @Transactional(readOnly = true)
+    public PagedResponse<PropertyResponse> filterProperties(PropertyFilterRequest filters, TotalMode totalMode) {
 
         long startTime = System.currentTimeMillis();
-        log.info("Filtrowanie ogłoszeń z parametrami: {}", filters);
+        log.info("Filtrowanie ogłoszeń z parametrami: {}, licznik: {}", filters, totalMode);
         filters.setSize(paginationValidator.validatePageSize(filters.getSize()));
         filters.setPage(paginationValidator.validatePageNumber(filters.getPage()));
         filters.setSortBy(paginationValidator.validateSortField(filters.getSortBy()));
 
-        Specification<Property> spec = PropertySpecification.withFilters(filters);
-
         Sort.Direction direction = filters.getSortDirection().equalsIgnoreCase("ASC")
                 ? Sort.Direction.ASC
                 : Sort.Direction.DESC;
@@ -214,17 +279,234 @@ public class PropertyService {
                 sort
         );
 
-        Page<Property> properties = propertyRepository.findAll(spec, pageable);
-        Page<PropertyResponse> result = properties.map(propertyMapper::toResponse);
+        String queryKey = String.join("|", "filter", filters.criteriaKey(),
+                String.valueOf(filters.getPage()), String.valueOf(filters.getSize()),
+                filters.getSortBy(), direction.name(), totalMode.name());
+        String city = filters.getCity() == null || filters.getCity().isEmpty() ? null : filters.getCity();
+
+        PagedResponse<PropertyResponse> result = queryCache.getOrLoad(city, queryKey, () -> {
+            Optional<ColumnarPage> columnarPage = columnarEngine.isReady()
+                    ? columnarEngine.query(filters, searchHits(filters), filters.getSortBy(), direction,
+                            pageable.getOffset(), pageable.getPageSize())
+                    : Optional.empty();
+
+            return columnarPage.isPresent()
+                    ? buildColumnarResponse(columnarPage.get(), pageable, totalMode)
+                    : findPage(filterSpecification(filters), "filters:" + filters.criteriaKey(), pageable, totalMode);
+        });
 
         long endTime = System.currentTimeMillis();
 
         log.info("Filtrowanie zajelo {} ms, zwrocono {} wynikow",
-                endTime - startTime, result.getTotalElements());
+                endTime - startTime, result.getContent().size());
 
         return result;
     }
 
+    @Transactional(readOnly = true)
+    public PagedResponse<PropertyCardResponse> getPropertyCards(
+            int page,
+            int size,
+            String sortBy,
+            String direction,
+            TotalMode totalMode
+    ) {
+        log.info("Pobieranie kart ogłoszeń - strona: {}, rozmiar: {}, sortowanie: {} {}", page, size, sortBy, direction);
+
+        return findCardPage(PropertySpecification.all(), "all", cardPageable(page, size, sortBy, direction), totalMode);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<PropertyCardResponse> getPropertyCardsByCity(String city, int page, int size) {
+        log.info("Pobieranie kart ogłoszeń dla miasta: {}", city);
+
+        return findCardPage(PropertySpecification.activeInCity(city),
+                "city:" + city, cardPageable(page, size, "createdAt", "DESC"), TotalMode.EXACT);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<PropertyCardResponse> getUserPropertyCards(Long userId, int page, int size) {
+        log.info("Pobieranie kart ogłoszeń użytkownika: {}", userId);
+
+        return findCardPage(PropertySpecification.ownedBy(userId), "owner:" + userId,
+                cardPageable(page, size, "createdAt", "DESC"), TotalMode.EXACT);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<PropertyCardResponse> filterPropertyCards(PropertyFilterRequest filters, TotalMode totalMode) {
+        log.info("Filtrowanie kart ogłoszeń z parametrami: {}, licznik: {}", filters, totalMode);
+
+        Pageable pageable = cardPageable(filters.getPage(), filters.getSize(),
+                filters.getSortBy(), filters.getSortDirection());
+        return findCardPage(filterSpecification(filters), "filters:" + filters.criteriaKey(), pageable, totalMode);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPropertyFields(Long id, Set<PropertyField> fields) {
+        log.info("Pobieranie ogłoszenia id={}, pola: {}", id, fields);
+
+        List<PropertyResponse> rows = propertyRepository.findSparse(
+                PropertySpecification.withId(id), Sort.unsorted(), 0, 1, fields);
+        if (rows.isEmpty()) {
+            throw new PropertyNotFoundException("Ogłoszenie nie znalezione: " + id);
+        }
+        attachImages(rows, fields);
+        return PropertyField.project(rows.get(0), fields);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<Map<String, Object>> getAllPropertyFields(
+            int page,
+            int size,
+            String sortBy,
+            String direction,
+            TotalMode totalMode,
+            Set<PropertyField> fields
+    ) {
+        log.info("Pobieranie ogłoszeń - strona: {}, rozmiar: {}, sortowanie: {} {}, pola: {}",
+                page, size, sortBy, direction, fields);
+
+        return findFieldsPage(PropertySpecification.all(), "all",
+                cardPageable(page, size, sortBy, direction), totalMode, fields);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<Map<String, Object>> getPropertyFieldsByCity(
+            String city, int page, int size, Set<PropertyField> fields) {
+        log.info("Pobieranie ogłoszeń dla miasta: {}, pola: {}", city, fields);
+
+        return findFieldsPage(PropertySpecification.activeInCity(city),
+                "city:" + city, cardPageable(page, size, "createdAt", "DESC"), TotalMode.EXACT, fields);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<Map<String, Object>> getUserPropertyFields(
+            Long userId, int page, int size, Set<PropertyField> fields) {
+        log.info("Pobieranie ogłoszeń użytkownika: {}, pola: {}", userId, fields);
+
+        return findFieldsPage(PropertySpecification.ownedBy(userId), "owner:" + userId,
+                cardPageable(page, size, "createdAt", "DESC"), TotalMode.EXACT, fields);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<Map<String, Object>> filterPropertyFields(
+            PropertyFilterRequest filters, TotalMode totalMode, Set<PropertyField> fields) {
+        log.info("Filtrowanie ogłoszeń z parametrami: {}, licznik: {}, pola: {}", filters, totalMode, fields);
+
+        Pageable pageable = cardPageable(filters.getPage(), filters.getSize(),
+                filters.getSortBy(), filters.getSortDirection());
+        return findFieldsPage(filterSpecification(filters), "filters:" + filters.criteriaKey(),
+                pageable, totalMode, fields);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<PropertyResponse> getAllPropertiesAfter(
+            String after,
+            int size,
+            String sortBy,
+            String direction
+    ) {
+        log.info("Pobieranie ogłoszeń (kursor) - rozmiar: {}, sortowanie: {} {}", size, sortBy, direction);
+
+        return buildCursorPagedResponse(PropertySpecification.all(), after, size, sortBy, direction);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<PropertyResponse> getPropertiesWithFiltersAfter(
+            PropertyFilterRequest filters,
+            String after,
+            int size,
+            String sortBy,
+            String direction
+    ) {
+        log.info("Pobieranie ogłoszeń z filtrami (kursor): {}", filters);
+
+        return buildCursorPagedResponse(filterSpecification(filters), after, size, sortBy, direction);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<PropertyResponse> getPropertiesByCityAfter(String city, String after, int size) {
+        log.info("Pobieranie ogłoszeń dla miasta (kursor): {}", city);
+
+        return buildCursorPagedResponse(PropertySpecification.activeInCity(city), after, size, "createdAt", "DESC");
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<PropertyResponse> getUserPropertiesAfter(Long userId, String after, int size) {
+        log.info("Pobieranie ogłoszeń użytkownika (kursor): {}", userId);
+
+        return buildCursorPagedResponse(PropertySpecification.ownedBy(userId), after, size, "createdAt", "DESC");
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<PropertyResponse> getMyPropertiesAfter(User currentUser, String after, int size) {
+        log.info("Pobieranie moich ogłoszeń (kursor) dla: {}", currentUser.getEmail());
+
+        return getUserPropertiesAfter(currentUser.getId(), after, size);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<PropertyResponse> filterPropertiesAfter(PropertyFilterRequest filters, String after) {
+        log.info("Filtrowanie ogłoszeń (kursor) z parametrami: {}", filters);
+
+        return buildCursorPagedResponse(
+                filterSpecification(filters),
+                after,
+                filters.getSize(),
+                filters.getSortBy(),
+                filters.getSortDirection()
+        );
+    }
+
+    private Specification<Property> filterSpecification(PropertyFilterRequest filters) {
+        List<Long> hits = searchHits(filters);
+        if (hits == null || hits.size() > PropertySpecification.MAX_SEARCH_IDS_IN_QUERY) {
+            return PropertySpecification.withFilters(filters);
+        }
+        return PropertySpecification.withFilters(filters, hits);
+    }
+
+    // null, gdy frazy nie ma albo nie może jej rozwiązać indeks wyszukiwania
+    private List<Long> searchHits(PropertyFilterRequest filters) {
+        String search = filters.getSearch();
+        // indeks zawiera tylko aktywne ogłoszenia
+        if (search == null || search.isBlank() || !searchIndex.isReady()
+                || !Boolean.TRUE.equals(filters.getActiveOnly())) {
+            return null;
+        }
+        return searchIndex.search(search, SearchSort.RELEVANCE);
+    }
+
+    private Page<Property> loadPageOfIds(List<Long> ids, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+
+        return new PageImpl<>(findAllInOrder(ids.subList(from, to)), pageable, ids.size());
+    }
+
+    private List<Property> findAllInOrder(List<Long> ids) {
+        Map<Long, Property> byId = propertyRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Property::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // silnik kolumnowy zna dokładną liczbę trafień bez dodatkowego COUNT
+    private PagedResponse<PropertyResponse> buildColumnarResponse(
+            ColumnarPage columnarPage,
+            Pageable pageable,
+            TotalMode totalMode
+    ) {
+        List<Property> rows = findAllInOrder(columnarPage.ids());
+        if (totalMode == TotalMode.NONE) {
+            boolean hasNext = pageable.getOffset() + columnarPage.ids().size() < columnarPage.total();
+            return buildSlicedResponse(new SliceImpl<>(rows, pageable, hasNext), null);
+        }
+        return buildPagedResponse(new PageImpl<>(rows, pageable, columnarPage.total()));
+    }
+
     private boolean canModifyProperty(Property property, User user) {
         boolean isOwner = property.getOwner().getId().equals(user.getId());
         boolean isAdmin = user.getRole() == UserRole.ADMIN;
@@ -243,8 +525,187 @@ public class PropertyService {
                 .pageSize(page.getSize())
                 .totalElements(page.getTotalElements())
                 .totalPages(page.getTotalPages())
+                .totalExact(true)
+                .hasNext(page.hasNext())
                 .last(page.isLast())
                 .first(page.isFirst())
                 .build();
     }
+
+    private PagedResponse<PropertyResponse> findPage(
+            Specification<Property> spec,
+            String countKey,
+            Pageable pageable,
+            TotalMode totalMode
+    ) {
+        if (totalMode == TotalMode.EXACT) {
+            return buildPagedResponse(propertyRepository.findAll(spec, pageable));
+        }
+
+        Slice<Property> slice = propertyRepository.findBy(spec, q -> q.slice(pageable));
+        if (totalMode == TotalMode.NONE) {
+            return buildSlicedResponse(slice, null);
+        }
+
+        long estimate = countEstimator.estimate(countKey, () -> propertyRepository.count(spec));
+        // szacunek nie może być mniejszy niż to, co właśnie widać na stronie
+        long seen = pageable.getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        return buildSlicedResponse(slice, Math.max(estimate, seen));
+    }
+
+    private PagedResponse<PropertyResponse> buildSlicedResponse(Slice<Property> slice, Long estimatedTotal) {
+        List<PropertyResponse> content = slice.getContent().stream()
+                .map(propertyMapper::toResponse)
+                .collect(Collectors.toList());
+
+        Integer totalPages = estimatedTotal == null
+                ? null
+                : (int) Math.ceil((double) estimatedTotal / slice.getSize());
+
+        return PagedResponse.<PropertyResponse>builder()
+                .content(content)
+                .pageNumber(slice.getNumber())
+                .pageSize(slice.getSize())
+                .totalElements(estimatedTotal)
+                .totalPages(totalPages)
+                .totalExact(estimatedTotal == null ? null : false)
+                .hasNext(slice.hasNext())
+                .last(slice.isLast())
+                .first(slice.isFirst())
+                .build();
+    }
+
+    private Pageable cardPageable(Integer page, Integer size, String sortBy, String direction) {
+        Sort.Direction sortDirection = Sort.Direction.valueOf(paginationValidator.validateSortDirection(direction));
+        return PageRequest.of(
+                paginationValidator.validatePageNumber(page),
+                paginationValidator.validatePageSize(size),
+                Sort.by(sortDirection, paginationValidator.validateSortField(sortBy))
+        );
+    }
+
+    // stała liczba zapytań niezależnie od rozmiaru strony: karty z właścicielem, okładki, ewentualnie COUNT
+    private PagedResponse<PropertyCardResponse> findCardPage(
+            Specification<Property> spec,
+            String countKey,
+            Pageable pageable,
+            TotalMode totalMode
+    ) {
+        List<PropertyCardResponse> rows = propertyRepository.findCards(
+                spec, pageable.getSort(), pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<PropertyCardResponse> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+
+        Map<Long, String> coverUrls = propertyRepository.findCoverImageUrls(
+                content.stream().map(PropertyCardResponse::getId).toList());
+        content.forEach(card -> card.setImageUrl(coverUrls.get(card.getId())));
+
+        return limitedPage(content, hasNext, spec, countKey, pageable, totalMode);
+    }
+
+    // jak findCardPage: jedno zapytanie o żądane kolumny, zdjęcia tylko gdy są wśród pól, ewentualnie COUNT
+    private PagedResponse<Map<String, Object>> findFieldsPage(
+            Specification<Property> spec,
+            String countKey,
+            Pageable pageable,
+            TotalMode totalMode,
+            Set<PropertyField> fields
+    ) {
+        List<PropertyResponse> rows = propertyRepository.findSparse(
+                spec, pageable.getSort(), pageable.getOffset(), pageable.getPageSize() + 1, fields);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<PropertyResponse> pageRows = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        attachImages(pageRows, fields);
+
+        List<Map<String, Object>> content = pageRows.stream()
+                .map(row -> PropertyField.project(row, fields))
+                .toList();
+        return limitedPage(content, hasNext, spec, countKey, pageable, totalMode);
+    }
+
+    private void attachImages(List<PropertyResponse> rows, Set<PropertyField> fields) {
+        if (!PropertyField.needsImages(fields)) {
+            return;
+        }
+        Map<Long, List<PropertyResponse.ImageInfo>> images = propertyRepository.findImages(
+                rows.stream().map(PropertyResponse::getId).toList());
+        rows.forEach(row -> {
+            List<PropertyResponse.ImageInfo> rowImages = images.getOrDefault(row.getId(), List.of());
+            row.setImages(rowImages);
+            row.setImageUrls(rowImages.stream().map(PropertyResponse.ImageInfo::getUrl).toList());
+        });
+    }
+
+    // strona pobrana z limitem pageSize + 1 - hasNext pochodzi z nadmiarowego wiersza
+    private <T> PagedResponse<T> limitedPage(
+            List<T> content,
+            boolean hasNext,
+            Specification<Property> spec,
+            String countKey,
+            Pageable pageable,
+            TotalMode totalMode
+    ) {
+        long seen = pageable.getOffset() + content.size();
+        Long total = switch (totalMode) {
+            case NONE -> null;
+            // ostatnia strona zna już dokładną liczbę - COUNT zbędny
+            case EXACT -> hasNext || content.isEmpty() && pageable.getOffset() > 0
+                    ? propertyRepository.count(spec)
+                    : seen;
+            case ESTIMATE -> Math.max(
+                    countEstimator.estimate(countKey, () -> propertyRepository.count(spec)),
+                    seen + (hasNext ? 1 : 0));
+        };
+
+        return PagedResponse.<T>builder()
+                .content(content)
+                .pageNumber(pageable.getPageNumber())
+                .pageSize(pageable.getPageSize())
+                .totalElements(total)
+                .totalPages(total == null ? null : (int) Math.ceil((double) total / pageable.getPageSize()))
+                .totalExact(total == null ? null : totalMode == TotalMode.EXACT)
+                .hasNext(hasNext)
+                .last(!hasNext)
+                .first(pageable.getPageNumber() == 0)
+                .build();
+    }
+
+    private CursorPagedResponse<PropertyResponse> buildCursorPagedResponse(
+            Specification<Property> spec,
+            String after,
+            Integer size,
+            String sortBy,
+            String direction
+    ) {
+        int pageSize = paginationValidator.validatePageSize(size);
+        String sortField = paginationValidator.validateCursorSortField(sortBy);
+        Sort.Direction sortDirection = Sort.Direction.valueOf(paginationValidator.validateSortDirection(direction));
+
+        Specification<Property> query = spec;
+        if (after != null && !after.isBlank()) {
+            PropertyCursor cursor = PropertyCursor.decode(after);
+            cursor.verifyMatches(sortField, sortDirection);
+            query = query.and(PropertySpecification.seekAfter(cursor));
+        }
+
+        Sort sort = Sort.by(sortDirection, sortField).and(Sort.by(sortDirection, "id"));
+        List<Property> rows = propertyRepository.findBy(query, q -> q.sortBy(sort).limit(pageSize + 1).all());
+
+        boolean hasNext = rows.size() > pageSize;
+        List<Property> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext
+                ? PropertyCursor.of(pageRows.get(pageRows.size() - 1), sortField, sortDirection).encode()
+                : null;
+
+        List<PropertyResponse> content = pageRows.stream()
+                .map(propertyMapper::toResponse)
+                .collect(Collectors.toList());
+
+        return CursorPagedResponse.<PropertyResponse>builder()
+                .content(content)
+                .pageSize(pageSize)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
 }
@@ -1,14 +1,25 @@
 package com.realestate.propertylistings.property;
 
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class PropertySpecification {
 
+    // powyżej tej liczby trafień lista id w IN (...) przestaje się opłacać - wracamy do LIKE
+    public static final int MAX_SEARCH_IDS_IN_QUERY = 10_000;
+
     public static Specification<Property> withFilters(PropertyFilterRequest filters) {
+        return withFilters(filters, null);
+    }
+
+    // searchIds != null: frazę rozwiązał już indeks wyszukiwania, zamiast LIKE filtrujemy po id
+    public static Specification<Property> withFilters(PropertyFilterRequest filters, Collection<Long> searchIds) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
@@ -19,7 +30,7 @@ public class PropertySpecification {
             if (filters.getCity() != null && !filters.getCity().isEmpty()) {
                 predicates.add(criteriaBuilder.equal(
                         criteriaBuilder.lower(root.get("city")),
-                        filters.getCity().toLowerCase()
+                        filters.getCity()
                 ));
             }
 
@@ -87,10 +98,16 @@ public class PropertySpecification {
                 ));
             }
 
+            if (filters.getMaxBathroom() != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(
+                        root.get("bathroomCount"), filters.getMaxBathroom()
+                ));
+            }
+
             if (filters.getStreet() != null && !filters.getStreet().isEmpty()) {
                 predicates.add(criteriaBuilder.like(
                         criteriaBuilder.lower(root.get("street")),
-                        "%" + filters.getStreet().toLowerCase() + "%"
+                        "%" + filters.getStreet() + "%"
                 ));
             }
 
@@ -100,8 +117,12 @@ public class PropertySpecification {
                 ));
             }
 
-            if (filters.getSearch() != null && !filters.getSearch().isEmpty()) {
-                String searchPattern = "%" + filters.getSearch().toLowerCase() + "%";
+            if (searchIds != null) {
+                predicates.add(searchIds.isEmpty()
+                        ? criteriaBuilder.disjunction()
+                        : root.get("id").in(searchIds));
+            } else if (filters.getSearch() != null && !filters.getSearch().isEmpty()) {
+                String searchPattern = "%" + filters.getSearch() + "%";
 
                 Predicate titleMatch = criteriaBuilder.like(
                         criteriaBuilder.lower(root.get("title")),
@@ -123,4 +144,53 @@ public class PropertySpecification {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    public static Specification<Property> all() {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+    }
+
+    // dokładne porównanie, żeby planner mógł użyć idx_city_active / idx_city_price
+    public static Specification<Property> activeInCity(String city) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                criteriaBuilder.isTrue(root.get("isActive")),
+                criteriaBuilder.equal(root.get("city"), city)
+        );
+    }
+
+    public static Specification<Property> ownedBy(Long ownerId) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("owner").get("id"), ownerId);
+    }
+
+    public static Specification<Property> withId(Long id) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("id"), id);
+    }
+
+    // (sortKey, id) za kursorem; dodatkowy warunek "<=" / ">=" pozwala plannerowi
+    // użyć zakresu na indeksie po kluczu sortowania zamiast OFFSET
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Property> seekAfter(PropertyCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            Expression<Comparable> key = root.get(cursor.sortBy());
+            Expression<Long> id = root.get("id");
+            Comparable value = cursor.value();
+
+            if (cursor.direction() == Sort.Direction.DESC) {
+                return criteriaBuilder.and(
+                        criteriaBuilder.lessThanOrEqualTo(key, value),
+                        criteriaBuilder.or(
+                                criteriaBuilder.lessThan(key, value),
+                                criteriaBuilder.lessThan(id, cursor.id())
+                        )
+                );
+            }
+
+            return criteriaBuilder.and(
+                    criteriaBuilder.greaterThanOrEqualTo(key, value),
+                    criteriaBuilder.or(
+                            criteriaBuilder.greaterThan(key, value),
+                            criteriaBuilder.greaterThan(id, cursor.id())
+                    )
+            );
+        };
+    }
 }
@@ -0,0 +1,37 @@
+package com.realestate.propertylistings.property;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Wersja odpowiedzi szczegółów ogłoszenia bez jej budowania: kolumny ogłoszenia (updatedAt),
+ * zdjęcia (imageRevision) i wbudowane dane właściciela (jego updatedAt).
+ */
+public record PropertyVersion(LocalDateTime updatedAt, Long imageRevision, LocalDateTime ownerUpdatedAt) {
+
+    public String eTag() {
+        return "W/\"" + Long.toHexString(epochMillis(updatedAt))
+                + "-" + Long.toHexString(imageRevision != null ? imageRevision : 0)
+                + "-" + Long.toHexString(epochMillis(ownerUpdatedAt)) + "\"";
+    }
+
+    // inna treść tej samej wersji danych (np. wybrane pola ?fields=) musi mieć inny ETag
+    public String eTag(String variant) {
+        String eTag = eTag();
+        return eTag.substring(0, eTag.length() - 1) + "-"
+                + DigestUtils.md5DigestAsHex(variant.getBytes(StandardCharsets.UTF_8)).substring(0, 8) + "\"";
+    }
+
+    // -1 = brak znacznika czasu, Last-Modified nie jest wtedy wysyłany
+    public long lastModified() {
+        long lastModified = Math.max(epochMillis(updatedAt), epochMillis(ownerUpdatedAt));
+        return lastModified > 0 ? lastModified : -1;
+    }
+
+    static long epochMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,7 @@
+package com.realestate.propertylistings.property;
+
+public enum TotalMode {
+    EXACT,
+    ESTIMATE,
+    NONE
+}
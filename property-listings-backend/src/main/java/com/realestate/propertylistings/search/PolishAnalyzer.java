@@ -0,0 +1,85 @@
+package com.realestate.propertylistings.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Tokenizacja + małe litery + usuwanie polskich znaków diakrytycznych + stop-words + lekki stemming końcówek.
+// Ta sama analiza jest stosowana do indeksu i do zapytań, więc "Łódź" trafia w "lodz", a "mieszkania" w "mieszkanie".
+public final class PolishAnalyzer {
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "aby", "ale", "bez", "by", "byc", "czy", "dla", "do", "i", "ich", "jak", "jest", "juz",
+            "lub", "na", "nad", "nie", "o", "od", "oraz", "po", "pod", "przez", "przy", "sa", "sie",
+            "ta", "tak", "te", "ten", "to", "tez", "u", "w", "we", "z", "za", "ze"
+    );
+
+    // od najdłuższych, żeby "ami" wygrało z "i"
+    private static final String[] SUFFIXES = {
+            "owie", "ami", "ach", "ego", "emu", "iej", "ich", "ymi", "imi",
+            "ow", "om", "em", "ej", "ie", "ia", "iu", "ym", "im",
+            "a", "e", "i", "o", "u", "y"
+    };
+
+    private PolishAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        StringBuilder token = new StringBuilder();
+        String lower = text.toLowerCase(Locale.forLanguageTag("pl"));
+        for (int i = 0; i < lower.length(); i++) {
+            char c = fold(lower.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (!token.isEmpty()) {
+                addTerm(terms, token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            addTerm(terms, token.toString());
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        if (STOP_WORDS.contains(token)) {
+            return;
+        }
+        terms.add(stem(token));
+    }
+
+    static String stem(String token) {
+        if (!Character.isLetter(token.charAt(0))) {
+            return token;
+        }
+        for (String suffix : SUFFIXES) {
+            if (token.endsWith(suffix) && token.length() - suffix.length() >= MIN_STEM_LENGTH) {
+                return token.substring(0, token.length() - suffix.length());
+            }
+        }
+        return token;
+    }
+
+    private static char fold(char c) {
+        return switch (c) {
+            case 'ą' -> 'a';
+            case 'ć' -> 'c';
+            case 'ę' -> 'e';
+            case 'ł' -> 'l';
+            case 'ń' -> 'n';
+            case 'ó' -> 'o';
+            case 'ś' -> 's';
+            case 'ź', 'ż' -> 'z';
+            default -> c;
+        };
+    }
+}
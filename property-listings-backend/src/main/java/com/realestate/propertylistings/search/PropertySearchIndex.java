@@ -0,0 +1,214 @@
+package com.realestate.propertylistings.search;
+
+import com.realestate.propertylistings.property.Property;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Indeks odwrócony aktywnych ogłoszeń (tytuł, opis, miasto) z rankingiem BM25F.
+// Pola mają wagi, a ważone częstości termów są sumowane przed nasyceniem BM25.
+@Component
+@Slf4j
+public class PropertySearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float CITY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final double PREFIX_MATCH_BOOST = 0.5;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private double totalLength;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+        log.info("Indeks wyszukiwania gotowy: {} dokumentów, {} termów", size(), termCount());
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Property property) {
+        if (!Boolean.TRUE.equals(property.getIsActive())) {
+            remove(property.getId());
+            return;
+        }
+
+        Map<String, Float> termWeights = new HashMap<>();
+        float length = addField(termWeights, property.getTitle(), TITLE_WEIGHT)
+                + addField(termWeights, property.getCity(), CITY_WEIGHT)
+                + addField(termWeights, property.getDescription(), DESCRIPTION_WEIGHT);
+        long createdAt = property.getCreatedAt() == null
+                ? 0
+                : property.getCreatedAt().toEpochSecond(ZoneOffset.UTC);
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(property.getId());
+            termWeights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(property.getId(), weight));
+            documents.put(property.getId(),
+                    new IndexedDocument(termWeights.keySet().toArray(String[]::new), length, createdAt));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long propertyId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(propertyId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // zwraca id wszystkich dokumentów zawierających każdy z termów zapytania (lub term o danym prefiksie)
+    public List<Long> search(String query, SearchSort sort) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(PolishAnalyzer.analyze(query)));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return List.of();
+            }
+
+            double averageLength = totalLength / documents.size();
+            Map<Long, Double> scores = null;
+
+            for (String term : terms) {
+                Map<Long, Double> termScores = scoreTerm(term, averageLength);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Comparator<Map.Entry<Long, Double>> newest = Comparator
+                    .comparingLong((Map.Entry<Long, Double> e) -> documents.get(e.getKey()).createdAt())
+                    .thenComparing(Map.Entry::getKey)
+                    .reversed();
+            Comparator<Map.Entry<Long, Double>> order = sort == SearchSort.NEWEST
+                    ? newest
+                    : Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(newest);
+
+            return scores.entrySet().stream()
+                    .sorted(order)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> scoreTerm(String term, double averageLength) {
+        Map<Long, Double> termScores = new HashMap<>();
+        int documentCount = documents.size();
+
+        Map<String, Map<Long, Float>> matches = term.length() >= MIN_PREFIX_LENGTH
+                ? postings.subMap(term, true, term + Character.MAX_VALUE, true)
+                : (postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of());
+
+        int expansions = 0;
+        for (Map.Entry<String, Map<Long, Float>> match : matches.entrySet()) {
+            if (expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            double boost = match.getKey().equals(term) ? 1.0 : PREFIX_MATCH_BOOST;
+            int documentFrequency = match.getValue().size();
+            double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+
+            match.getValue().forEach((id, frequency) -> {
+                double length = documents.get(id).length();
+                double tf = frequency * (K1 + 1)
+                        / (frequency + K1 * (1 - B + B * length / averageLength));
+                termScores.merge(id, boost * idf * tf, Math::max);
+            });
+        }
+        return termScores;
+    }
+
+    private void removeUnlocked(Long propertyId) {
+        IndexedDocument existing = documents.remove(propertyId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms()) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(propertyId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= existing.length();
+    }
+
+    private static float addField(Map<String, Float> termWeights, String text, float weight) {
+        List<String> terms = PolishAnalyzer.analyze(text);
+        for (String term : terms) {
+            termWeights.merge(term, weight, Float::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    private record IndexedDocument(String[] terms, float length, long createdAt) {
+    }
+}
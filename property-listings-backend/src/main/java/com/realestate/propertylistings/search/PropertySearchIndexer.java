@@ -0,0 +1,54 @@
+package com.realestate.propertylistings.search;
+
+import com.realestate.propertylistings.property.PropertyChangedEvent;
+import com.realestate.propertylistings.property.PropertyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PropertySearchIndexer {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final PropertySearchIndex searchIndex;
+    private final PropertyRepository propertyRepository;
+
+    @Value("${app.search.index.enabled:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Indeks wyszukiwania wyłączony - wyszukiwanie przez LIKE");
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        searchIndex.clear();
+
+        propertyRepository.forEachActiveBatch(REBUILD_BATCH_SIZE, batch -> batch.forEach(searchIndex::index));
+
+        searchIndex.markReady();
+        log.info("Przebudowa indeksu wyszukiwania zajęła {} ms", System.currentTimeMillis() - startTime);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        if (event.changeType() == PropertyChangedEvent.ChangeType.DELETED) {
+            searchIndex.remove(event.propertyId());
+        } else {
+            searchIndex.index(event.property());
+        }
+    }
+}
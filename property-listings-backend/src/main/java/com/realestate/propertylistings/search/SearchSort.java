@@ -0,0 +1,6 @@
+package com.realestate.propertylistings.search;
+
+public enum SearchSort {
+    RELEVANCE,
+    NEWEST
+}
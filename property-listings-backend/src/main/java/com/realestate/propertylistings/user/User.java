@@ -1,32 +1,51 @@
 package com.realestate.propertylistings.user;
 
+import com.realestate.propertylistings.auth.service.PrincipalCacheInvalidator;
+import com.realestate.propertylistings.property.PropertyCacheInvalidator;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 @Entity
+@EntityListeners({PropertyCacheInvalidator.class, PrincipalCacheInvalidator.class})
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class User implements UserDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
+    // logowanie i filtr JWT szukają po emailu - rozwiązywane przez cache naturalnych id
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String email;
 
@@ -56,6 +75,31 @@ public class User implements UserDetails {
     @UpdateTimestamp
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // dane właściciela (PropertyResponse.OwnerInfo) z ostatniego odczytu lub zapisu
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<String> loadedOwnerInfo;
+
+    // listenery z @EntityListeners są wołane przed tą metodą - przy @PostUpdate widzą jeszcze stary stan
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberOwnerInfo() {
+        loadedOwnerInfo = ownerInfo();
+    }
+
+    // bez zapamiętanego stanu (encja spoza kontekstu) zakładamy zmianę
+    public boolean ownerInfoChanged() {
+        return loadedOwnerInfo == null || !loadedOwnerInfo.equals(ownerInfo());
+    }
+
+    private List<String> ownerInfo() {
+        return Arrays.asList(email, firstName, lastName, phoneNumber);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singletonList(
@@ -3,10 +3,8 @@ package com.realestate.propertylistings.user;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
-import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     boolean existsByEmail(String email);
     List<User> findByRole(UserRole role);
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.realestate.propertylistings.user;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    Optional<User> findByEmail(String email);
+}
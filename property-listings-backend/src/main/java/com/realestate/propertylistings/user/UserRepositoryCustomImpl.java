@@ -0,0 +1,25 @@
+package com.realestate.propertylistings.user;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // przez naturalne id zamiast zapytania JPQL - trafienie w cache L2 nie dotyka bazy;
+    // fragment nie dziedziczy transakcji SimpleJpaRepository, a unwrap wymaga transakcyjnego EntityManagera
+    // (filtr JWT i logowanie na wątku password-hashing działają bez transakcji)
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+}
@@ -0,0 +1,76 @@
+package com.realestate.propertylistings.auth.service;
+
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtServiceTest {
+
+    private static final String SECRET = "bXlTZWNyZXRLZXkxMjM0NTY3ODkwMTIzNDU2Nzg5MDEyMzQ1Njc4OTAxMjM0NTY3ODkw";
+
+    private final User user = User.builder()
+            .id(3L)
+            .email("user@example.com")
+            .role(UserRole.AGENT)
+            .enabled(true)
+            .build();
+
+    @Test
+    void parseClaims_shouldReuseVerifiedClaimsFromCache() {
+        //given
+        JwtService jwtService = jwtService(60_000L, 16);
+        String token = jwtService.generateToken(user);
+
+        //when
+        Claims first = jwtService.parseClaims(token);
+        Claims second = jwtService.parseClaims(token);
+
+        //then
+        assertSame(first, second);
+        assertEquals("user@example.com", second.getSubject());
+        assertTrue(jwtService.isTokenValid(token, user));
+    }
+
+    @Test
+    void parseClaims_shouldRejectTamperedTokenEvenWhenOriginalIsCached() {
+        //given
+        JwtService jwtService = jwtService(60_000L, 16);
+        String token = jwtService.generateToken(user);
+        jwtService.parseClaims(token);
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        //then
+        assertThrows(SignatureException.class, () -> jwtService.parseClaims(tampered));
+    }
+
+    @Test
+    void parseClaims_shouldNotServeExpiredTokenFromCache() throws InterruptedException {
+        //given
+        JwtService jwtService = jwtService(1_000L, 16);
+        String token = jwtService.generateToken(user);
+        jwtService.parseClaims(token);
+
+        //when
+        Thread.sleep(1_100L);
+
+        //then
+        assertThrows(ExpiredJwtException.class, () -> jwtService.parseClaims(token));
+    }
+
+    private static JwtService jwtService(long expiration, int cacheEntries) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", expiration);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxEntries", cacheEntries);
+        jwtService.init();
+        return jwtService;
+    }
+}
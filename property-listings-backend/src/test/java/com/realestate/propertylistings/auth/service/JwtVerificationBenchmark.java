@@ -0,0 +1,89 @@
+package com.realestate.propertylistings.auth.service;
+
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Weryfikacja JWT na żądanie: dawna ścieżka (klucz i parser budowane przy każdym
+ * wywołaniu, trzy parsowania) kontra jedno parsowanie na gotowym parserze i z cache.
+ * Uruchomienie: main() z classpath testów.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "bXlTZWNyZXRLZXkxMjM0NTY3ODkwMTIzNDU2Nzg5MDEyMzQ1Njc4OTAxMjM0NTY3ODkw";
+
+    private JwtService singleParse;
+    private JwtService cached;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        user = User.builder().id(1L).email("agent@example.com").role(UserRole.AGENT).enabled(true).build();
+        singleParse = jwtService(0);
+        cached = jwtService(1024);
+        token = singleParse.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        String username = legacyClaims(token).getSubject();
+        return username.equals(user.getUsername())
+                && legacyClaims(token).getSubject().equals(user.getUsername())
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        Claims claims = singleParse.parseClaims(token);
+        return claims.getSubject().equals(user.getUsername()) && !claims.getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean cachedParse() {
+        Claims claims = cached.parseClaims(token);
+        return claims.getSubject().equals(user.getUsername()) && !claims.getExpiration().before(new Date());
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private static JwtService jwtService(int cacheEntries) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxEntries", cacheEntries);
+        jwtService.init();
+        return jwtService;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
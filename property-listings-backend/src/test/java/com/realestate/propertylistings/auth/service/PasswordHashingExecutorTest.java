@@ -0,0 +1,68 @@
+package com.realestate.propertylistings.auth.service;
+
+import com.realestate.propertylistings.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingExecutorTest {
+
+    @Test
+    void execute_shouldRejectWithRetryAfterWhenQueueIsFull() throws Exception {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 3, registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.execute("login", () -> {
+            started.countDown();
+            await(release);
+            return "first";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.execute("login", () -> "second"));
+        while (registry.get("auth.password.hashing.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        //when
+        TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class,
+                () -> executor.execute("login", () -> "third"));
+        release.countDown();
+
+        //then
+        assertEquals(3, rejected.getRetryAfterSeconds());
+        assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, registry.get("auth.password.hashing.rejected").counter().count());
+        assertEquals(2, registry.get("auth.password.hashing.time").tag("operation", "login").timer().count());
+        assertEquals(2, registry.get("auth.password.hashing.queue.time").tag("operation", "login").timer().count());
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_shouldPropagateTaskException() {
+        //given
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 4, 1, new SimpleMeterRegistry());
+
+        //then
+        assertThrows(IllegalStateException.class, () -> executor.execute("register", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        executor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.realestate.propertylistings.auth.service;
+
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRole;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class PrincipalResolverTest {
+
+    private UserDetailsServiceImpl userDetailsService;
+    private PrincipalCache principalCache;
+    private JwtService jwtService;
+    private User agent;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = mock(UserDetailsServiceImpl.class);
+        principalCache = new PrincipalCache(new ConcurrentMapCacheManager(PrincipalCache.CACHE_NAME));
+
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey",
+                "bXlTZWNyZXRLZXkxMjM0NTY3ODkwMTIzNDU2Nzg5MDEyMzQ1Njc4OTAxMjM0NTY3ODkw");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 60_000L);
+        jwtService.init();
+
+        agent = User.builder()
+                .id(7L)
+                .email("agent@example.com")
+                .role(UserRole.AGENT)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build();
+        when(userDetailsService.loadUserByUsername("agent@example.com")).thenReturn(agent);
+    }
+
+    @Test
+    void cacheMode_shouldHitDatabaseOncePerTokenUntilUserChanges() {
+        //given
+        PrincipalResolver resolver = new PrincipalResolver(userDetailsService, principalCache, "cache");
+        Claims claims = jwtService.parseClaims(jwtService.generateToken(agent));
+
+        //when
+        UserDetails first = resolver.resolve(claims);
+        UserDetails second = resolver.resolve(claims);
+
+        //then
+        assertSame(first, second);
+        verify(userDetailsService, times(1)).loadUserByUsername("agent@example.com");
+
+        //when
+        principalCache.evictUser(7L);
+        resolver.resolve(claims);
+
+        //then
+        verify(userDetailsService, times(2)).loadUserByUsername("agent@example.com");
+    }
+
+    @Test
+    void claimsMode_shouldBuildPrincipalWithoutDatabase() {
+        //given
+        PrincipalResolver resolver = new PrincipalResolver(userDetailsService, principalCache, "claims");
+        Claims claims = jwtService.parseClaims(jwtService.generateToken(agent));
+
+        //when
+        User principal = (User) resolver.resolve(claims);
+
+        //then
+        assertEquals(7L, principal.getId());
+        assertEquals("agent@example.com", principal.getUsername());
+        assertEquals(UserRole.AGENT, principal.getRole());
+        assertTrue(principal.isEnabled());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void claimsMode_shouldFallBackForTokensWithoutClaims() {
+        //given
+        PrincipalResolver resolver = new PrincipalResolver(userDetailsService, principalCache, "claims");
+        Claims claims = jwtService.parseClaims(jwtService.generateRefreshToken(agent));
+
+        //when
+        UserDetails principal = resolver.resolve(claims);
+
+        //then
+        assertSame(agent, principal);
+        verify(userDetailsService).loadUserByUsername("agent@example.com");
+    }
+
+    @Test
+    void claimsMode_shouldLoadAdminFromDatabase() {
+        //given
+        User admin = User.builder()
+                .id(8L)
+                .email("admin@example.com")
+                .role(UserRole.ADMIN)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build();
+        User demoted = User.builder()
+                .id(8L)
+                .email("admin@example.com")
+                .role(UserRole.AGENT)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build();
+        when(userDetailsService.loadUserByUsername("admin@example.com")).thenReturn(demoted);
+        PrincipalResolver resolver = new PrincipalResolver(userDetailsService, principalCache, "claims");
+        Claims claims = jwtService.parseClaims(jwtService.generateToken(admin));
+
+        //when
+        User principal = (User) resolver.resolve(claims);
+
+        //then
+        assertEquals(UserRole.AGENT, principal.getRole());
+        verify(userDetailsService).loadUserByUsername("admin@example.com");
+    }
+}
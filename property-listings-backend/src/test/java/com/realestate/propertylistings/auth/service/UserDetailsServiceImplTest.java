@@ -0,0 +1,52 @@
+package com.realestate.propertylistings.auth.service;
+
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRepository;
+import com.realestate.propertylistings.user.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class UserDetailsServiceImplTest {
+
+    @Test
+    void authenticate_shouldRehashPasswordWhenCostFactorWasRaised() {
+        //given
+        User user = User.builder()
+                .id(1L)
+                .email("agent@example.com")
+                .password(new BCryptPasswordEncoder(4).encode("secret123"))
+                .role(UserRole.AGENT)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build();
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail("agent@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl(userRepository);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(new BCryptPasswordEncoder(5));
+        provider.setUserDetailsPasswordService(userDetailsService);
+
+        //when
+        Authentication authentication = provider.authenticate(
+                new UsernamePasswordAuthenticationToken("agent@example.com", "secret123"));
+
+        //then
+        assertSame(user, authentication.getPrincipal());
+        assertTrue(user.getPassword().startsWith("$2a$05$"));
+        verify(userRepository).save(user);
+        verify(userRepository, times(1)).findByEmail("agent@example.com");
+    }
+}
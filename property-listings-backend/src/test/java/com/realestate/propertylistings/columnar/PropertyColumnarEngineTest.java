@@ -0,0 +1,155 @@
+package com.realestate.propertylistings.columnar;
+
+import com.realestate.propertylistings.property.Property;
+import com.realestate.propertylistings.property.PropertyFilterRequest;
+import com.realestate.propertylistings.property.PropertyRepository;
+import com.realestate.propertylistings.property.PropertySpecification;
+import com.realestate.propertylistings.property.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class PropertyColumnarEngineTest {
+
+    private static final List<String> CITIES = List.of("Warszawa", "Kraków", "Gdańsk", "Poznań");
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    private PropertyColumnarEngine columnarEngine;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(11);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 0; i < 400; i++) {
+            Property property = new Property();
+            property.setTitle("Ogłoszenie " + i);
+            // powtarzające się ceny sprawdzają rozstrzyganie remisów po id
+            property.setPrice(BigDecimal.valueOf(100_000L + random.nextInt(40) * 25_000L, 0)
+                    .add(new BigDecimal("0.50")));
+            property.setCity(CITIES.get(random.nextInt(CITIES.size())));
+            property.setPostalCode("00-" + (100 + random.nextInt(5)));
+            property.setTransactionType(random.nextBoolean() ? TransactionType.SALE : TransactionType.RENT);
+            property.setRoomCount(random.nextInt(10) == 0 ? null : 1 + random.nextInt(5));
+            property.setBathroomCount(1 + random.nextInt(2));
+            property.setFloorNumber(random.nextInt(8));
+            property.setAreaSqm(random.nextInt(10) == 0 ? null : 20.0 + random.nextInt(150));
+            property.setIsActive(random.nextInt(5) != 0);
+            property.setCreatedAt(start.plusMinutes(random.nextInt(10_000)));
+            propertyRepository.save(property);
+        }
+        propertyRepository.flush();
+
+        columnarEngine = new PropertyColumnarEngine();
+        propertyRepository.forEachActiveBatch(64, batch -> batch.forEach(columnarEngine::index));
+        columnarEngine.markReady();
+    }
+
+    @Test
+    void query_shouldMatchSpecificationFilteringAndOrdering() {
+        //given
+        PropertyFilterRequest filters = new PropertyFilterRequest();
+        filters.setCity("WARSZAWA");
+        filters.setMinPrice(new BigDecimal("150000.50"));
+        filters.setMaxPrice(new BigDecimal("900000"));
+        filters.setMinRooms(2);
+        filters.setMaxArea(150.0);
+
+        for (String sortBy : List.of("price", "createdAt", "areaSqm", "roomCount")) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                //when
+                ColumnarPage page = columnarEngine.query(filters, null, sortBy, direction, 0, 1_000).orElseThrow();
+
+                //then
+                List<Long> expected = propertyRepository.findAll(
+                                PropertySpecification.withFilters(filters),
+                                Sort.by(direction, sortBy).and(Sort.by(direction, "id")))
+                        .stream()
+                        .map(Property::getId)
+                        .toList();
+                assertEquals(expected, page.ids(), sortBy + " " + direction);
+                assertEquals(expected.size(), page.total());
+            }
+        }
+    }
+
+    @Test
+    void query_shouldReturnRequestedPageAndTotal() {
+        //given
+        PropertyFilterRequest filters = new PropertyFilterRequest();
+        filters.setType(TransactionType.RENT);
+        filters.setPostalCode("00-101");
+        ColumnarPage all = columnarEngine.query(filters, null, "price", Sort.Direction.ASC, 0, 1_000).orElseThrow();
+
+        //when
+        ColumnarPage second = columnarEngine.query(filters, null, "price", Sort.Direction.ASC, 5, 5).orElseThrow();
+
+        //then
+        assertEquals(all.total(), second.total());
+        assertEquals(all.ids().subList(5, Math.min(10, all.ids().size())), second.ids());
+    }
+
+    @Test
+    void query_shouldRestrictToSearchHits() {
+        //given
+        List<Long> activeIds = columnarEngine.query(new PropertyFilterRequest(), null, "price",
+                Sort.Direction.ASC, 0, 1_000).orElseThrow().ids();
+        List<Long> hits = List.of(activeIds.get(3), activeIds.get(1), 999_999L);
+        PropertyFilterRequest filters = new PropertyFilterRequest();
+        filters.setSearch("balkon");
+
+        //when
+        ColumnarPage page = columnarEngine.query(filters, hits, "price", Sort.Direction.ASC, 0, 20).orElseThrow();
+
+        //then
+        assertEquals(List.of(activeIds.get(1), activeIds.get(3)), page.ids());
+    }
+
+    @Test
+    void query_shouldDeclineUnsupportedFilters() {
+        PropertyFilterRequest street = new PropertyFilterRequest();
+        street.setStreet("Marszałkowska");
+        PropertyFilterRequest inactive = new PropertyFilterRequest();
+        inactive.setActiveOnly(false);
+        PropertyFilterRequest search = new PropertyFilterRequest();
+        search.setSearch("balkon");
+
+        assertEquals(Optional.empty(), columnarEngine.query(street, null, "price", Sort.Direction.ASC, 0, 20));
+        assertEquals(Optional.empty(), columnarEngine.query(inactive, null, "price", Sort.Direction.ASC, 0, 20));
+        assertEquals(Optional.empty(), columnarEngine.query(search, null, "price", Sort.Direction.ASC, 0, 20));
+        assertEquals(Optional.empty(),
+                columnarEngine.query(new PropertyFilterRequest(), null, "title", Sort.Direction.ASC, 0, 20));
+    }
+
+    @Test
+    void remove_shouldReuseSlotWithoutLeakingOldValues() {
+        //given
+        PropertyFilterRequest filters = new PropertyFilterRequest();
+        List<Long> before = columnarEngine.query(filters, null, "price", Sort.Direction.DESC, 0, 1_000)
+                .orElseThrow().ids();
+        Property property = propertyRepository.findById(before.get(0)).orElseThrow();
+
+        //when
+        columnarEngine.remove(property.getId());
+        property.setPrice(new BigDecimal("1.00"));
+        columnarEngine.index(property);
+
+        //then
+        List<Long> after = columnarEngine.query(filters, null, "price", Sort.Direction.DESC, 0, 1_000)
+                .orElseThrow().ids();
+        assertEquals(before.size(), after.size());
+        assertEquals(property.getId(), after.get(after.size() - 1));
+    }
+}
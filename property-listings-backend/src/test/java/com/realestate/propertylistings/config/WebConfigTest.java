@@ -0,0 +1,43 @@
+package com.realestate.propertylistings.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebConfigTest {
+
+    @Test
+    void openInView_shouldSkipOnlyStreamingUpload() {
+        //given
+        ExposedInterceptorRegistry registry = new ExposedInterceptorRegistry();
+
+        //when
+        new WebConfig().addInterceptors(registry);
+        List<Object> interceptors = registry.interceptors();
+
+        //then
+        assertEquals(1, interceptors.size());
+        MappedInterceptor openInView = assertInstanceOf(MappedInterceptor.class, interceptors.get(0));
+        assertFalse(openInView.matches(request("POST", "/api/properties/7/images/stream")));
+        assertTrue(openInView.matches(request("POST", "/api/properties/7/images")));
+        assertTrue(openInView.matches(request("GET", "/api/properties/7")));
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        ServletRequestPathUtils.parseAndCache(request);
+        return request;
+    }
+
+    private static class ExposedInterceptorRegistry extends InterceptorRegistry {
+        List<Object> interceptors() {
+            return getInterceptors();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.realestate.propertylistings.facet;
+
+import com.realestate.propertylistings.property.Property;
+import com.realestate.propertylistings.property.PropertyFilterRequest;
+import com.realestate.propertylistings.property.PropertyRepository;
+import com.realestate.propertylistings.property.PropertySpecification;
+import com.realestate.propertylistings.property.TransactionType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class PropertyFacetEngineTest {
+
+    private static final List<String> CITIES = List.of("Warszawa", "Kraków", "Gdańsk", "Poznań");
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private PropertyFacetEngine facetEngine;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            Property property = new Property();
+            property.setTitle("Ogłoszenie " + i);
+            property.setPrice(BigDecimal.valueOf(50_000L + random.nextInt(1_200_000)));
+            property.setCity(CITIES.get(random.nextInt(CITIES.size())));
+            property.setTransactionType(random.nextBoolean() ? TransactionType.SALE : TransactionType.RENT);
+            property.setRoomCount(random.nextInt(10) == 0 ? null : 1 + random.nextInt(5));
+            property.setBathroomCount(1 + random.nextInt(2));
+            property.setFloorNumber(random.nextInt(8));
+            property.setAreaSqm(20.0 + random.nextInt(150));
+            property.setIsActive(random.nextInt(5) != 0);
+            propertyRepository.save(property);
+        }
+        propertyRepository.flush();
+
+        facetEngine = new PropertyFacetEngine(List.of(
+                new BigDecimal("200000"), new BigDecimal("400000"), new BigDecimal("600000"),
+                new BigDecimal("800000"), new BigDecimal("1000000")));
+        propertyRepository.forEachActiveBatch(50, batch -> batch.forEach(facetEngine::index));
+        facetEngine.markReady();
+    }
+
+    @Test
+    void match_shouldSelectSameListingsAsSpecification() {
+        //given
+        PropertyFilterRequest filters = new PropertyFilterRequest();
+        filters.setCity("kraków");
+        filters.setType(TransactionType.SALE);
+        filters.setMinRooms(2);
+        filters.setMaxRooms(4);
+        filters.setMaxBathroom(1);
+        filters.setMinFloor(1);
+
+        //when
+        Optional<Roaring64Bitmap> match = facetEngine.match(filters);
+
+        //then
+        assertTrue(match.isPresent());
+        assertEquals(toBitmap(propertyRepository.findIds(PropertySpecification.withFilters(filters, null))),
+                match.get());
+    }
+
+    @Test
+    void match_shouldDeclinePriceFilter() {
+        PropertyFilterRequest filters = new PropertyFilterRequest();
+        filters.setMinPrice(new BigDecimal("100000"));
+
+        assertTrue(facetEngine.match(filters).isEmpty());
+    }
+
+    @Test
+    void count_shouldAgreeWithGroupByQueries() {
+        //given
+        PropertyFilterRequest filters = new PropertyFilterRequest();
+        filters.setMinPrice(new BigDecimal("150000"));
+        filters.setMaxArea(120.0);
+        Roaring64Bitmap candidates = toBitmap(
+                propertyRepository.findIds(PropertySpecification.withFilters(filters, null)));
+
+        //when
+        PropertyFacetsResponse facets = facetEngine.count(candidates);
+
+        //then
+        String where = " where p.isActive = true and p.price >= 150000 and p.areaSqm <= 120";
+        assertEquals(candidates.getLongCardinality(), facets.getTotal());
+        assertEquals(groupBy("select p.city, count(p) from Property p" + where + " group by p.city"),
+                facets.getCities());
+        assertEquals(groupBy("select p.transactionType, count(p) from Property p" + where
+                        + " group by p.transactionType"),
+                new HashMap<>(facets.getTransactionTypes()));
+        assertEquals(groupBy("select p.roomCount, count(p) from Property p" + where
+                        + " and p.roomCount is not null group by p.roomCount"),
+                new HashMap<>(facets.getRooms()));
+
+        for (PropertyFacetsResponse.PriceRange range : facets.getPriceRanges()) {
+            String jpql = "select count(p) from Property p" + where + " and p.price >= :from"
+                    + (range.getTo() != null ? " and p.price < :to" : "");
+            var query = entityManager.createQuery(jpql, Long.class).setParameter("from", range.getFrom());
+            if (range.getTo() != null) {
+                query.setParameter("to", range.getTo());
+            }
+            assertEquals(query.getSingleResult(), range.getCount(), "przedział od " + range.getFrom());
+        }
+    }
+
+    @Test
+    void remove_shouldDropListingFromEveryFacet() {
+        //given
+        Property property = propertyRepository.findAll().stream()
+                .filter(Property::getIsActive)
+                .findFirst()
+                .orElseThrow();
+        long before = facetEngine.count(toBitmap(List.of(property.getId()))).getTotal();
+
+        //when
+        facetEngine.remove(property.getId());
+        PropertyFacetsResponse after = facetEngine.count(toBitmap(List.of(property.getId())));
+
+        //then
+        assertEquals(1, before);
+        assertEquals(0, after.getTotal());
+        assertTrue(after.getCities().isEmpty());
+    }
+
+    @Test
+    void index_shouldAcceptIdsBeyondIntegerRange() {
+        //given
+        Property property = new Property();
+        property.setId(Integer.MAX_VALUE + 10L);
+        property.setTitle("Ogłoszenie z dużym id");
+        property.setPrice(new BigDecimal("300000"));
+        property.setCity("Zakopane");
+        property.setTransactionType(TransactionType.SALE);
+        property.setIsActive(true);
+        PropertyFilterRequest filters = new PropertyFilterRequest();
+        filters.setCity("ZAKOPANE");
+
+        //when
+        facetEngine.index(property);
+        Optional<Roaring64Bitmap> match = facetEngine.match(filters);
+        facetEngine.remove(property.getId());
+
+        //then
+        assertTrue(match.isPresent());
+        assertEquals(1, match.get().getLongCardinality());
+        assertTrue(match.get().contains(property.getId()));
+        assertTrue(facetEngine.match(filters).orElseThrow().isEmpty());
+    }
+
+    private Map<Object, Long> groupBy(String jpql) {
+        Map<Object, Long> result = new HashMap<>();
+        for (Tuple row : entityManager.createQuery(jpql, Tuple.class).getResultList()) {
+            result.put(row.get(0), row.get(1, Long.class));
+        }
+        return result;
+    }
+
+    private static Roaring64Bitmap toBitmap(List<Long> ids) {
+        Roaring64Bitmap bitmap = new Roaring64Bitmap();
+        ids.forEach(bitmap::addLong);
+        return bitmap;
+    }
+}
@@ -0,0 +1,251 @@
+package com.realestate.propertylistings.image;
+
+import com.realestate.propertylistings.property.Property;
+import com.realestate.propertylistings.property.PropertyChangedEvent;
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRole;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// licznik referencji i usuwanie plików działają na zatwierdzonych transakcjach
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ImageBlobStoreTest {
+
+    private static final byte[] PHOTO = jpeg(1);
+    private static final byte[] OTHER_PHOTO = jpeg(2);
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private ImageBlobRepository blobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private ImageStorage storage;
+    private ImageBlobStore blobStore;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        storage = new LocalShardedImageStorage(directory);
+        blobStore = new ImageBlobStore(blobRepository, storage);
+        email = UUID.randomUUID() + "@example.com";
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM PropertyImage i WHERE i.property.owner.email = :email")
+                    .setParameter("email", email).executeUpdate();
+            entityManager.createQuery("DELETE FROM Property p WHERE p.owner.email = :email")
+                    .setParameter("email", email).executeUpdate();
+            entityManager.createQuery("DELETE FROM User u WHERE u.email = :email")
+                    .setParameter("email", email).executeUpdate();
+            entityManager.createQuery("DELETE FROM ImageBlob").executeUpdate();
+        });
+    }
+
+    @Test
+    void release_shouldLeaveFileForCollectorAfterLastReference() throws IOException {
+        //given
+        StreamingImageWriter writer = new StreamingImageWriter(5_242_880);
+        StoredImageFile first = writer.write(new ByteArrayInputStream(PHOTO), storage);
+        StoredImageFile second = writer.write(new ByteArrayInputStream(PHOTO), storage);
+        tx.executeWithoutResult(status -> {
+            blobStore.acquire(first);
+            blobStore.acquire(second);
+        });
+
+        //then
+        assertEquals(first.fileName(), second.fileName());
+        assertEquals(1, fileCount());
+        ImageStorageReport report = blobRepository.storageReport();
+        assertEquals(1, report.blobs());
+        assertEquals(2, report.references());
+        assertEquals(PHOTO.length, report.bytesSaved());
+
+        //when
+        tx.executeWithoutResult(status -> blobStore.release(first.sha256()));
+
+        //then
+        assertEquals(1, blobRepository.findById(first.sha256()).orElseThrow().getRefCount());
+        assertTrue(storage.exists(first.fileName()));
+
+        //when
+        tx.executeWithoutResult(status -> blobStore.release(first.sha256()));
+
+        //then
+        assertFalse(blobRepository.existsById(first.sha256()));
+        // plik usuwa dopiero OrphanImageCollector po okresie karencji
+        assertTrue(storage.exists(first.fileName()));
+    }
+
+    @Test
+    void upsertReference_shouldCountConcurrentFirstUploadInsteadOfFailing() throws IOException {
+        //given
+        StoredImageFile stored = new StreamingImageWriter(5_242_880).write(new ByteArrayInputStream(PHOTO), storage);
+
+        //when
+        // oba uploady zobaczyły incrementRefCount == 0 i wstawiają ten sam hash
+        tx.executeWithoutResult(status -> blobRepository.upsertReference(stored.sha256(), stored.fileName(),
+                stored.contentType(), stored.size(), LocalDateTime.now()));
+        tx.executeWithoutResult(status -> blobRepository.upsertReference(stored.sha256(), stored.fileName(),
+                stored.contentType(), stored.size(), LocalDateTime.now()));
+
+        //then
+        assertEquals(2, blobRepository.findById(stored.sha256()).orElseThrow().getRefCount());
+    }
+
+    @Test
+    void migrateBatch_shouldMoveLegacyFilesAndCollapseDuplicates() throws IOException {
+        //given
+        Files.write(directory.resolve("a.jpg"), PHOTO);
+        Files.write(directory.resolve("b.jpg"), PHOTO);
+        Files.write(directory.resolve("c.jpg"), OTHER_PHOTO);
+        tx.executeWithoutResult(status -> {
+            Property property = persistProperty();
+            persistLegacyImage(property, "a.jpg");
+            persistLegacyImage(property, "b.jpg");
+            persistLegacyImage(property, "c.jpg");
+        });
+        ImageBlobMigrationService migrationService = new ImageBlobMigrationService(
+                imageRepository, blobRepository, blobStore, event -> { }, transactionManager, storage);
+        ReflectionTestUtils.setField(migrationService, "baseUrl", "/uploads/properties");
+
+        //when
+        ImageBlobMigrationResult result = migrationService.migrateBatch(0L, 10);
+
+        //then
+        assertEquals(3, result.migrated());
+        assertEquals(1, result.deduplicated());
+        assertEquals(PHOTO.length, result.bytesFreed());
+        assertEquals(0, result.remaining());
+        assertEquals(2, fileCount());
+        assertFalse(Files.exists(directory.resolve("a.jpg")));
+
+        List<PropertyImage> images = imageRepository.findAll().stream()
+                .filter(image -> image.getFileUrl().startsWith("/uploads/properties/"))
+                .toList();
+        assertTrue(images.stream().allMatch(ImageBlobStore::isContentAddressed));
+        assertTrue(images.stream().allMatch(image -> storage.exists(image.getFileName())));
+
+        ImageStorageReport report = migrationService.report();
+        assertEquals(2, report.blobs());
+        assertEquals(PHOTO.length, report.bytesSaved());
+        assertEquals(0, report.legacyImages());
+    }
+
+    @Test
+    void propertyDeleted_shouldRemoveLegacyFilesOnlyAfterCommit() throws IOException {
+        //given
+        Files.write(directory.resolve("legacy.jpg"), PHOTO);
+        Files.write(directory.resolve(ImageVariant.THUMBNAIL.fileName("legacy")), PHOTO);
+        Long propertyId = tx.execute(status -> {
+            Property property = persistProperty();
+            persistLegacyImage(property, "legacy.jpg");
+            return property.getId();
+        });
+
+        //when
+        tx.executeWithoutResult(status -> {
+            blobStore.onPropertyChanged(PropertyChangedEvent.deleted(entityManager.find(Property.class, propertyId)));
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertTrue(storage.exists("legacy.jpg"));
+
+        //when
+        tx.executeWithoutResult(status ->
+                blobStore.onPropertyChanged(PropertyChangedEvent.deleted(entityManager.find(Property.class, propertyId))));
+
+        //then
+        assertFalse(storage.exists("legacy.jpg"));
+        assertFalse(storage.exists(ImageVariant.THUMBNAIL.fileName("legacy")));
+    }
+
+    private Property persistProperty() {
+        User owner = User.builder()
+                .email(email)
+                .password("secret")
+                .firstName("Anna")
+                .lastName("Nowak")
+                .role(UserRole.AGENT)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build();
+        entityManager.persist(owner);
+
+        Property property = new Property();
+        property.setTitle("Mieszkanie");
+        property.setPrice(new BigDecimal("450000.00"));
+        property.setCity("Kraków");
+        property.setIsActive(true);
+        property.setOwner(owner);
+        entityManager.persist(property);
+        return property;
+    }
+
+    private void persistLegacyImage(Property property, String fileName) {
+        entityManager.persist(PropertyImage.builder()
+                .fileName(fileName)
+                .originalFileName(fileName)
+                .contentType("image/jpeg")
+                .fileSize(100L)
+                .fileUrl("http://old-host/uploads/properties/" + fileName)
+                .displayOrder(0)
+                .property(property)
+                .build());
+    }
+
+    private long fileCount() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static byte[] jpeg(int seed) {
+        byte[] bytes = new byte[4096];
+        new Random(seed).nextBytes(bytes);
+        bytes[0] = (byte) 0xFF;
+        bytes[1] = (byte) 0xD8;
+        bytes[2] = (byte) 0xFF;
+        return bytes;
+    }
+}
@@ -0,0 +1,107 @@
+package com.realestate.propertylistings.image;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageDerivativeGeneratorTest {
+
+    @TempDir
+    Path directory;
+
+    private final ImageDerivativeGenerator generator = new ImageDerivativeGenerator(0.82f);
+
+    @Test
+    void generate_shouldScaleEveryVariantIntoItsBox() throws IOException {
+        //given
+        Path original = directory.resolve("original.png");
+        ImageIO.write(new BufferedImage(4000, 2000, BufferedImage.TYPE_INT_ARGB), "png", original.toFile());
+
+        //when
+        Map<ImageVariant, Path> derivatives = generator.generate(original, directory, "original");
+
+        //then
+        assertEquals(3, derivatives.size());
+        assertSize(derivatives.get(ImageVariant.THUMBNAIL), 320, 160);
+        assertSize(derivatives.get(ImageVariant.CARD), 640, 320);
+        assertSize(derivatives.get(ImageVariant.FULL), 1600, 800);
+        assertTrue(Files.exists(directory.resolve("original_card.jpg")));
+    }
+
+    @Test
+    void generate_shouldNotUpscaleSmallImages() throws IOException {
+        //given
+        Path original = directory.resolve("small.jpg");
+        ImageIO.write(new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB), "jpg", original.toFile());
+
+        //when
+        Map<ImageVariant, Path> derivatives = generator.generate(original, directory, "small");
+
+        //then
+        assertSize(derivatives.get(ImageVariant.FULL), 200, 100);
+    }
+
+    @Test
+    void generate_shouldApplyExifOrientationAndDropMetadata() throws IOException {
+        //given
+        Path original = directory.resolve("rotated.jpg");
+        Files.write(original, withExifOrientation(jpeg(400, 200), 6));
+
+        //when
+        Map<ImageVariant, Path> derivatives = generator.generate(original, directory, "rotated");
+
+        //then
+        assertEquals(6, ImageDerivativeGenerator.readExifOrientation(original));
+        assertSize(derivatives.get(ImageVariant.FULL), 200, 400);
+        assertEquals(1, ImageDerivativeGenerator.readExifOrientation(derivatives.get(ImageVariant.FULL)));
+    }
+
+    @Test
+    void generate_shouldReturnEmptyMapForUnreadableFile() throws IOException {
+        //given
+        Path original = directory.resolve("broken.webp");
+        Files.write(original, new byte[]{'R', 'I', 'F', 'F', 0, 0, 0, 0});
+
+        //then
+        assertTrue(generator.generate(original, directory, "broken").isEmpty());
+    }
+
+    private static void assertSize(Path file, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        return out.toByteArray();
+    }
+
+    // segment APP1 z minimalnym TIFF (big endian) i jednym tagiem Orientation, wstawiony zaraz po SOI
+    private static byte[] withExifOrientation(byte[] jpeg, int orientation) {
+        ByteBuffer tiff = ByteBuffer.allocate(26);
+        tiff.putShort((short) 0x4D4D).putShort((short) 42).putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        tiff.putInt(0);
+
+        byte[] exifHeader = {'E', 'x', 'i', 'f', 0, 0};
+        int length = 2 + exifHeader.length + tiff.capacity();
+        ByteBuffer result = ByteBuffer.allocate(jpeg.length + 2 + length);
+        result.put(jpeg, 0, 2);
+        result.putShort((short) 0xFFE1).putShort((short) length).put(exifHeader).put(tiff.array());
+        result.put(jpeg, 2, jpeg.length - 2);
+        return result.array();
+    }
+}
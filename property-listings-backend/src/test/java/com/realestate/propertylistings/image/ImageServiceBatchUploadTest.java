@@ -0,0 +1,147 @@
+package com.realestate.propertylistings.image;
+
+import com.realestate.propertylistings.dto.ImageBatchUploadResponse;
+import com.realestate.propertylistings.dto.ImageUploadResponse;
+import com.realestate.propertylistings.property.Property;
+import com.realestate.propertylistings.property.PropertyChangedEvent;
+import com.realestate.propertylistings.property.PropertyRepository;
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class ImageServiceBatchUploadTest {
+
+    @TempDir
+    Path directory;
+
+    private ImageRepository imageRepository;
+    private PropertyRepository propertyRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private ImageService imageService;
+    private User owner;
+
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        imageRepository = mock(ImageRepository.class);
+        propertyRepository = mock(PropertyRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        imageService = new ImageService(
+                imageRepository,
+                propertyRepository,
+                eventPublisher,
+                mock(ImageBlobStore.class),
+                new ImageWritePool(4, 16),
+                new LocalShardedImageStorage(directory),
+                transactionManager
+        );
+        ReflectionTestUtils.setField(imageService, "baseUrl", "/uploads/properties");
+
+        owner = User.builder().id(1L).email("agent@example.com").role(UserRole.AGENT).build();
+        Property property = new Property();
+        property.setId(10L);
+        property.setOwner(owner);
+        when(propertyRepository.findById(10L)).thenReturn(Optional.of(property));
+
+        AtomicLong ids = new AtomicLong(100);
+        when(imageRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PropertyImage> images = invocation.getArgument(0);
+            images.forEach(image -> image.setId(ids.incrementAndGet()));
+            return images;
+        });
+    }
+
+    @Test
+    void uploadImages_shouldAuthorizeOnceSaveInOneBatchAndReportPartialFailures() {
+        //given
+        List<MultipartFile> files = List.of(
+                jpeg("a.jpg", 1),
+                new MockMultipartFile("files", "notes.txt", "image/jpeg", "to nie jest zdjęcie".getBytes()),
+                jpeg("b.jpg", 2),
+                new MockMultipartFile("files", "empty.jpg", "image/jpeg", new byte[0])
+        );
+
+        //when
+        ImageBatchUploadResponse response = imageService.uploadImages(10L, files, owner);
+
+        //then
+        assertEquals(2, response.getUploaded());
+        assertEquals(2, response.getFailed());
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertFalse(response.getResults().get(1).isSuccess());
+        assertNotNull(response.getResults().get(1).getError());
+        assertEquals(102L, response.getResults().get(2).getImage().getId());
+        assertEquals(2, response.getResults().get(2).getImage().getDisplayOrder());
+        assertFalse(response.getResults().get(3).isSuccess());
+
+        verify(propertyRepository, times(1)).findById(10L);
+        verify(imageRepository, times(1)).saveAll(anyList());
+        verify(imageRepository, never()).save(any());
+        verify(eventPublisher, times(2)).publishEvent(any(ImageUploadedEvent.class));
+        // jedna zmiana imageRevision na cały batch - indeksy w pamięci odświeżają updatedAt
+        verify(eventPublisher, times(1)).publishEvent(any(PropertyChangedEvent.class));
+    }
+
+    @Test
+    void uploadImageStream_shouldReadBodyBetweenShortTransactions() throws Exception {
+        //given
+        when(imageRepository.save(any())).thenAnswer(invocation -> {
+            PropertyImage image = invocation.getArgument(0);
+            image.setId(200L);
+            return image;
+        });
+        AtomicInteger commitsBeforeRead = new AtomicInteger(-1);
+        InputStream body = new FilterInputStream(jpeg("c.jpg", 3).getInputStream()) {
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                commitsBeforeRead.compareAndSet(-1, (int) mockingDetails(transactionManager).getInvocations().stream()
+                        .filter(invocation -> invocation.getMethod().getName().equals("commit"))
+                        .count());
+                return super.read(buffer, offset, length);
+            }
+        };
+
+        //when
+        ImageUploadResponse response = imageService.uploadImageStream(10L, body, "c.jpg", 0, owner);
+
+        //then
+        assertEquals(200L, response.getId());
+        // sprawdzenie uprawnień zatwierdzone przed pierwszym odczytem body, zapis wiersza po nim
+        assertEquals(1, commitsBeforeRead.get());
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    private static MockMultipartFile jpeg(String name, int seed) {
+        byte[] bytes = new byte[1024];
+        new Random(seed).nextBytes(bytes);
+        bytes[0] = (byte) 0xFF;
+        bytes[1] = (byte) 0xD8;
+        bytes[2] = (byte) 0xFF;
+        return new MockMultipartFile("files", name, "image/jpeg", bytes);
+    }
+}
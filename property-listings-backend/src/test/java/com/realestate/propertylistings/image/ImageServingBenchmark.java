@@ -0,0 +1,125 @@
+package com.realestate.propertylistings.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Przepustowość serwowania miniatury 20 KB i zdjęcia 400 KB: dotychczasowy handler zasobów
+ * z WebConfig kontra ImageServingController, dla pełnego GET oraz warunkowego GET z ETagiem
+ * (przeglądarka z ciepłym cache). Mierzy sam handler, bez sieci.
+ * Uruchomienie: main() z classpath testów.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ImageServingBenchmark {
+
+    private static final String HASH = "cd".repeat(32);
+
+    @Param({"thumb", "full"})
+    public String file;
+
+    private Path uploadDir;
+    private String fileName;
+    private ResourceHttpRequestHandler resourceHandler;
+    private ImageServingController controller;
+    private String resourceEtag;
+    private String controllerEtag;
+
+    @Setup
+    public void setUp() throws Exception {
+        uploadDir = Files.createTempDirectory("serving-bench");
+        fileName = "thumb".equals(file) ? HASH + "_thumb.jpg" : HASH + ".jpg";
+        byte[] bytes = new byte["thumb".equals(file) ? 20 * 1024 : 400 * 1024];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        Files.write(uploadDir.resolve(fileName), bytes);
+
+        resourceHandler = new ResourceHttpRequestHandler();
+        resourceHandler.setLocations(List.of(new FileSystemResource(uploadDir.toString() + "/")));
+        resourceHandler.setServletContext(new MockServletContext());
+        resourceHandler.afterPropertiesSet();
+
+        controller = new ImageServingController(new LocalShardedImageStorage(uploadDir),
+                new HotImageCache(64 * 1024 * 1024, 256 * 1024, new SimpleMeterRegistry()));
+
+        resourceEtag = resourceHandlerGet(null).getHeader(HttpHeaders.ETAG);
+        controllerEtag = controllerGet(null).getHeader(HttpHeaders.ETAG);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(uploadDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse resourceHandlerFull() throws Exception {
+        return resourceHandlerGet(null);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse resourceHandlerConditional() throws Exception {
+        return resourceHandlerGet(resourceEtag);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse controllerFull() throws Exception {
+        return controllerGet(null);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse controllerConditional() throws Exception {
+        return controllerGet(controllerEtag);
+    }
+
+    private MockHttpServletResponse resourceHandlerGet(String etag) throws Exception {
+        MockHttpServletRequest request = request(etag);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, fileName);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        resourceHandler.handleRequest(request, response);
+        return response;
+    }
+
+    private MockHttpServletResponse controllerGet(String etag) throws Exception {
+        MockHttpServletRequest request = request(etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(fileName, request, response);
+        return response;
+    }
+
+    private MockHttpServletRequest request(String etag) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/properties/" + fileName);
+        if (etag != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        return request;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ImageServingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,117 @@
+package com.realestate.propertylistings.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ImageServingControllerTest {
+
+    private static final String HASH = "ab".repeat(32);
+
+    @TempDir
+    Path uploadDir;
+
+    private MockMvc mockMvc;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        ImageStorage storage = new LocalShardedImageStorage(uploadDir);
+        // oryginał w podkatalogu shardu, miniatura jeszcze w płaskim układzie sprzed migracji
+        Path staged = Files.write(storage.stagingDirectory().resolve("original"), content);
+        storage.store(HASH + ".jpg", staged, "image/jpeg");
+        Files.write(uploadDir.resolve(HASH + "_thumb.jpg"), content);
+        HotImageCache hotCache = new HotImageCache(1024 * 1024, 64 * 1024, new SimpleMeterRegistry());
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new ImageServingController(storage, hotCache))
+                .build();
+    }
+
+    @Test
+    void serve_shouldReturnImmutableResponseWithContentHashEtag() throws Exception {
+        //when
+        MvcResult result = mockMvc.perform(get("/uploads/properties/" + HASH + ".jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andReturn();
+
+        //then
+        assertArrayEquals(content, result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void serve_shouldReturnNotModifiedForMatchingEtag() throws Exception {
+        mockMvc.perform(get("/uploads/properties/" + HASH + "_thumb.jpg")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "-thumb\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void serve_shouldReturnRequestedByteRange() throws Exception {
+        //when
+        MvcResult result = mockMvc.perform(get("/uploads/properties/" + HASH + ".jpg")
+                        .header(HttpHeaders.RANGE, "bytes=100-199"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/1000"))
+                .andReturn();
+
+        //then
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void serve_shouldRejectUnsatisfiableRange() throws Exception {
+        mockMvc.perform(get("/uploads/properties/" + HASH + ".jpg")
+                        .header(HttpHeaders.RANGE, "bytes=5000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */1000"));
+    }
+
+    @Test
+    void serve_shouldRejectRangeBeyondLong() throws Exception {
+        mockMvc.perform(get("/uploads/properties/" + HASH + ".jpg")
+                        .header(HttpHeaders.RANGE, "bytes=99999999999999999999-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */1000"));
+    }
+
+    @Test
+    void serve_shouldServeHotThumbnailAfterFileIsCached() throws Exception {
+        //given
+        mockMvc.perform(get("/uploads/properties/" + HASH + "_thumb.jpg")).andExpect(status().isOk());
+
+        //when
+        MvcResult result = mockMvc.perform(get("/uploads/properties/" + HASH + "_thumb.jpg"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //then
+        assertArrayEquals(content, result.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void serve_shouldReturnNotFoundForUnsafeOrMissingNames() throws Exception {
+        mockMvc.perform(get("/uploads/properties/..%2Fsecret.jpg")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/uploads/properties/missing.jpg")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,93 @@
+package com.realestate.propertylistings.image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalShardedImageStorageTest {
+
+    private static final String HASH_NAME = "ab12" + "0".repeat(60) + ".jpg";
+
+    @TempDir
+    Path directory;
+
+    private LocalShardedImageStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalShardedImageStorage(directory);
+    }
+
+    @Test
+    void shardedKey_shouldUseTwoLevelsFromNamePrefix() {
+        assertEquals("ab/12/" + HASH_NAME, ImageStorage.shardedKey(HASH_NAME));
+        assertEquals("3f/2a/3f2a9c1e-uuid.png", ImageStorage.shardedKey("3f2a9c1e-uuid.png"));
+        assertTrue(ImageStorage.shardedKey("Zdjęcie.jpg").matches("[0-9a-f]{2}/[0-9a-f]{2}/Zdjęcie\\.jpg"));
+    }
+
+    @Test
+    void store_shouldMoveIntoShardAndSkipDuplicate() throws IOException {
+        //given
+        Path first = Files.write(storage.stagingDirectory().resolve("first"), new byte[]{1, 2, 3});
+        Path second = Files.write(storage.stagingDirectory().resolve("second"), new byte[]{1, 2, 3});
+
+        //when
+        storage.store(HASH_NAME, first, "image/jpeg");
+        storage.store(HASH_NAME, second, "image/jpeg");
+
+        //then
+        assertTrue(Files.isRegularFile(directory.resolve("ab/12/" + HASH_NAME)));
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertEquals(directory.resolve("ab/12/" + HASH_NAME), storage.localPath(HASH_NAME).orElseThrow());
+    }
+
+    @Test
+    void migrateBatch_shouldMoveFlatFilesWhileTheyStayReadable() throws IOException {
+        //given
+        Files.write(directory.resolve("a1b2-legacy.jpg"), new byte[]{7});
+        Files.write(directory.resolve("c3d4-legacy.png"), new byte[]{8});
+        Files.write(directory.resolve(".upload-123.tmp"), new byte[]{9});
+        assertTrue(storage.exists("a1b2-legacy.jpg"));
+        ImageLayoutMigrationService migrationService =
+                new ImageLayoutMigrationService(storage, directory.toString());
+
+        //when
+        ImageLayoutMigrationResult firstBatch = migrationService.migrateBatch(1);
+        ImageLayoutMigrationResult secondBatch = migrationService.migrateBatch(10);
+
+        //then
+        assertEquals(1, firstBatch.moved());
+        assertTrue(firstBatch.remaining());
+        assertEquals(1, secondBatch.moved());
+        assertFalse(secondBatch.remaining());
+        assertTrue(Files.isRegularFile(directory.resolve("a1/b2/a1b2-legacy.jpg")));
+        assertTrue(Files.isRegularFile(directory.resolve("c3/d4/c3d4-legacy.png")));
+        assertFalse(Files.exists(directory.resolve("a1b2-legacy.jpg")));
+        assertTrue(Files.exists(directory.resolve(".upload-123.tmp")));
+        try (InputStream in = storage.open("a1b2-legacy.jpg")) {
+            assertArrayEquals(new byte[]{7}, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void copyAndDelete_shouldHandleBothLayouts() throws IOException {
+        //given
+        Files.write(directory.resolve("legacy.jpg"), new byte[]{5});
+
+        //when
+        storage.copy("legacy.jpg", HASH_NAME);
+        storage.delete("legacy.jpg");
+
+        //then
+        assertFalse(storage.exists("legacy.jpg"));
+        assertTrue(storage.exists(HASH_NAME));
+    }
+}
@@ -0,0 +1,196 @@
+package com.realestate.propertylistings.image;
+
+import com.realestate.propertylistings.property.Property;
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrphanImageCollectorTest {
+
+    private static final String REFERENCED = "aa01" + "1".repeat(60);
+    private static final String ORPHAN = "aa01" + "2".repeat(60);
+    private static final String FRESH_ORPHAN = "bb02" + "3".repeat(60);
+    private static final String LEGACY = "cc03d4e5-0000-0000-0000-000000000000";
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private ImageBlobRepository blobRepository;
+
+    @Autowired
+    private ImageGcCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private ImageStorage storage;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        storage = new LocalShardedImageStorage(directory);
+        email = UUID.randomUUID() + "@example.com";
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM PropertyImage i WHERE i.property.owner.email = :email")
+                    .setParameter("email", email).executeUpdate();
+            entityManager.createQuery("DELETE FROM Property p WHERE p.owner.email = :email")
+                    .setParameter("email", email).executeUpdate();
+            entityManager.createQuery("DELETE FROM User u WHERE u.email = :email")
+                    .setParameter("email", email).executeUpdate();
+            entityManager.createQuery("DELETE FROM ImageBlob").executeUpdate();
+            entityManager.createQuery("DELETE FROM ImageGcCheckpoint").executeUpdate();
+        });
+    }
+
+    @Test
+    void runBatch_shouldDeleteOnlyOldUnreferencedFilesAndReportReclaimedBytes() throws IOException {
+        //given
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        writeFile(REFERENCED + ".jpg", 100, old);
+        writeFile(ImageVariant.THUMBNAIL.fileName(REFERENCED), 10, old);
+        writeFile(ORPHAN + ".jpg", 200, old);
+        writeFile(ImageVariant.CARD.fileName(ORPHAN), 20, old);
+        writeFile(FRESH_ORPHAN + ".png", 300, Instant.now());
+        writeFile(LEGACY + ".jpg", 400, old);
+        writeFile(ImageVariant.FULL.fileName(LEGACY), 40, old);
+        tx.executeWithoutResult(status -> {
+            Property property = persistProperty();
+            persistImage(property, REFERENCED + ".jpg", REFERENCED);
+            persistImage(property, LEGACY + ".jpg", null);
+            blobRepository.save(ImageBlob.builder().contentHash(REFERENCED).fileName(REFERENCED + ".jpg")
+                    .contentType("image/jpeg").size(100L).refCount(1).build());
+        });
+
+        //when
+        ImageGcReport report = collector(OrphanImageCollector.SHARD_COUNT, 100).runBatch();
+
+        //then
+        assertFalse(storage.exists(ORPHAN + ".jpg"));
+        assertFalse(storage.exists(ImageVariant.CARD.fileName(ORPHAN)));
+        assertTrue(storage.exists(REFERENCED + ".jpg"));
+        assertTrue(storage.exists(ImageVariant.THUMBNAIL.fileName(REFERENCED)));
+        assertTrue(storage.exists(FRESH_ORPHAN + ".png"));
+        assertTrue(storage.exists(LEGACY + ".jpg"));
+        assertTrue(storage.exists(ImageVariant.FULL.fileName(LEGACY)));
+        assertEquals(1, report.completedPasses());
+        assertEquals(0, report.nextShard());
+        assertEquals(2, report.lastPassDeletedFiles());
+        assertEquals(220, report.lastPassReclaimedBytes());
+        assertEquals(220, report.totalReclaimedBytes());
+    }
+
+    @Test
+    void runBatch_shouldResumeFromCheckpointWhenDeleteLimitIsReached() throws IOException {
+        //given
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        writeFile(ORPHAN + ".jpg", 200, old);
+        writeFile(ImageVariant.CARD.fileName(ORPHAN), 20, old);
+        int orphanShard = Integer.parseInt("aa01", 16);
+        checkpointRepository.save(checkpointAt(orphanShard));
+
+        //when
+        ImageGcReport first = collector(4, 1).runBatch();
+        ImageGcReport second = collector(4, 1).runBatch();
+
+        //then
+        assertEquals(orphanShard, first.nextShard());
+        assertEquals(1, first.passDeletedFiles());
+        assertEquals(orphanShard + 4, second.nextShard());
+        assertEquals(2, second.passDeletedFiles());
+        assertEquals(0, storage.listShard("aa/01").size());
+    }
+
+    private OrphanImageCollector collector(int shardsPerRun, int maxDeletes) {
+        return new OrphanImageCollector(storage, imageRepository, blobRepository, checkpointRepository,
+                new SimpleMeterRegistry(), true, shardsPerRun, maxDeletes, Duration.ofHours(6));
+    }
+
+    private static ImageGcCheckpoint checkpointAt(int shard) {
+        ImageGcCheckpoint checkpoint = ImageGcCheckpoint.initial();
+        checkpoint.setNextShard(shard);
+        checkpoint.setPassStartedAt(LocalDateTime.now());
+        return checkpoint;
+    }
+
+    private void writeFile(String fileName, int size, Instant modified) throws IOException {
+        Path path = directory.resolve(ImageStorage.shardedKey(fileName));
+        Files.createDirectories(path.getParent());
+        Files.write(path, new byte[size]);
+        Files.setLastModifiedTime(path, FileTime.from(modified));
+    }
+
+    private Property persistProperty() {
+        User owner = User.builder()
+                .email(email)
+                .password("secret")
+                .firstName("Anna")
+                .lastName("Nowak")
+                .role(UserRole.AGENT)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build();
+        entityManager.persist(owner);
+
+        Property property = new Property();
+        property.setTitle("Mieszkanie");
+        property.setPrice(new BigDecimal("450000.00"));
+        property.setCity("Kraków");
+        property.setIsActive(true);
+        property.setOwner(owner);
+        entityManager.persist(property);
+        return property;
+    }
+
+    private void persistImage(Property property, String fileName, String contentHash) {
+        entityManager.persist(PropertyImage.builder()
+                .fileName(fileName)
+                .originalFileName(fileName)
+                .contentType("image/jpeg")
+                .fileSize(100L)
+                .fileUrl("/uploads/properties/" + fileName)
+                .contentHash(contentHash)
+                .displayOrder(0)
+                .property(property)
+                .build());
+    }
+}
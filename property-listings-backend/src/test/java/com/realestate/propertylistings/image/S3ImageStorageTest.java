@@ -0,0 +1,171 @@
+package com.realestate.propertylistings.image;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// zamiast MinIO: minimalny serwer S3 (path-style PUT/GET/HEAD/DELETE i kopia) w pamięci
+public class S3ImageStorageTest {
+
+    private static final String HASH_NAME = "ab12" + "0".repeat(60) + ".jpg";
+
+    @TempDir
+    Path localRoot;
+
+    private HttpServer server;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private S3Client client;
+    private S3ImageStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        client = S3Client.builder()
+                .endpointOverride(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                .forcePathStyle(true)
+                .region(Region.EU_CENTRAL_1)
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create("test-key", "test-secret")))
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .responseChecksumValidation(ResponseChecksumValidation.WHEN_REQUIRED)
+                .build();
+        storage = new S3ImageStorage(client, "images", localRoot);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void store_shouldPutObjectUnderShardedKeyWithSignature() throws IOException {
+        //given
+        Path staged = Files.write(storage.stagingDirectory().resolve("upload"), new byte[]{1, 2, 3});
+
+        //when
+        storage.store(HASH_NAME, staged, "image/jpeg");
+
+        //then
+        assertArrayEquals(new byte[]{1, 2, 3}, objects.get("/images/ab/12/" + HASH_NAME));
+        assertFalse(Files.exists(staged));
+        assertTrue(storage.exists(HASH_NAME));
+        assertTrue(authorizations.get(0).startsWith("AWS4-HMAC-SHA256 Credential=test-key/"));
+        assertTrue(authorizations.get(0).contains("/eu-central-1/s3/aws4_request"));
+        try (InputStream in = storage.open(HASH_NAME)) {
+            assertArrayEquals(new byte[]{1, 2, 3}, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void copy_shouldUploadLegacyFlatFileAndDeleteBoth() throws IOException {
+        //given
+        Files.write(localRoot.resolve("legacy.jpg"), new byte[]{9});
+        assertTrue(storage.localPath("legacy.jpg").isPresent());
+
+        //when
+        storage.copy("legacy.jpg", HASH_NAME);
+        storage.delete("legacy.jpg");
+
+        //then
+        assertArrayEquals(new byte[]{9}, objects.get("/images/ab/12/" + HASH_NAME));
+        assertFalse(storage.exists("legacy.jpg"));
+        assertThrows(NoSuchFileException.class, () -> storage.open("legacy.jpg"));
+    }
+
+    @Test
+    void copy_shouldUseServerSideCopyForObjectsInBucket() throws IOException {
+        //given
+        objects.put("/images/" + ImageStorage.shardedKey("source.jpg"), new byte[]{4});
+
+        //when
+        storage.copy("source.jpg", HASH_NAME);
+
+        //then
+        assertArrayEquals(new byte[]{4}, objects.get("/images/ab/12/" + HASH_NAME));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+        String key = exchange.getRequestURI().getPath();
+        byte[] requestBody = exchange.getRequestBody().readAllBytes();
+        String contentSha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (contentSha256 != null && contentSha256.startsWith("STREAMING-")) {
+            requestBody = decodeAwsChunked(requestBody);
+        }
+        switch (exchange.getRequestMethod()) {
+            case "PUT" -> {
+                String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+                objects.put(key, copySource != null
+                        ? objects.get("/" + URLDecoder.decode(copySource, StandardCharsets.UTF_8).replaceFirst("^/", ""))
+                        : requestBody);
+                exchange.sendResponseHeaders(200, -1);
+            }
+            case "HEAD" -> exchange.sendResponseHeaders(objects.containsKey(key) ? 200 : 404, -1);
+            case "GET" -> {
+                byte[] object = objects.get(key);
+                if (object == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, object.length);
+                    exchange.getResponseBody().write(object);
+                }
+            }
+            case "DELETE" -> {
+                objects.remove(key);
+                exchange.sendResponseHeaders(204, -1);
+            }
+            default -> exchange.sendResponseHeaders(405, -1);
+        }
+        exchange.close();
+    }
+
+    // SDK po http wysyła treść w kawałkach "rozmiar-hex;chunk-signature=...\r\n<dane>\r\n"
+    private static byte[] decodeAwsChunked(byte[] body) {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < body.length) {
+            int lineEnd = position;
+            while (body[lineEnd] != '\r') {
+                lineEnd++;
+            }
+            String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.substring(0, header.indexOf(';')), 16);
+            if (size == 0) {
+                break;
+            }
+            decoded.write(body, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+        return decoded.toByteArray();
+    }
+}
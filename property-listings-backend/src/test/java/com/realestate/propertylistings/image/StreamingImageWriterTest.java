@@ -0,0 +1,88 @@
+package com.realestate.propertylistings.image;
+
+import com.realestate.propertylistings.exception.FileUploadException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingImageWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private ImageStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalShardedImageStorage(directory);
+    }
+
+    @Test
+    void write_shouldStoreFileWithSniffedTypeAndDigest() throws Exception {
+        //given
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB), "png", png);
+        byte[] bytes = png.toByteArray();
+
+        //when
+        StoredImageFile stored = new StreamingImageWriter(5_242_880).write(new ByteArrayInputStream(bytes), storage);
+
+        //then
+        assertEquals("image/png", stored.contentType());
+        assertTrue(stored.fileName().endsWith(".png"));
+        assertEquals(bytes.length, stored.size());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)), stored.sha256());
+        assertArrayEquals(bytes, Files.readAllBytes(directory.resolve(ImageStorage.shardedKey(stored.fileName()))));
+        assertEquals(1, fileCount());
+    }
+
+    @Test
+    void write_shouldRejectNonImageWithoutLeavingFiles() throws IOException {
+        //given
+        byte[] script = "<?php system($_GET['c']); ?>".getBytes();
+
+        //then
+        assertThrows(FileUploadException.class,
+                () -> new StreamingImageWriter(5_242_880).write(new ByteArrayInputStream(script), storage));
+        assertEquals(0, fileCount());
+    }
+
+    @Test
+    void write_shouldRejectOversizedStream() throws IOException {
+        //given
+        byte[] jpeg = new byte[2048];
+        jpeg[0] = (byte) 0xFF;
+        jpeg[1] = (byte) 0xD8;
+        jpeg[2] = (byte) 0xFF;
+
+        //then
+        assertThrows(FileUploadException.class,
+                () -> new StreamingImageWriter(1024).write(new ByteArrayInputStream(jpeg), storage));
+        assertEquals(0, fileCount());
+    }
+
+    @Test
+    void detect_shouldRecognizeWebp() {
+        byte[] header = {'R', 'I', 'F', 'F', 1, 2, 3, 4, 'W', 'E', 'B', 'P'};
+        assertEquals("image/webp", ImageTypeSniffer.detect(header, header.length).orElseThrow());
+    }
+
+    private long fileCount() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.realestate.propertylistings.image;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Operacje dyskowe na jeden upload 4 MB: dawna ścieżka (spool multipart do tmp, Files.copy
+ * do katalogu zdjęć) kontra zapis strumieniowy StreamingImageWriter.
+ * Po każdym benchmarku wypisywane są bajty zapisane i odczytane z dysku na jeden upload.
+ * Uruchomienie: main() z classpath testów.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UploadIoBenchmark {
+
+    private static final int UPLOAD_SIZE = 4 * 1024 * 1024;
+
+    private byte[] upload;
+    private Path spoolDir;
+    private Path uploadDir;
+    private StreamingImageWriter writer;
+    private ImageStorage storage;
+
+    @State(Scope.Thread)
+    public static class DiskCounters {
+        long uploads;
+        long bytesWritten;
+        long bytesRead;
+
+        @TearDown(Level.Trial)
+        public void report() {
+            System.out.printf("%nI/O na upload: zapis %d B, odczyt %d B%n",
+                    bytesWritten / Math.max(1, uploads), bytesRead / Math.max(1, uploads));
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        upload = new byte[UPLOAD_SIZE];
+        ThreadLocalRandom.current().nextBytes(upload);
+        upload[0] = (byte) 0xFF;
+        upload[1] = (byte) 0xD8;
+        upload[2] = (byte) 0xFF;
+        spoolDir = Files.createTempDirectory("spool");
+        uploadDir = Files.createTempDirectory("uploads");
+        writer = new StreamingImageWriter(UPLOAD_SIZE);
+        storage = new LocalShardedImageStorage(uploadDir);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        deleteRecursively(spoolDir);
+        deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public Path multipartSpoolThenCopy(DiskCounters counters) throws IOException {
+        counters.uploads++;
+        // kontener zapisuje część multipart do spring.servlet.multipart.location
+        Path spooled = spoolDir.resolve(UUID.randomUUID() + ".tmp");
+        try (OutputStream out = counting(Files.newOutputStream(spooled), counters)) {
+            new ByteArrayInputStream(upload).transferTo(out);
+        }
+        // ImageService.saveFile: Files.copy(file.getInputStream(), ...)
+        Path target = uploadDir.resolve(UUID.randomUUID() + ".jpg");
+        try (InputStream in = counting(Files.newInputStream(spooled), counters);
+             OutputStream out = counting(Files.newOutputStream(target), counters)) {
+            in.transferTo(out);
+        }
+        Files.delete(spooled);
+        Files.delete(target);
+        return target;
+    }
+
+    @Benchmark
+    public String streamingSinglePass(DiskCounters counters) throws IOException {
+        counters.uploads++;
+        StoredImageFile stored = writer.write(new ByteArrayInputStream(upload), storage);
+        counters.bytesWritten += stored.size();
+        storage.delete(stored.fileName());
+        return stored.sha256();
+    }
+
+    private static OutputStream counting(OutputStream out, DiskCounters counters) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                counters.bytesWritten += len;
+            }
+        };
+    }
+
+    private static InputStream counting(InputStream in, DiskCounters counters) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    counters.bytesRead += read;
+                }
+                return read;
+            }
+        };
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UploadIoBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
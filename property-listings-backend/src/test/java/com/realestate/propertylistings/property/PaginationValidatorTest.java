@@ -0,0 +1,29 @@
+package com.realestate.propertylistings.property;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaginationValidatorTest {
+
+    private final PaginationValidator validator = new PaginationValidator();
+
+    @Test
+    void validateFields_shouldResolveAliasesAndAlwaysIncludeId() {
+        assertEquals(
+                EnumSet.of(PropertyField.ID, PropertyField.TITLE, PropertyField.PRICE,
+                        PropertyField.CITY, PropertyField.IMAGE_URLS),
+                validator.validateFields(" title,PRICE,,city,image_urls"));
+        assertEquals(EnumSet.of(PropertyField.ID, PropertyField.AREA, PropertyField.ROOMS),
+                validator.validateFields("areaSqm,rooms"));
+    }
+
+    @Test
+    void validateFields_shouldRejectUnknownOrEmptyList() {
+        assertThrows(IllegalArgumentException.class, () -> validator.validateFields("title,password"));
+        assertThrows(IllegalArgumentException.class, () -> validator.validateFields("owner.email"));
+        assertThrows(IllegalArgumentException.class, () -> validator.validateFields(" "));
+    }
+}
@@ -0,0 +1,211 @@
+package com.realestate.propertylistings.property;
+
+import com.realestate.propertylistings.image.PropertyImage;
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRole;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.cache.jcache.config=classpath:ehcache.xml"
+})
+@AutoConfigureCache(cacheProvider = CacheType.JCACHE)
+public class PropertyCacheInvalidatorTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final PropertyMapper propertyMapper = new PropertyMapperImpl();
+    private Cache cache;
+    private User owner;
+    private User otherOwner;
+    private Property property;
+    private Property secondProperty;
+    private Property otherProperty;
+    private PropertyImage image;
+
+    @BeforeEach
+    void setUp() {
+        cache = cacheManager.getCache(PropertyCacheInvalidator.CACHE_NAME);
+        cache.clear();
+
+        owner = persistUser();
+        otherOwner = persistUser();
+        property = persistProperty(owner);
+        secondProperty = persistProperty(owner);
+        otherProperty = persistProperty(otherOwner);
+
+        image = PropertyImage.builder()
+                .fileName("a.jpg")
+                .originalFileName("a.jpg")
+                .contentType("image/jpeg")
+                .fileSize(10L)
+                .fileUrl("/uploads/properties/a.jpg")
+                .displayOrder(0)
+                .property(property)
+                .build();
+        entityManager.persist(image);
+        entityManager.flush();
+
+        for (Property cached : new Property[]{property, secondProperty, otherProperty}) {
+            cache.put(cached.getId(), propertyMapper.toResponse(cached));
+        }
+    }
+
+    @Test
+    void propertyUpdate_shouldEvictEntry() {
+        property.setTitle("Nowy tytuł ogłoszenia");
+        entityManager.flush();
+
+        assertStale(property);
+        assertCached(secondProperty);
+    }
+
+    @Test
+    void propertyDelete_shouldEvictEntry() {
+        entityManager.remove(image);
+        entityManager.remove(secondProperty);
+        entityManager.flush();
+
+        assertStale(secondProperty);
+        assertCached(otherProperty);
+    }
+
+    @Test
+    void imageUpload_shouldEvictEntry() {
+        entityManager.persist(PropertyImage.builder()
+                .fileName("b.jpg")
+                .originalFileName("b.jpg")
+                .contentType("image/jpeg")
+                .fileSize(10L)
+                .fileUrl("/uploads/properties/b.jpg")
+                .displayOrder(1)
+                .property(secondProperty)
+                .build());
+        entityManager.flush();
+
+        assertStale(secondProperty);
+        assertCached(property);
+    }
+
+    @Test
+    void imageChangeAndDelete_shouldEvictEntry() {
+        image.setDisplayOrder(5);
+        entityManager.flush();
+        assertStale(property);
+
+        cache.put(property.getId(), propertyMapper.toResponse(property));
+        entityManager.remove(image);
+        entityManager.flush();
+        assertStale(property);
+    }
+
+    @Test
+    void ownerProfileEdit_shouldEvictAllOwnerEntries() {
+        owner.setPhoneNumber("+48 600 000 000");
+        entityManager.flush();
+
+        assertStale(property);
+        assertStale(secondProperty);
+        assertCached(otherProperty);
+    }
+
+    @Test
+    void ownerUpdateOutsideOwnerInfo_shouldKeepEntries() {
+        owner.setPassword("rehashed-secret");
+        owner.setRole(UserRole.ADMIN);
+        entityManager.flush();
+
+        assertCached(property);
+        assertCached(secondProperty);
+    }
+
+    @Test
+    void userRegistration_shouldKeepEntries() {
+        persistUser();
+        entityManager.flush();
+
+        assertCached(property);
+        assertCached(secondProperty);
+        assertCached(otherProperty);
+    }
+
+    @Test
+    void ownerReloadedAndEdited_shouldEvictAllOwnerEntries() {
+        entityManager.clear();
+        User reloaded = entityManager.find(User.class, owner.getId());
+        reloaded.setEmail(UUID.randomUUID() + "@example.com");
+        entityManager.flush();
+
+        assertStale(property);
+        assertStale(secondProperty);
+        assertCached(otherProperty);
+    }
+
+    @Test
+    void staleReadDuringTransaction_shouldBeEvictedAgainAfterCommit() {
+        property.setPrice(new BigDecimal("1.00"));
+        entityManager.flush();
+        assertStale(property);
+
+        // odczyt współbieżny przed commitem wstawia starą wersję
+        cache.put(property.getId(), PropertyResponse.builder().id(property.getId()).build());
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertStale(property);
+    }
+
+    private void assertStale(Property stale) {
+        assertNull(cache.get(stale.getId()), "wpis ogłoszenia " + stale.getId() + " powinien zostać usunięty");
+    }
+
+    private void assertCached(Property untouched) {
+        assertNotNull(cache.get(untouched.getId()), "wpis ogłoszenia " + untouched.getId() + " nie powinien zniknąć");
+    }
+
+    // test z commitem zostawia dane w bazie - unikalny email na każde wywołanie
+    private User persistUser() {
+        User user = User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .password("secret")
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .role(UserRole.AGENT)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Property persistProperty(User propertyOwner) {
+        Property newProperty = new Property();
+        newProperty.setTitle("Mieszkanie na sprzedaż");
+        newProperty.setPrice(new BigDecimal("450000.00"));
+        newProperty.setCity("Warszawa");
+        newProperty.setIsActive(true);
+        newProperty.setOwner(propertyOwner);
+        entityManager.persist(newProperty);
+        return newProperty;
+    }
+}
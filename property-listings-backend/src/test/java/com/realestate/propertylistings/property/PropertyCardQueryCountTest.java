@@ -0,0 +1,236 @@
+package com.realestate.propertylistings.property;
+
+import com.realestate.propertylistings.columnar.PropertyColumnarEngine;
+import com.realestate.propertylistings.dto.PagedResponse;
+import com.realestate.propertylistings.exception.PropertyNotFoundException;
+import com.realestate.propertylistings.image.PropertyImage;
+import com.realestate.propertylistings.search.PropertySearchIndex;
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRepository;
+import com.realestate.propertylistings.user.UserRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class PropertyCardQueryCountTest {
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private PropertyService propertyService;
+    private Statistics statistics;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        propertyService = new PropertyService(
+                propertyRepository,
+                new PropertyMapperImpl(),
+                new PaginationValidator(),
+                new PropertyCountEstimator(Duration.ofMinutes(1), 100),
+                new PropertySearchIndex(),
+                mock(ApplicationEventPublisher.class),
+                new PropertyColumnarEngine(),
+                new PropertyQueryCache(new NoOpCacheManager(), new SimpleMeterRegistry()),
+                userRepository
+        );
+
+        owner = User.builder()
+                .email("agent@example.com")
+                .password("secret")
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .role(UserRole.AGENT)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build();
+        entityManager.persist(owner);
+
+        for (int i = 0; i < 30; i++) {
+            Property property = new Property();
+            property.setTitle("Mieszkanie " + i);
+            property.setPrice(BigDecimal.valueOf(300_000L + i * 1_000L));
+            property.setCity(i % 2 == 0 ? "Warszawa" : "Kraków");
+            property.setRoomCount(1 + i % 4);
+            property.setIsActive(true);
+            property.setOwner(owner);
+            entityManager.persist(property);
+
+            for (int order = 0; order < 3; order++) {
+                entityManager.persist(PropertyImage.builder()
+                        .fileName(i + "-" + order + ".jpg")
+                        .originalFileName("zdjecie.jpg")
+                        .contentType("image/jpeg")
+                        .fileSize(1024L)
+                        .fileUrl("/uploads/properties/" + i + "-" + order + ".jpg")
+                        .isPrimary(order == 1)
+                        .displayOrder(order)
+                        .property(property)
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getPropertyCards_shouldUseFixedNumberOfQueries() {
+        PagedResponse<PropertyCardResponse> small = countQueries(3,
+                () -> propertyService.getPropertyCards(0, 5, "price", "ASC", TotalMode.EXACT));
+        PagedResponse<PropertyCardResponse> large = countQueries(3,
+                () -> propertyService.getPropertyCards(0, 20, "price", "ASC", TotalMode.EXACT));
+
+        assertEquals(5, small.getContent().size());
+        assertEquals(20, large.getContent().size());
+        assertEquals(30L, large.getTotalElements());
+
+        PropertyCardResponse first = large.getContent().get(0);
+        assertEquals("Mieszkanie 0", first.getTitle());
+        assertEquals("Jan Kowalski", first.getOwnerName());
+        assertEquals("/uploads/properties/0-1.jpg", first.getImageUrl());
+    }
+
+    @Test
+    void getPropertyCards_lastPageShouldSkipCount() {
+        PagedResponse<PropertyCardResponse> last = countQueries(2,
+                () -> propertyService.getPropertyCards(1, 20, "price", "ASC", TotalMode.EXACT));
+
+        assertEquals(10, last.getContent().size());
+        assertEquals(30L, last.getTotalElements());
+        assertFalse(last.isHasNext());
+    }
+
+    @Test
+    void getPropertyCardsByCity_shouldUseFixedNumberOfQueries() {
+        PagedResponse<PropertyCardResponse> response = countQueries(3,
+                () -> propertyService.getPropertyCardsByCity("Warszawa", 0, 10));
+
+        assertEquals(10, response.getContent().size());
+        assertEquals(15L, response.getTotalElements());
+        assertTrue(response.getContent().stream().allMatch(card -> "Warszawa".equals(card.getCity())));
+    }
+
+    @Test
+    void getUserPropertyCards_shouldUseFixedNumberOfQueries() {
+        PagedResponse<PropertyCardResponse> response = countQueries(3,
+                () -> propertyService.getUserPropertyCards(owner.getId(), 0, 25));
+
+        assertEquals(25, response.getContent().size());
+        assertTrue(response.getContent().stream().allMatch(card -> card.getImageUrl() != null));
+    }
+
+    @Test
+    void filterPropertyCards_shouldUseFixedNumberOfQueries() {
+        PropertyFilterRequest filters = new PropertyFilterRequest();
+        filters.setCity("kraków");
+        filters.setMinRooms(2);
+        filters.setSize(50);
+
+        PagedResponse<PropertyCardResponse> response = countQueries(2,
+                () -> propertyService.filterPropertyCards(filters, TotalMode.NONE));
+
+        assertFalse(response.getContent().isEmpty());
+        assertNull(response.getTotalElements());
+        assertTrue(response.getContent().stream().allMatch(card -> card.getRooms() >= 2));
+    }
+
+    @Test
+    void versions_shouldUseSingleQueryAndTrackImageChanges() {
+        PropertyListVersion cityVersion = countQueries(1, () -> propertyService.getCityListVersion("Warszawa"));
+        assertEquals(15, cityVersion.count());
+        assertNotNull(cityVersion.maxUpdatedAt());
+        assertNotNull(cityVersion.maxOwnerUpdatedAt());
+
+        Long propertyId = propertyRepository.findAll().get(0).getId();
+        PropertyVersion before = countQueries(1, () -> propertyService.getPropertyVersion(propertyId));
+
+        Property property = propertyRepository.findById(propertyId).orElseThrow();
+        property.markImagesChanged();
+        entityManager.flush();
+
+        PropertyVersion after = propertyService.getPropertyVersion(propertyId);
+        assertEquals(before.imageRevision() + 1, after.imageRevision());
+        assertNotEquals(before.eTag(), after.eTag());
+    }
+
+    @Test
+    void getAllPropertyFields_shouldSelectRequestedColumnsAndSkipImagesUnlessRequested() {
+        Set<PropertyField> listFields = EnumSet.of(PropertyField.TITLE, PropertyField.PRICE, PropertyField.CITY);
+        PagedResponse<Map<String, Object>> list = countQueries(2,
+                () -> propertyService.getAllPropertyFields(0, 20, "price", "ASC", TotalMode.EXACT, listFields));
+
+        assertEquals(20, list.getContent().size());
+        assertEquals(30L, list.getTotalElements());
+        Map<String, Object> first = list.getContent().get(0);
+        assertEquals(List.of("title", "price", "city"), List.copyOf(first.keySet()));
+        assertEquals("Mieszkanie 0", first.get("title"));
+
+        Set<PropertyField> withImages = EnumSet.of(PropertyField.ID, PropertyField.TITLE, PropertyField.IMAGE_URLS);
+        PagedResponse<Map<String, Object>> cards = countQueries(2,
+                () -> propertyService.getAllPropertyFields(1, 20, "price", "ASC", TotalMode.EXACT, withImages));
+
+        assertEquals(10, cards.getContent().size());
+        assertEquals(List.of("/uploads/properties/20-0.jpg", "/uploads/properties/20-1.jpg",
+                "/uploads/properties/20-2.jpg"), cards.getContent().get(0).get("imageUrls"));
+    }
+
+    @Test
+    void getPropertyFields_shouldReturnOnlyRequestedKeysIncludingNulls() {
+        Long propertyId = propertyRepository.findAll().get(0).getId();
+        Set<PropertyField> fields = EnumSet.of(PropertyField.ID, PropertyField.FLOOR, PropertyField.OWNER);
+
+        Map<String, Object> response = countQueries(1, () -> propertyService.getPropertyFields(propertyId, fields));
+
+        assertEquals(List.of("id", "floor", "owner"), List.copyOf(response.keySet()));
+        assertNull(response.get("floor"));
+        assertEquals("Kowalski", ((PropertyResponse.OwnerInfo) response.get("owner")).getLastName());
+        assertThrows(PropertyNotFoundException.class,
+                () -> propertyService.getPropertyFields(-1L, fields));
+    }
+
+    private <T> T countQueries(long expected, Supplier<T> call) {
+        entityManager.clear();
+        statistics.clear();
+
+        T result = call.get();
+
+        assertEquals(expected, statistics.getPrepareStatementCount(), "liczba zapytań SQL");
+        return result;
+    }
+}
@@ -0,0 +1,158 @@
+package com.realestate.propertylistings.property;
+
+import com.realestate.propertylistings.dto.PropertyChangesResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// wpisy dostają changedAt przed commitem - zdarzenia publikowane w zatwierdzanych transakcjach
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PropertyChangeFeedTest {
+
+    @Autowired
+    private PropertyChangeRepository changeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private PropertyChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        changeRepository.deleteAll();
+        changeFeed = new PropertyChangeFeed(changeRepository);
+        ReflectionTestUtils.setField(changeFeed, "settleDelay", Duration.ZERO);
+    }
+
+    @Test
+    void getChanges_shouldPageByKeysetAndReportDeactivationsAndTombstones() {
+        //given
+        Property first = property(1L, true);
+        Property second = property(2L, true);
+        tx.executeWithoutResult(status -> {
+            changeFeed.onPropertyChanged(PropertyChangedEvent.created(first));
+            changeFeed.onPropertyChanged(PropertyChangedEvent.created(second));
+        });
+        first.setIsActive(false);
+        tx.executeWithoutResult(status ->
+                changeFeed.onPropertyChanged(PropertyChangedEvent.updated(first, "Kraków")));
+        tx.executeWithoutResult(status -> {
+            changeFeed.onPropertyChanged(PropertyChangedEvent.updated(second, "Kraków"));
+            changeFeed.onPropertyChanged(PropertyChangedEvent.deleted(second));
+        });
+
+        //when
+        PropertyChangesResponse firstPage = changeFeed.getChanges(0, 3);
+        PropertyChangesResponse secondPage = changeFeed.getChanges(firstPage.getNextCursor(), 3);
+        PropertyChangesResponse caughtUp = changeFeed.getChanges(secondPage.getNextCursor(), 3);
+
+        //then
+        assertEquals(3, firstPage.getChanges().size());
+        assertTrue(firstPage.isHasMore());
+        assertEquals(PropertyChangeType.DEACTIVATED, firstPage.getChanges().get(2).getType());
+        assertEquals(1L, firstPage.getChanges().get(2).getPropertyId());
+
+        assertEquals(2, secondPage.getChanges().size());
+        assertFalse(secondPage.isHasMore());
+        assertEquals(PropertyChangeType.UPDATED, secondPage.getChanges().get(0).getType());
+        assertEquals(PropertyChangeType.DELETED, secondPage.getChanges().get(1).getType());
+        assertEquals(2L, secondPage.getChanges().get(1).getPropertyId());
+
+        assertTrue(caughtUp.getChanges().isEmpty());
+        assertEquals(secondPage.getNextCursor(), caughtUp.getNextCursor());
+        assertFalse(caughtUp.isResyncRequired());
+    }
+
+    @Test
+    void getChanges_shouldHoldBackEntriesYoungerThanSettleDelay() {
+        //given
+        ReflectionTestUtils.setField(changeFeed, "settleDelay", Duration.ofMinutes(1));
+        tx.executeWithoutResult(status -> changeFeed.onPropertyChanged(PropertyChangedEvent.created(property(1L, true))));
+
+        //when
+        PropertyChangesResponse response = changeFeed.getChanges(0, 10);
+
+        //then
+        assertTrue(response.getChanges().isEmpty());
+        assertEquals(0, response.getNextCursor());
+    }
+
+    @Test
+    void getChanges_shouldRequireResyncWhenCursorPredatesRetention() {
+        //given
+        PropertyChange old = changeRepository.save(PropertyChange.builder()
+                .propertyId(1L)
+                .changeType(PropertyChangeType.CREATED)
+                .changedAt(LocalDateTime.now().minusDays(40))
+                .build());
+        changeRepository.save(PropertyChange.builder()
+                .propertyId(1L)
+                .changeType(PropertyChangeType.UPDATED)
+                .changedAt(LocalDateTime.now().minusDays(35))
+                .build());
+        tx.executeWithoutResult(status -> changeFeed.onPropertyChanged(PropertyChangedEvent.created(property(2L, true))));
+
+        //when
+        tx.executeWithoutResult(status -> changeFeed.pruneExpired());
+        PropertyChangesResponse response = changeFeed.getChanges(old.getId(), 10);
+
+        //then
+        assertEquals(1, changeRepository.count());
+        assertTrue(response.isResyncRequired());
+        assertEquals(1, response.getChanges().size());
+    }
+
+    @Test
+    void onPropertyChanged_shouldStampEntriesAtCommitNotAtEvent() {
+        //given
+        LocalDateTime[] beforeCommit = new LocalDateTime[1];
+
+        //when
+        tx.executeWithoutResult(status -> {
+            changeFeed.onPropertyChanged(PropertyChangedEvent.created(property(1L, true)));
+            changeFeed.onPropertyChanged(PropertyChangedEvent.created(property(2L, true)));
+            // dalsza praca transakcji po zdarzeniu - wpis nie może mieć wcześniejszego changedAt
+            beforeCommit[0] = LocalDateTime.now();
+        });
+
+        //then
+        assertEquals(2, changeRepository.count());
+        assertTrue(changeRepository.findAll().stream()
+                .noneMatch(change -> change.getChangedAt().isBefore(beforeCommit[0])));
+    }
+
+    @Test
+    void onPropertyChanged_shouldDropEntriesOfRolledBackTransaction() {
+        //when
+        tx.executeWithoutResult(status -> {
+            changeFeed.onPropertyChanged(PropertyChangedEvent.created(property(1L, true)));
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertEquals(0, changeRepository.count());
+        assertTrue(changeFeed.getChanges(0, 10).getChanges().isEmpty());
+    }
+
+    private static Property property(Long id, boolean active) {
+        Property property = new Property();
+        property.setId(id);
+        property.setCity("Kraków");
+        property.setIsActive(active);
+        return property;
+    }
+}
@@ -0,0 +1,225 @@
+package com.realestate.propertylistings.property;
+
+import com.realestate.propertylistings.dto.PagedResponse;
+import com.realestate.propertylistings.facet.PropertyFacetService;
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class PropertyControllerConditionalGetTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 5, 1, 12, 0, 30);
+
+    private PropertyService propertyService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        propertyService = mock(PropertyService.class);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new PropertyController(
+                        propertyService,
+                        new PaginationValidator(),
+                        mock(PropertyFacetService.class),
+                        mock(PropertyImportService.class),
+                        mock(PropertyExportService.class),
+                        mock(PropertyChangeFeed.class),
+                        new PropertyResponseByteCache(
+                                Jackson2ObjectMapperBuilder.json().build(), 1024 * 1024, 512, new SimpleMeterRegistry())))
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+
+        PropertyResponse response = new PropertyResponse();
+        response.setId(1L);
+        response.setTitle("Mieszkanie");
+        when(propertyService.getPropertyByIdOptimized(1L)).thenReturn(response);
+        when(propertyService.getAllProperties(anyInt(), anyInt(), anyString(), anyString(), any()))
+                .thenReturn(PagedResponse.<PropertyResponse>builder().content(List.of(response)).build());
+    }
+
+    @Test
+    void getPropertyById_shouldAnswer304WithoutBuildingResponseWhenEtagMatches() throws Exception {
+        //given
+        PropertyVersion version = new PropertyVersion(UPDATED_AT, 3L, UPDATED_AT.minusDays(1));
+        when(propertyService.getPropertyVersion(1L)).thenReturn(version);
+
+        //when
+        String eTag = mockMvc.perform(get("/api/properties/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/properties/1").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        //then
+        assertEquals(version.eTag(), eTag);
+        verify(propertyService, times(1)).getPropertyByIdOptimized(1L);
+    }
+
+    @Test
+    void getPropertyById_shouldChangeEtagWhenImagesChange() throws Exception {
+        //given
+        String before = new PropertyVersion(UPDATED_AT, 3L, null).eTag();
+        when(propertyService.getPropertyVersion(1L)).thenReturn(new PropertyVersion(UPDATED_AT, 4L, null));
+
+        //then
+        mockMvc.perform(get("/api/properties/1").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk());
+        verify(propertyService).getPropertyByIdOptimized(1L);
+    }
+
+    @Test
+    void getPropertyById_shouldServeCachedBytesWithGzipVariant() throws Exception {
+        //given
+        PropertyResponse response = new PropertyResponse();
+        response.setId(2L);
+        response.setDescription("Mieszkanie po remoncie, blisko metra. ".repeat(40));
+        response.setPrice(new BigDecimal("649900.00"));
+        when(propertyService.getPropertyByIdOptimized(2L)).thenReturn(response);
+        when(propertyService.getPropertyVersion(2L)).thenReturn(new PropertyVersion(UPDATED_AT, 0L, null));
+
+        //when
+        MockHttpServletResponse gzipped = mockMvc.perform(get("/api/properties/2")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse();
+        MockHttpServletResponse plain = mockMvc.perform(get("/api/properties/2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse();
+
+        //then
+        byte[] json = plain.getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertArrayEquals(json, in.readAllBytes());
+        }
+        assertTrue(gzipped.getContentAsByteArray().length < json.length / 4);
+        assertTrue(plain.getContentAsString().contains("\"price\":649900.00"));
+        verify(propertyService, times(1)).getPropertyByIdOptimized(2L);
+    }
+
+    @Test
+    void getAllProperties_shouldUseListVersionAndQueryStringForEtag() throws Exception {
+        //given
+        when(propertyService.getListVersion(isNull())).thenReturn(new PropertyListVersion(UPDATED_AT, null, 10));
+
+        //when
+        String firstPage = mockMvc.perform(get("/api/properties").param("page", "0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String secondPage = mockMvc.perform(get("/api/properties").param("page", "1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/properties").param("page", "0").header(HttpHeaders.IF_NONE_MATCH, firstPage))
+                .andExpect(status().isNotModified());
+
+        // usunięcie ogłoszenia: maksimum updatedAt bez zmian, liczba mniejsza
+        when(propertyService.getListVersion(isNull())).thenReturn(new PropertyListVersion(UPDATED_AT, null, 9));
+        mockMvc.perform(get("/api/properties").param("page", "0").header(HttpHeaders.IF_NONE_MATCH, firstPage))
+                .andExpect(status().isOk());
+
+        //then
+        assertNotEquals(firstPage, secondPage);
+        verify(propertyService, times(3)).getAllProperties(anyInt(), anyInt(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void getMyPropertyCards_shouldAnswer304PerOwnerOnly() throws Exception {
+        //given
+        PropertyListVersion sameVersion = new PropertyListVersion(UPDATED_AT, null, 2);
+        when(propertyService.getOwnerListVersion(anyLong())).thenReturn(sameVersion);
+        when(propertyService.getUserPropertyCards(anyLong(), anyInt(), anyInt())).thenAnswer(invocation ->
+                PagedResponse.<PropertyCardResponse>builder()
+                        .content(List.of(PropertyCardResponse.builder().id(invocation.getArgument(0)).build()))
+                        .build());
+
+        //when
+        String firstOwnerEtag = getMyCardsAs(7L, null).getHeader(HttpHeaders.ETAG);
+        MockHttpServletResponse otherOwner = getMyCardsAs(8L, firstOwnerEtag);
+        MockHttpServletResponse revalidated = getMyCardsAs(7L, firstOwnerEtag);
+
+        //then
+        assertEquals(200, otherOwner.getStatus());
+        assertNotEquals(firstOwnerEtag, otherOwner.getHeader(HttpHeaders.ETAG));
+        assertTrue(otherOwner.getContentAsString().contains("\"id\":8"));
+        assertEquals(304, revalidated.getStatus());
+        verify(propertyService, times(1)).getUserPropertyCards(7L, 0, 20);
+        verify(propertyService, times(1)).getUserPropertyCards(8L, 0, 20);
+    }
+
+    private MockHttpServletResponse getMyCardsAs(Long userId, String ifNoneMatch) throws Exception {
+        User user = User.builder().id(userId).email("user" + userId + "@example.com").role(UserRole.AGENT).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        try {
+            MockHttpServletRequestBuilder request = get("/api/properties/cards/my");
+            if (ifNoneMatch != null) {
+                request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+            }
+            return mockMvc.perform(request).andReturn().getResponse();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void getPropertyById_withFieldsShouldServeRequestedKeysUnderSeparateEtag() throws Exception {
+        //given
+        PropertyVersion version = new PropertyVersion(UPDATED_AT, 0L, null);
+        when(propertyService.getPropertyVersion(1L)).thenReturn(version);
+        Map<String, Object> sparse = new LinkedHashMap<>();
+        sparse.put("id", 1L);
+        sparse.put("title", "Mieszkanie");
+        sparse.put("floor", null);
+        when(propertyService.getPropertyFields(eq(1L), any())).thenReturn(sparse);
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/api/properties/1")
+                        .param("fields", "title,floor"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        mockMvc.perform(get("/api/properties/1").param("fields", "title,floor")
+                        .header(HttpHeaders.IF_NONE_MATCH, version.eTag()))
+                .andExpect(status().isOk());
+
+        //then
+        assertEquals("{\"id\":1,\"title\":\"Mieszkanie\",\"floor\":null}", response.getContentAsString());
+        assertNotEquals(version.eTag(), response.getHeader(HttpHeaders.ETAG));
+        verify(propertyService, times(2)).getPropertyFields(1L,
+                EnumSet.of(PropertyField.ID, PropertyField.TITLE, PropertyField.FLOOR));
+        verify(propertyService, never()).getPropertyByIdOptimized(anyLong());
+    }
+}
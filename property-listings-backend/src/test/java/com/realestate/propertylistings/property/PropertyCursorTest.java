@@ -0,0 +1,55 @@
+package com.realestate.propertylistings.property;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropertyCursorTest {
+
+    @Test
+    void encodeDecode_shouldRoundTripSortKeyAndId() {
+        //given
+        Property property = new Property();
+        property.setId(42L);
+        property.setPrice(new BigDecimal("350000.00"));
+        property.setCreatedAt(LocalDateTime.of(2025, 3, 14, 10, 15, 30, 123456000));
+        property.setTitle("Mieszkanie | centrum");
+
+        //when
+        PropertyCursor byPrice = PropertyCursor.decode(
+                PropertyCursor.of(property, "price", Sort.Direction.ASC).encode());
+        PropertyCursor byCreatedAt = PropertyCursor.decode(
+                PropertyCursor.of(property, "createdAt", Sort.Direction.DESC).encode());
+        PropertyCursor byTitle = PropertyCursor.decode(
+                PropertyCursor.of(property, "title", Sort.Direction.ASC).encode());
+
+        //then
+        assertEquals(new BigDecimal("350000.00"), byPrice.value());
+        assertEquals(42L, byPrice.id());
+        assertEquals(Sort.Direction.ASC, byPrice.direction());
+        assertEquals(property.getCreatedAt(), byCreatedAt.value());
+        assertEquals("Mieszkanie | centrum", byTitle.value());
+    }
+
+    @Test
+    void verifyMatches_shouldRejectCursorFromDifferentSort() {
+        //given
+        PropertyCursor cursor = new PropertyCursor("price", Sort.Direction.ASC, BigDecimal.TEN, 1L);
+
+        //then
+        assertThrows(IllegalArgumentException.class,
+                () -> cursor.verifyMatches("createdAt", Sort.Direction.ASC));
+        assertThrows(IllegalArgumentException.class,
+                () -> cursor.verifyMatches("price", Sort.Direction.DESC));
+    }
+
+    @Test
+    void decode_shouldRejectGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> PropertyCursor.decode("%%%"));
+        assertThrows(IllegalArgumentException.class, () -> PropertyCursor.decode("YWJj"));
+    }
+}
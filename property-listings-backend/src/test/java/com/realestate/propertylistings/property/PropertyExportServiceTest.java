@@ -0,0 +1,186 @@
+package com.realestate.propertylistings.property;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.propertylistings.exception.TooManyRequestsException;
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PropertyExportServiceTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private PropertyExportService exportService;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        exportService = new PropertyExportService(
+                propertyRepository, new PaginationValidator(), new ObjectMapper(), transactionManager, 1);
+        email = UUID.randomUUID() + "@example.com";
+
+        tx.executeWithoutResult(status -> {
+            User owner = User.builder()
+                    .email(email)
+                    .password("secret")
+                    .firstName("Jan")
+                    .lastName("Kowalski")
+                    .role(UserRole.AGENT)
+                    .enabled(true)
+                    .accountNonExpired(true)
+                    .accountNonLocked(true)
+                    .credentialsNonExpired(true)
+                    .build();
+            entityManager.persist(owner);
+
+            for (int i = 0; i < 120; i++) {
+                Property property = new Property();
+                property.setTitle(i == 0 ? "Dom, \"z ogrodem\"" : "Mieszkanie " + i);
+                property.setDescription(i == 0 ? "Dwie\nlinie" : "Opis");
+                property.setPrice(BigDecimal.valueOf(100_000L + i * 1_000L));
+                property.setAreaSqm(40.5);
+                property.setCity(i % 3 == 0 ? "Sopot" : "Gdynia");
+                property.setTransactionType(TransactionType.SALE);
+                property.setIsActive(true);
+                property.setOwner(owner);
+                entityManager.persist(property);
+            }
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM Property p WHERE p.owner.email = :email")
+                    .setParameter("email", email).executeUpdate();
+            entityManager.createQuery("DELETE FROM User u WHERE u.email = :email")
+                    .setParameter("email", email).executeUpdate();
+        });
+    }
+
+    @Test
+    void exportNdjson_shouldStreamFilteredRowsInSortOrderWithoutLoadingEntities() throws Exception {
+        //given
+        PropertyFilterRequest filters = new PropertyFilterRequest();
+        filters.setCity("sopot");
+        filters.setSortBy("price");
+        filters.setSortDirection("ASC");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //when
+        long rows = exportService.export(filters, PropertyExportFormat.NDJSON, () -> out);
+
+        //then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(40, rows);
+        assertEquals(40, lines.length);
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode first = objectMapper.readTree(lines[0]);
+        JsonNode last = objectMapper.readTree(lines[39]);
+        assertEquals("Dom, \"z ogrodem\"", first.get("title").asText());
+        assertEquals("Dwie\nlinie", first.get("description").asText());
+        assertEquals(0, new BigDecimal("100000.00").compareTo(first.get("price").decimalValue()));
+        assertEquals(40.5, first.get("areaSqm").asDouble());
+        assertTrue(first.get("roomCount").isNull());
+        assertEquals("SALE", first.get("transactionType").asText());
+        assertTrue(first.get("ownerId").asLong() > 0);
+        assertTrue(last.get("price").decimalValue().compareTo(first.get("price").decimalValue()) > 0);
+    }
+
+    @Test
+    void exportCsv_shouldWriteHeaderAndQuoteSpecialCharacters() throws Exception {
+        //given
+        PropertyFilterRequest filters = new PropertyFilterRequest();
+        filters.setCity("Sopot");
+        filters.setSortBy("price");
+        filters.setSortDirection("ASC");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        long rows = exportService.export(filters, PropertyExportFormat.CSV, () -> out);
+
+        //then
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals(40, rows);
+        assertTrue(csv.startsWith(CsvPropertyExportWriter.HEADER + "\r\n"));
+        assertTrue(csv.contains(",\"Dom, \"\"z ogrodem\"\"\",\"Dwie\nlinie\",100000.00,40.5,,,,SALE,Sopot,,,true,"));
+    }
+
+    @Test
+    void export_shouldRejectWhenAllSlotsAreBusy() throws Exception {
+        //given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread running = new Thread(() -> {
+            try {
+                exportService.export(new PropertyFilterRequest(), PropertyExportFormat.NDJSON, () -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new ByteArrayOutputStream();
+                });
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        running.start();
+        started.await();
+
+        //then
+        try {
+            assertThrows(TooManyRequestsException.class, () -> exportService.export(
+                    new PropertyFilterRequest(), PropertyExportFormat.CSV, ByteArrayOutputStream::new));
+        } finally {
+            release.countDown();
+            running.join();
+        }
+        assertNull(failure.get());
+    }
+}
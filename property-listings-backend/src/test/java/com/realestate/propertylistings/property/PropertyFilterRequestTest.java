@@ -0,0 +1,49 @@
+package com.realestate.propertylistings.property;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropertyFilterRequestTest {
+
+    @Test
+    void setters_shouldNormalizeTextSoCacheKeyAndQueryAgree() {
+        //given
+        PropertyFilterRequest padded = new PropertyFilterRequest();
+        padded.setCity("Kraków ");
+        padded.setStreet("  Długa");
+        padded.setSearch(" Balkon ");
+        padded.setPostalCode(" 31-000 ");
+        PropertyFilterRequest plain = new PropertyFilterRequest();
+        plain.setCity("kraków");
+        plain.setStreet("długa");
+        plain.setSearch("balkon");
+        plain.setPostalCode("31-000");
+
+        //when
+        String paddedKey = padded.criteriaKey();
+        String plainKey = plain.criteriaKey();
+
+        //then
+        assertEquals(plainKey, paddedKey);
+        assertEquals("kraków", padded.getCity());
+        assertEquals("długa", padded.getStreet());
+        assertEquals("balkon", padded.getSearch());
+        assertEquals("31-000", padded.getPostalCode());
+    }
+
+    @Test
+    void setters_shouldTreatBlankTextAsMissingFilter() {
+        //given
+        PropertyFilterRequest filters = new PropertyFilterRequest();
+
+        //when
+        filters.setCity("   ");
+        filters.setPostalCode(" ");
+
+        //then
+        assertNull(filters.getCity());
+        assertNull(filters.getPostalCode());
+        assertEquals(new PropertyFilterRequest().criteriaKey(), filters.criteriaKey());
+    }
+}
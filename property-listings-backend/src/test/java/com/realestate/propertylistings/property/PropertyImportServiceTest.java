@@ -0,0 +1,227 @@
+package com.realestate.propertylistings.property;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.realestate.propertylistings.dto.PropertyImportResponse;
+import com.realestate.propertylistings.exception.FileUploadException;
+import com.realestate.propertylistings.exception.UnauthorizedException;
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PropertyImportServiceTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private ApplicationEventPublisher eventPublisher;
+    private PropertyImportService importService;
+    private User agent;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        importService = new PropertyImportService(
+                new PropertyMapperImpl(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(),
+                eventPublisher,
+                transactionManager
+        );
+        ReflectionTestUtils.setField(importService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(importService, "chunkSize", 100);
+        ReflectionTestUtils.setField(importService, "jdbcBatchSize", 50);
+
+        agent = User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .password("secret")
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .role(UserRole.AGENT)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build();
+        tx.executeWithoutResult(status -> entityManager.persist(agent));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            entityManager.createQuery("DELETE FROM Property p WHERE p.owner.email = :email")
+                    .setParameter("email", agent.getEmail()).executeUpdate();
+            entityManager.createQuery("DELETE FROM User u WHERE u.email = :email")
+                    .setParameter("email", agent.getEmail()).executeUpdate();
+        });
+    }
+
+    @Test
+    void importCsv_shouldInsertValidRowsInJdbcBatchesAndReportInvalidOnes() {
+        //given
+        StringBuilder csv = new StringBuilder("title;description;price;area_sqm;rooms;transaction_type;city;postal_code;owner_id\n");
+        for (int i = 0; i < 250; i++) {
+            csv.append("\"Mieszkanie; nr ").append(i).append("\";Opis;")
+                    .append("350000,50;48,5;2;sale;Warszawa;00-001;999\n");
+        }
+        csv.append("Bez ceny;Opis;;40;1;RENT;Kraków;;\n");
+        csv.append("Zły typ;Opis;1000;40;1;LEASE;Kraków;;\n");
+        csv.append("Za mało kolumn;Opis\n");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //when
+        PropertyImportResponse response = importService.importProperties(
+                reader(csv.toString()), PropertyImportFormat.CSV, agent);
+
+        //then
+        assertEquals(253, response.getProcessed());
+        assertEquals(250, response.getImported());
+        assertEquals(3, response.getFailed());
+        assertFalse(response.isErrorsTruncated());
+        assertEquals(252, response.getErrors().get(0).getLine());
+        assertTrue(response.getErrors().get(0).getMessage().startsWith("price:"));
+        assertTrue(response.getErrors().get(1).getMessage().contains("LEASE"));
+        assertEquals(254, response.getErrors().get(2).getLine());
+
+        // batche JDBC po 50 + pobrania sekwencji co 50 id zamiast jednego INSERT na wiersz
+        assertTrue(statistics.getPrepareStatementCount() < 30,
+                "prepared statements: " + statistics.getPrepareStatementCount());
+        verify(eventPublisher, times(250)).publishEvent(any(PropertyChangedEvent.class));
+
+        Property imported = tx.execute(status -> entityManager.createQuery(
+                        "SELECT p FROM Property p WHERE p.owner.email = :email AND p.title = :title", Property.class)
+                .setParameter("email", agent.getEmail())
+                .setParameter("title", "Mieszkanie; nr 7")
+                .getSingleResult());
+        assertEquals(0, new BigDecimal("350000.50").compareTo(imported.getPrice()));
+        assertEquals(48.5, imported.getAreaSqm());
+        assertEquals(TransactionType.SALE, imported.getTransactionType());
+    }
+
+    @Test
+    void importNdjson_shouldSkipBlankLinesAndReportMalformedJson() {
+        //given
+        String ndjson = """
+                {"title":"Dom","description":"Opis","price":900000,"areaSqm":120,"transactionType":"SALE","city":"Gdańsk"}
+
+                {"title":"Kawalerka","description":"Opis","price":2500,"areaSqm":25,"transactionType":"RENT","city":"Łódź","postalCode":"90-001"}
+                {"title":"Zepsuty",
+                {"title":"","description":"Opis","price":1,"areaSqm":1,"transactionType":"RENT","city":"Łódź"}
+                """;
+
+        //when
+        PropertyImportResponse response = importService.importProperties(
+                reader(ndjson), PropertyImportFormat.NDJSON, agent);
+
+        //then
+        assertEquals(4, response.getProcessed());
+        assertEquals(2, response.getImported());
+        assertEquals(4, response.getErrors().get(0).getLine());
+        assertTrue(response.getErrors().get(0).getMessage().startsWith("Nieprawidłowy JSON"));
+        assertEquals(5, response.getErrors().get(1).getLine());
+        assertTrue(response.getErrors().get(1).getMessage().startsWith("title:"));
+    }
+
+    @Test
+    void import_shouldRejectUnknownCsvColumnAndNonAgents() {
+        //given
+        agent.setRole(UserRole.PENDING_AGENT);
+
+        //then
+        assertThrows(UnauthorizedException.class, () -> importService.importProperties(
+                reader("title\nA\n"), PropertyImportFormat.CSV, agent));
+        assertThrows(UnauthorizedException.class, () -> importService.importProperties(
+                reader("title\nA\n"), PropertyImportFormat.CSV, null));
+
+        agent.setRole(UserRole.AGENT);
+        assertThrows(IllegalArgumentException.class, () -> importService.importProperties(
+                reader("title,colour\nA,red\n"), PropertyImportFormat.CSV, agent));
+    }
+
+    @Test
+    void import_shouldNotPersistPartialChunkWhenReadFails() {
+        //given
+        String ndjson = """
+                {"title":"Dom","description":"Opis","price":900000,"areaSqm":120,"transactionType":"SALE","city":"Gdańsk"}
+                {"title":"Kawalerka","description":"Opis","price":2500,"areaSqm":25,"transactionType":"RENT","city":"Łódź"}
+                """;
+        // połączenie zerwane po dwóch wierszach - reszta pliku nigdy nie dotrze
+        BufferedReader broken = new BufferedReader(new FilterReader(new StringReader(ndjson)) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read == -1) {
+                    throw new IOException("Connection reset");
+                }
+                return read;
+            }
+        });
+
+        //when
+        assertThrows(FileUploadException.class, () -> importService.importProperties(
+                broken, PropertyImportFormat.NDJSON, agent));
+
+        //then
+        Long count = tx.execute(status -> entityManager.createQuery(
+                        "SELECT COUNT(p) FROM Property p WHERE p.owner.email = :email", Long.class)
+                .setParameter("email", agent.getEmail())
+                .getSingleResult());
+        assertEquals(0L, count);
+        verify(eventPublisher, never()).publishEvent(any(PropertyChangedEvent.class));
+    }
+
+    @Test
+    void importCsv_shouldStripByteOrderMarkFromHeader() {
+        //when
+        PropertyImportResponse response = importService.importProperties(
+                reader("\uFEFFtitle;description;price;area_sqm;transaction_type;city\nDom;Opis;900000;120;sale;Gdańsk\n"),
+                PropertyImportFormat.CSV, agent);
+
+        //then
+        assertEquals(1, response.getImported());
+    }
+
+    private static BufferedReader reader(String content) {
+        return new BufferedReader(new StringReader(content));
+    }
+}
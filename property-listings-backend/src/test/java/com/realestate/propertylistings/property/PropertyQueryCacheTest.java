@@ -0,0 +1,124 @@
+package com.realestate.propertylistings.property;
+
+import com.realestate.propertylistings.dto.PagedResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropertyQueryCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PropertyQueryCache queryCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queryCache = new PropertyQueryCache(
+                new ConcurrentMapCacheManager(PropertyQueryCache.CACHE_NAME, PropertyQueryCache.VERSION_CACHE_NAME),
+                meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getOrLoad_shouldServeRepeatedQueryFromCacheAndExportHitRatio() {
+        //when
+        PagedResponse<PropertyResponse> first = load("Warszawa", "city|Warszawa|0|20");
+        PagedResponse<PropertyResponse> second = load("Warszawa", "city|Warszawa|0|20");
+
+        //then
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(0.5, meterRegistry.get("property.query.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void invalidateCity_shouldOnlyAffectThatCityAndQueriesWithoutCity() {
+        //given
+        load("Warszawa", "warszawa");
+        load("Kraków", "krakow");
+        load(null, "all");
+
+        //when
+        queryCache.invalidateCity(" KRAKÓW ");
+        load("Warszawa", "warszawa");
+        load("Kraków", "krakow");
+        load(null, "all");
+
+        //then
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void onPropertyChanged_shouldInvalidatePreviousAndCurrentCity() {
+        //given
+        Property property = new Property();
+        property.setCity("Gdańsk");
+        load("Poznań", "poznan");
+        load("Gdańsk", "gdansk");
+
+        //when
+        queryCache.onPropertyChanged(PropertyChangedEvent.updated(property, "Poznań"));
+        load("Poznań", "poznan");
+        load("Gdańsk", "gdansk");
+
+        //then
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void invalidateAll_shouldInvalidateEveryQuery() {
+        //given
+        load("Warszawa", "warszawa");
+        load(null, "all");
+
+        //when
+        queryCache.invalidateAll();
+        load("Warszawa", "warszawa");
+        load(null, "all");
+
+        //then
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void getOrLoadVersion_shouldReuseVersionUntilListGenerationChanges() {
+        //given
+        AtomicInteger aggregates = new AtomicInteger();
+        PropertyListVersion version = new PropertyListVersion(null, null, 3);
+
+        //when
+        queryCache.getOrLoadVersion("Warszawa", "city|warszawa", () -> {
+            aggregates.incrementAndGet();
+            return version;
+        });
+        PropertyListVersion cached = queryCache.getOrLoadVersion("Warszawa", "city|warszawa", () -> {
+            aggregates.incrementAndGet();
+            return version;
+        });
+        queryCache.invalidateCity("warszawa");
+        queryCache.getOrLoadVersion("Warszawa", "city|warszawa", () -> {
+            aggregates.incrementAndGet();
+            return version;
+        });
+
+        //then
+        assertSame(version, cached);
+        assertEquals(2, aggregates.get());
+        // wersje nie zaburzają metryk trafień stron
+        assertEquals(0.0, meterRegistry.get("property.query.cache.hit.ratio").gauge().value());
+    }
+
+    private PagedResponse<PropertyResponse> load(String city, String queryKey) {
+        return queryCache.getOrLoad(city, queryKey, () -> {
+            loads.incrementAndGet();
+            return PagedResponse.<PropertyResponse>builder().content(List.of()).build();
+        });
+    }
+}
@@ -0,0 +1,141 @@
+package com.realestate.propertylistings.property;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.realestate.propertylistings.dto.PagedResponse;
+import com.realestate.propertylistings.image.PropertyImage;
+import com.realestate.propertylistings.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Koszt odpowiedzi z 50 ogłoszeniami (PagedResponse&lt;PropertyResponse&gt;, po 5 zdjęć):
+ * mapowanie encji + serializacja, sama serializacja (z Blackbird i bez), serializacja + gzip
+ * oraz trafienie w PropertyResponseByteCache. ObjectMapper zbudowany jak w Spring Boot.
+ * Blackbird nie dał mierzalnego zysku na tych DTO (w granicach błędu), dlatego nie jest włączony w aplikacji.
+ * Uruchomienie: main() z classpath testów.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class PropertyResponseSerializationBenchmark {
+
+    private final PropertyMapper propertyMapper = new PropertyMapperImpl();
+    private ObjectMapper objectMapper;
+    private ObjectMapper blackbirdMapper;
+    private List<Property> properties;
+    private PagedResponse<PropertyResponse> page;
+    private PropertyResponseByteCache byteCache;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        blackbirdMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+
+        User owner = User.builder()
+                .id(7L)
+                .email("agent@example.com")
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .phoneNumber("+48 600 700 800")
+                .build();
+        properties = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Property property = new Property();
+            property.setId((long) i);
+            property.setTitle("Przestronne mieszkanie " + i + " z balkonem");
+            property.setDescription("Mieszkanie po remoncie, blisko metra i parku. ".repeat(6));
+            property.setPrice(new BigDecimal("649900.00").add(BigDecimal.valueOf(i * 1000L)));
+            property.setAreaSqm(54.3 + i);
+            property.setRoomCount(3);
+            property.setBathroomCount(1);
+            property.setFloorNumber(4);
+            property.setTransactionType(TransactionType.SALE);
+            property.setCity("Warszawa");
+            property.setStreet("Marszałkowska " + i);
+            property.setPostalCode("00-001");
+            property.setIsActive(true);
+            property.setCreatedAt(LocalDateTime.of(2025, 3, 1, 10, 0).plusHours(i));
+            property.setUpdatedAt(LocalDateTime.of(2025, 4, 1, 10, 0).plusMinutes(i));
+            property.setOwner(owner);
+            for (int order = 0; order < 5; order++) {
+                String name = "ab".repeat(32) + "-" + i + "-" + order;
+                property.getImages().add(PropertyImage.builder()
+                        .id((long) (i * 10 + order))
+                        .fileName(name + ".jpg")
+                        .fileUrl("https://cdn.example.com/uploads/properties/" + name + ".jpg")
+                        .thumbnailUrl("https://cdn.example.com/uploads/properties/" + name + "_thumb.jpg")
+                        .cardUrl("https://cdn.example.com/uploads/properties/" + name + "_card.jpg")
+                        .fullUrl("https://cdn.example.com/uploads/properties/" + name + "_full.jpg")
+                        .displayOrder(order)
+                        .isPrimary(order == 0)
+                        .property(property)
+                        .build());
+            }
+            properties.add(property);
+        }
+        page = toPage(properties);
+
+        byteCache = new PropertyResponseByteCache(objectMapper, 64 * 1024 * 1024, 1024, new SimpleMeterRegistry());
+        byteCache.getOrEncode("page", () -> page);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws IOException {
+        return objectMapper.writeValueAsBytes(toPage(properties));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeBlackbird() throws IOException {
+        return blackbirdMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PropertyResponseByteCache.EncodedResponse serializeAndGzip() throws IOException {
+        return byteCache.encode(page);
+    }
+
+    @Benchmark
+    public PropertyResponseByteCache.EncodedResponse cachedBytes() throws IOException {
+        return byteCache.getOrEncode("page", () -> page);
+    }
+
+    private PagedResponse<PropertyResponse> toPage(List<Property> rows) {
+        return PagedResponse.<PropertyResponse>builder()
+                .content(rows.stream().map(propertyMapper::toResponse).toList())
+                .pageNumber(0)
+                .pageSize(rows.size())
+                .totalElements(5_000L)
+                .totalPages(100)
+                .totalExact(true)
+                .hasNext(true)
+                .first(true)
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PropertyResponseSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,173 @@
+package com.realestate.propertylistings.property;
+
+import com.realestate.propertylistings.image.PropertyImage;
+import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRepository;
+import com.realestate.propertylistings.user.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class PropertySecondLevelCacheTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Statistics statistics;
+    private String city;
+    private String email;
+    private Long propertyId;
+
+    // cache L2 dostaje encje po commicie - dane testowe są zatwierdzane, a test działa w nowej transakcji
+    @BeforeEach
+    void setUp() {
+        city = "Miasto-" + UUID.randomUUID();
+        email = UUID.randomUUID() + "@example.com";
+
+        User owner = User.builder()
+                .email(email)
+                .password("secret")
+                .firstName("Anna")
+                .lastName("Nowak")
+                .role(UserRole.AGENT)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build();
+        entityManager.persist(owner);
+
+        Property property = persistProperty(owner);
+        for (int order = 0; order < 3; order++) {
+            entityManager.persist(PropertyImage.builder()
+                    .fileName(order + ".jpg")
+                    .originalFileName(order + ".jpg")
+                    .contentType("image/jpeg")
+                    .fileSize(100L)
+                    .fileUrl("/uploads/properties/" + order + ".jpg")
+                    .displayOrder(order)
+                    .property(property)
+                    .build());
+        }
+        propertyId = property.getId();
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        TestTransaction.start();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    // zatwierdzone dane nie mogą wyciec do innych testów korzystających z tego samego kontekstu
+    @AfterEach
+    void cleanUp() {
+        if (TestTransaction.isActive()) {
+            TestTransaction.end();
+        }
+        TestTransaction.start();
+        entityManager.createQuery("DELETE FROM PropertyImage i WHERE i.property.id IN "
+                        + "(SELECT p.id FROM Property p WHERE p.city = :city)")
+                .setParameter("city", city)
+                .executeUpdate();
+        entityManager.createQuery("DELETE FROM Property p WHERE p.city = :city")
+                .setParameter("city", city)
+                .executeUpdate();
+        entityManager.createQuery("DELETE FROM User u WHERE u.email = :email")
+                .setParameter("email", email)
+                .executeUpdate();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+    }
+
+    @Test
+    void findById_shouldHitEntityRegionOnRepeatedReads() {
+        assertEquals(1, statements(() -> propertyRepository.findById(propertyId).orElseThrow()));
+        assertEquals(0, statements(() -> propertyRepository.findById(propertyId).orElseThrow()));
+        assertEquals(0, statements(() -> propertyRepository.findById(propertyId).orElseThrow()));
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 2);
+    }
+
+    @Test
+    void images_shouldHitCollectionRegionOnRepeatedReads() {
+        long first = statements(() -> propertyRepository.findById(propertyId).orElseThrow().getImages().size());
+        long repeated = statements(() -> propertyRepository.findById(propertyId).orElseThrow().getImages().size());
+
+        assertEquals(2, first);
+        assertEquals(0, repeated);
+    }
+
+    @Test
+    void findByEmail_shouldResolveNaturalIdFromCache() {
+        long first = statements(() -> userRepository.findByEmail(email).orElseThrow());
+        long repeated = statements(() -> userRepository.findByEmail(email).orElseThrow());
+
+        assertTrue(first >= 1);
+        assertEquals(0, repeated);
+        assertTrue(statistics.getNaturalIdCacheHitCount() >= 1);
+    }
+
+    @Test
+    void countByCity_shouldUseQueryCacheUntilTableChanges() {
+        assertEquals(1, statements(() -> propertyRepository.countByCityAndIsActiveTrue(city)));
+        assertEquals(0, statements(() -> propertyRepository.countByCityAndIsActiveTrue(city)));
+
+        persistProperty(userRepository.findByEmail(email).orElseThrow());
+        entityManager.flush();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        TestTransaction.start();
+
+        long[] count = new long[1];
+        assertEquals(1, statements(() -> count[0] = propertyRepository.countByCityAndIsActiveTrue(city)));
+        assertEquals(2, count[0]);
+    }
+
+    private Property persistProperty(User owner) {
+        Property property = new Property();
+        property.setTitle("Dom z ogrodem");
+        property.setPrice(new BigDecimal("990000.00"));
+        property.setCity(city);
+        property.setIsActive(true);
+        property.setOwner(owner);
+        entityManager.persist(property);
+        return property;
+    }
+
+    // każdy odczyt w osobnej transakcji, jak osobne żądania HTTP - wpis READ_WRITE
+    // jest widoczny dopiero dla transakcji rozpoczętych po jego zapisaniu
+    private long statements(Supplier<Object> read) {
+        TestTransaction.end();
+        TestTransaction.start();
+        entityManager.clear();
+        long before = statistics.getPrepareStatementCount();
+        read.get();
+        return statistics.getPrepareStatementCount() - before;
+    }
+}
@@ -1,13 +1,19 @@
 package com.realestate.propertylistings.property;
 
+import com.realestate.propertylistings.columnar.PropertyColumnarEngine;
 import com.realestate.propertylistings.dto.CreatePropertyRequest;
+import com.realestate.propertylistings.search.PropertySearchIndex;
 import com.realestate.propertylistings.user.User;
+import com.realestate.propertylistings.user.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class PropertyServiceTest {
@@ -15,6 +21,12 @@ public class PropertyServiceTest {
     private PropertyRepository propertyRepository;
     private PropertyMapper propertyMapper;
     private PaginationValidator paginationValidator;
+    private PropertyCountEstimator countEstimator;
+    private PropertySearchIndex searchIndex;
+    private ApplicationEventPublisher eventPublisher;
+    private PropertyColumnarEngine columnarEngine;
+    private PropertyQueryCache queryCache;
+    private UserRepository userRepository;
     private PropertyService propertyService;
 
     @BeforeEach
@@ -22,11 +34,23 @@ public class PropertyServiceTest {
         propertyRepository = mock(PropertyRepository.class);
         propertyMapper = mock(PropertyMapper.class);
         paginationValidator = mock(PaginationValidator.class);
+        countEstimator = mock(PropertyCountEstimator.class);
+        searchIndex = mock(PropertySearchIndex.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        columnarEngine = mock(PropertyColumnarEngine.class);
+        queryCache = mock(PropertyQueryCache.class);
+        userRepository = mock(UserRepository.class);
 
         propertyService = new PropertyService(
                 propertyRepository,
                 propertyMapper,
-                paginationValidator
+                paginationValidator,
+                countEstimator,
+                searchIndex,
+                eventPublisher,
+                columnarEngine,
+                queryCache,
+                userRepository
         );
     }
 
@@ -41,6 +65,10 @@ public class PropertyServiceTest {
         currentUser.setId(1L);
         currentUser.setEmail("agent@example.com");
 
+        User owner = new User();
+        owner.setId(1L);
+        owner.setFirstName("Jan");
+
         Property mappedEntity = new Property();
         mappedEntity.setTitle("Test property");
 
@@ -53,6 +81,7 @@ public class PropertyServiceTest {
         response.setTitle("Test property");
 
         when(propertyMapper.toEntity(request)).thenReturn(mappedEntity);
+        when(userRepository.getReferenceById(1L)).thenReturn(owner);
         when(propertyRepository.save(mappedEntity)).thenReturn(savedEntity);
         when(propertyMapper.toResponse(savedEntity)).thenReturn(response);
 
@@ -64,10 +93,23 @@ public class PropertyServiceTest {
         assertEquals(10L, result.getId());
         assertEquals("Test property", result.getTitle());
         verify(propertyMapper).toEntity(request);
-        assertSame(currentUser, mappedEntity.getOwner());
+        assertSame(owner, mappedEntity.getOwner());
         verify(propertyRepository).save(mappedEntity);
         verify(propertyMapper).toResponse(savedEntity);
 
         verifyNoMoreInteractions(propertyMapper, propertyRepository, paginationValidator);
     }
+
+    @Test
+    void getPropertiesByCity_shouldBuildQueryCacheKeyFromValidatedPagination() {
+        //given
+        when(paginationValidator.validatePageNumber(-3)).thenReturn(0);
+        when(paginationValidator.validatePageSize(10_000)).thenReturn(50);
+
+        //when
+        propertyService.getPropertiesByCity("Kraków", -3, 10_000);
+
+        //then
+        verify(queryCache).getOrLoad(eq("Kraków"), eq("city|Kraków|0|50"), any());
+    }
 }
@@ -0,0 +1,78 @@
+package com.realestate.propertylistings.search;
+
+import com.realestate.propertylistings.property.Property;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropertySearchIndexTest {
+
+    private PropertySearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new PropertySearchIndex();
+        searchIndex.index(property(1L, "Przestronne mieszkanie w centrum", "Blisko parku i szkoły", "Łódź", 1));
+        searchIndex.index(property(2L, "Dom z ogrodem", "Dom wolnostojący, w okolicy mieszkania sąsiadów", "Kraków", 2));
+        searchIndex.index(property(3L, "Kawalerka", "Małe mieszkanie dla studenta", "Warszawa", 3));
+        searchIndex.markReady();
+    }
+
+    @Test
+    void search_shouldMatchWithoutDiacriticsAndAcrossInflections() {
+        assertEquals(List.of(1L), searchIndex.search("lodz", SearchSort.RELEVANCE));
+        assertEquals(List.of(1L), searchIndex.search("ŁÓDŹ", SearchSort.RELEVANCE));
+        assertTrue(searchIndex.search("mieszkania", SearchSort.RELEVANCE).containsAll(List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void search_shouldRankTitleMatchAboveDescriptionMatch() {
+        //when
+        List<Long> hits = searchIndex.search("mieszkanie", SearchSort.RELEVANCE);
+
+        //then
+        assertEquals(1L, hits.get(0));
+    }
+
+    @Test
+    void search_shouldRequireAllTermsAndSupportPrefixes() {
+        assertEquals(List.of(3L), searchIndex.search("mieszkanie warsz", SearchSort.RELEVANCE));
+        assertTrue(searchIndex.search("mieszkanie gdansk", SearchSort.RELEVANCE).isEmpty());
+    }
+
+    @Test
+    void search_shouldSortByNewest() {
+        assertEquals(List.of(3L, 2L, 1L), searchIndex.search("mieszkanie", SearchSort.NEWEST));
+    }
+
+    @Test
+    void index_shouldReplaceAndRemoveDocuments() {
+        //when
+        Property updated = property(3L, "Kawalerka", "Pokój na poddaszu", "Warszawa", 3);
+        searchIndex.index(updated);
+        Property deactivated = property(1L, "Przestronne mieszkanie w centrum", "", "Łódź", 1);
+        deactivated.setIsActive(false);
+        searchIndex.index(deactivated);
+        searchIndex.remove(2L);
+
+        //then
+        assertTrue(searchIndex.search("mieszkanie", SearchSort.RELEVANCE).isEmpty());
+        assertEquals(List.of(3L), searchIndex.search("poddasze", SearchSort.RELEVANCE));
+        assertEquals(1, searchIndex.size());
+    }
+
+    private Property property(Long id, String title, String description, String city, int day) {
+        Property property = new Property();
+        property.setId(id);
+        property.setTitle(title);
+        property.setDescription(description);
+        property.setCity(city);
+        property.setIsActive(true);
+        property.setCreatedAt(LocalDateTime.of(2025, 1, day, 12, 0));
+        return property;
+    }
+}
@@ -0,0 +1,73 @@
+package com.realestate.propertylistings.user;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// filtr JWT i logowanie wołają findByEmail bez otaczającej transakcji - test też jej nie ma
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        email = UUID.randomUUID() + "@example.com";
+        tx.executeWithoutResult(status -> entityManager.persist(User.builder()
+                .email(email)
+                .password("secret")
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .role(UserRole.AGENT)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build()));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(status -> entityManager.createQuery("DELETE FROM User u WHERE u.email = :email")
+                .setParameter("email", email).executeUpdate());
+    }
+
+    @Test
+    void findByEmail_shouldWorkWithoutSurroundingTransaction() {
+        //given
+        assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+
+        //when
+        Optional<User> user = userRepository.findByEmail(email);
+
+        //then
+        assertTrue(user.isPresent());
+        assertEquals(UserRole.AGENT, user.get().getRole());
+        assertTrue(userRepository.findByEmail("missing-" + email).isEmpty());
+    }
+}